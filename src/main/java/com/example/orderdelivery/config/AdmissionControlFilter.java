@@ -0,0 +1,126 @@
+package com.example.orderdelivery.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds load on database-heavy endpoints before it queues up on the Tomcat pool.
+ * Order creation and tracking updates share an {@link AdaptiveConcurrencyLimiter}; reports
+ * may only use admission.report-share of its limit, so they are rejected first. Only write
+ * latencies drive the limit: a report is expected to take longer than the write target, and
+ * letting it back the limit off would turn slow reports into 503s for order creation. All
+ * other reads bypass the limiter entirely. Rejected requests get an immediate 503 with Retry-After.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private static final List<String> WRITE_PATTERNS = List.of(
+            "POST /api/orders",
+            "PUT /api/tracking/**");
+
+    private static final List<String> REPORT_PATTERNS = List.of(
+            "GET /api/inventory/value",
+            "GET /api/inventory/products/*/movement",
+            "GET /api/inventory/reorder-suggestions",
+            "GET /api/suppliers/*/orders",
+            "GET /api/suppliers/*/revenue");
+
+    private final boolean enabled;
+    private final double reportShare;
+    private final int retryAfterSeconds;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Counter rejectedWrites;
+    private final Counter rejectedReports;
+
+    public AdmissionControlFilter(
+            MeterRegistry meterRegistry,
+            @Value("${admission.enabled:true}") boolean enabled,
+            @Value("${admission.initial-limit:20}") int initialLimit,
+            @Value("${admission.min-limit:4}") int minLimit,
+            @Value("${admission.max-limit:200}") int maxLimit,
+            @Value("${admission.target-latency-ms:250}") long targetLatencyMs,
+            @Value("${admission.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${admission.report-share:0.5}") double reportShare,
+            @Value("${admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.enabled = enabled;
+        this.reportShare = reportShare;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                TimeUnit.MILLISECONDS.toNanos(targetLatencyMs), backoffRatio);
+        Gauge.builder("admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("admission.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+        this.rejectedWrites = Counter.builder("admission.rejected").tag("class", "write").register(meterRegistry);
+        this.rejectedReports = Counter.builder("admission.rejected").tag("class", "report").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !(matches(request, WRITE_PATTERNS) || matches(request, REPORT_PATTERNS));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean report = matches(request, REPORT_PATTERNS);
+        if (!limiter.tryAcquire(report ? reportShare : 1.0)) {
+            (report ? rejectedReports : rejectedWrites).increment();
+            reject(response);
+            return;
+        }
+
+        if (report) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                limiter.release();
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"timestamp\":\"" + LocalDateTime.now()
+                + "\",\"message\":\"Server is busy, please retry\",\"status\":503}");
+    }
+
+    private static boolean matches(HttpServletRequest request, List<String> patterns) {
+        String prefix = request.getMethod() + " ";
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : patterns) {
+            if (pattern.startsWith(prefix) && PATH_MATCHER.match(pattern.substring(prefix.length()), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.orderdelivery.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers Blackbird with Spring Boot's ObjectMapper. It replaces reflective getter
+ * and setter calls with generated lambdas, which cuts serialization CPU for the flat
+ * response DTOs returned by every controller.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
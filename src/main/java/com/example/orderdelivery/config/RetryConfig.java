@@ -0,0 +1,59 @@
+package com.example.orderdelivery.config;
+
+import com.example.orderdelivery.exception.StaleVersionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Enables {@link RetryOnOptimisticLock} and records how often versioned writes collide.
+ * The retry interceptor is ordered outside the transaction interceptor, so every
+ * attempt runs in a fresh transaction against freshly loaded entities.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfig {
+
+    @Bean
+    public RetryListener optimisticLockRetryListener(MeterRegistry meterRegistry) {
+        return new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onError(
+                    RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                if (isRace(throwable)) {
+                    conflictCounter(meterRegistry, "orders.optimistic_lock.conflicts", context).increment();
+                }
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(
+                    RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                if (isRace(throwable)) {
+                    conflictCounter(meterRegistry, "orders.optimistic_lock.exhausted", context).increment();
+                } else if (throwable == null && context.getRetryCount() > 0) {
+                    conflictCounter(meterRegistry, "orders.optimistic_lock.recovered", context).increment();
+                }
+            }
+        };
+    }
+
+    /**
+     * Two writers collided; a client sending a stale version is not a race between writers
+     */
+    private static boolean isRace(Throwable throwable) {
+        return throwable instanceof OptimisticLockingFailureException && !(throwable instanceof StaleVersionException);
+    }
+
+    private static Counter conflictCounter(MeterRegistry meterRegistry, String name, RetryContext context) {
+        Object label = context.getAttribute(RetryContext.NAME);
+        return Counter.builder(name)
+                .tag("method", label != null ? label.toString() : "unknown")
+                .register(meterRegistry);
+    }
+}
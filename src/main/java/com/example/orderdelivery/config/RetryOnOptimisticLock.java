@@ -0,0 +1,32 @@
+package com.example.orderdelivery.config;
+
+import com.example.orderdelivery.exception.StaleVersionException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs a transactional service method when its commit loses an optimistic lock race.
+ * Backoff is exponential with random jitter and bounded by orders.retry.max-delay-ms,
+ * so contended writers spread out instead of colliding again on the same version.
+ * A {@link StaleVersionException} is not retried, the client's version stays stale.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Retryable(
+        retryFor = OptimisticLockingFailureException.class,
+        noRetryFor = StaleVersionException.class,
+        maxAttemptsExpression = "${orders.retry.max-attempts:4}",
+        listeners = "optimisticLockRetryListener",
+        backoff = @Backoff(
+                delayExpression = "${orders.retry.initial-delay-ms:20}",
+                maxDelayExpression = "${orders.retry.max-delay-ms:400}",
+                multiplierExpression = "${orders.retry.multiplier:2.0}",
+                random = true))
+public @interface RetryOnOptimisticLock {
+}
@@ -0,0 +1,13 @@
+package com.example.orderdelivery.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background jobs (outbox dispatch and similar housekeeping) declared with
+ * {@code @Scheduled} on service beans.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
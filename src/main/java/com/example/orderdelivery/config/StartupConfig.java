@@ -0,0 +1,89 @@
+package com.example.orderdelivery.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.Filter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Support for the fast-startup profile (see application-fast-startup.properties and the
+ * fast-startup Maven profile).
+ */
+@Configuration
+public class StartupConfig {
+    private static final Logger log = LoggerFactory.getLogger(StartupConfig.class);
+
+    /**
+     * Under spring.main.lazy-initialization beans are created on first use. Beans that do work
+     * on their own (scheduled jobs, workers started in @PostConstruct, servlet filters) would then
+     * never start, so they stay eager.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter backgroundWorkLazyInitializationExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && (Filter.class.isAssignableFrom(beanType)
+                || hasAnnotatedMethod(beanType, Scheduled.class)
+                || hasAnnotatedMethod(beanType, PostConstruct.class));
+    }
+
+    /**
+     * Training run for the class-data-sharing archive: once the application is ready, send the
+     * configured warm-up requests so request-path classes are loaded too, then exit so the JVM
+     * writes the archive requested with -XX:ArchiveClassesAtExit.
+     */
+    @Bean
+    ApplicationListener<ApplicationReadyEvent> startupTrainingRun(
+            @Value("${startup.training-run:false}") boolean trainingRun,
+            @Value("${startup.training-paths:/actuator/health}") List<String> trainingPaths) {
+        return event -> {
+            if (!trainingRun) {
+                return;
+            }
+            if (event.getApplicationContext() instanceof WebServerApplicationContext context) {
+                warmUp(context.getWebServer().getPort(), trainingPaths);
+            }
+            log.info("Training run finished, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        };
+    }
+
+    private static void warmUp(int port, List<String> paths) {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        for (String path : paths) {
+            try {
+                HttpResponse<Void> response = client.send(
+                        HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                                .timeout(Duration.ofSeconds(30))
+                                .build(),
+                        HttpResponse.BodyHandlers.discarding());
+                log.info("Training request {} returned {}", path, response.statusCode());
+            } catch (Exception e) {
+                log.warn("Training request {} failed: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    private static boolean hasAnnotatedMethod(Class<?> beanType, Class<? extends Annotation> annotation) {
+        return !MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                        AnnotatedElementUtils.hasAnnotation(method, annotation) ? Boolean.TRUE : null).isEmpty();
+    }
+}
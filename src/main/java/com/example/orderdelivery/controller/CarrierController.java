@@ -1,6 +1,16 @@
 package com.example.orderdelivery.controller;
 
+import com.example.orderdelivery.dto.CarrierDTO;
+import com.example.orderdelivery.dto.CarrierPingDTO;
+import com.example.orderdelivery.dto.CarrierPositionDTO;
+import com.example.orderdelivery.dto.DtoMapper;
+import com.example.orderdelivery.dto.MultiGetDTO;
+import com.example.orderdelivery.dto.PingBatchResultDTO;
 import com.example.orderdelivery.entity.Carrier;
+import com.example.orderdelivery.entity.CarrierPosition;
+import com.example.orderdelivery.exception.ResourceNotFoundException;
+import com.example.orderdelivery.service.CarrierPingService;
+import com.example.orderdelivery.service.CarrierPositionService;
 import com.example.orderdelivery.service.CarrierService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -12,35 +22,49 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class CarrierController {
     private final CarrierService carrierService;
+    private final CarrierPositionService carrierPositionService;
+    private final CarrierPingService carrierPingService;
 
-    public CarrierController(CarrierService carrierService) {
+    public CarrierController(CarrierService carrierService, CarrierPositionService carrierPositionService,
+                             CarrierPingService carrierPingService) {
         this.carrierService = carrierService;
+        this.carrierPositionService = carrierPositionService;
+        this.carrierPingService = carrierPingService;
     }
 
     @GetMapping
-    public List<Carrier> getAllCarriers() {
-        return carrierService.getAllCarriers();
+    public List<CarrierDTO> getAllCarriers() {
+        return DtoMapper.toDtos(carrierService.getAllCarriers(), DtoMapper::toDto);
+    }
+
+    /**
+     * Several carriers in one request, e.g. ?ids=3,1,2; items come back in the requested order
+     */
+    @GetMapping(params = "ids")
+    public MultiGetDTO<CarrierDTO> getCarriersByIds(@RequestParam List<Long> ids) {
+        return DtoMapper.toMultiGet(carrierService.getCarriersByIds(ids), DtoMapper::toDto);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Carrier> getCarrierById(@PathVariable Long id) {
+    public ResponseEntity<CarrierDTO> getCarrierById(@PathVariable Long id) {
         return carrierService.getCarrierById(id)
+                .map(DtoMapper::toDto)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public Carrier createCarrier(@RequestBody Carrier carrier) {
-        return carrierService.saveCarrier(carrier);
+    public CarrierDTO createCarrier(@RequestBody Carrier carrier) {
+        return DtoMapper.toDto(carrierService.saveCarrier(carrier));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Carrier> updateCarrier(@PathVariable Long id, @RequestBody Carrier carrier) {
+    public ResponseEntity<CarrierDTO> updateCarrier(@PathVariable Long id, @RequestBody Carrier carrier) {
         if (!carrierService.getCarrierById(id).isPresent()) {
             return ResponseEntity.notFound().build();
         }
         carrier.setId(id);
-        return ResponseEntity.ok(carrierService.saveCarrier(carrier));
+        return ResponseEntity.ok(DtoMapper.toDto(carrierService.saveCarrier(carrier)));
     }
 
     @DeleteMapping("/{id}")
@@ -51,4 +75,42 @@ public class CarrierController {
         carrierService.deleteCarrier(id);
         return ResponseEntity.noContent().build();
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/{id}/position")
+    public ResponseEntity<CarrierPositionDTO> getCarrierPosition(@PathVariable Long id) {
+        return carrierPositionService.getPosition(id)
+                .map(DtoMapper::toDto)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GPS pings in batches, from one carrier or many; held in memory and stored downsampled
+     */
+    @PostMapping("/pings")
+    public ResponseEntity<PingBatchResultDTO> recordPings(@RequestBody List<CarrierPingDTO> pings) {
+        return ResponseEntity.accepted().body(carrierPingService.ingest(pings));
+    }
+
+    /**
+     * The carrier's GPS pings over the last minutes, oldest first
+     */
+    @GetMapping("/{id}/trail")
+    public List<CarrierPingDTO> getCarrierTrail(@PathVariable Long id,
+                                                @RequestParam(defaultValue = "30") int minutes) {
+        return carrierPingService.getCarrierTrail(id, minutes);
+    }
+
+    @PutMapping("/{id}/position")
+    public ResponseEntity<CarrierPositionDTO> updateCarrierPosition(@PathVariable Long id,
+                                                                    @RequestBody CarrierPosition position) {
+        try {
+            return ResponseEntity.ok(DtoMapper.toDto(carrierPositionService.updatePosition(id, position)));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.example.orderdelivery.controller;
+
+import com.example.orderdelivery.dto.ChangeBatchDTO;
+import com.example.orderdelivery.service.ChangeEntityType;
+import com.example.orderdelivery.service.ChangeLogService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Change feed for incremental sync. A client first calls without since to get the current
+ * cursor, loads the collections it needs, then repeatedly asks for the changes since the last
+ * nextCursor. With waitMs the request is held until a change arrives or the wait runs out.
+ */
+@RestController
+@RequestMapping("/api/changes")
+@CrossOrigin(origins = "*")
+public class ChangeController {
+    private final ChangeLogService changeLogService;
+    private final int maxBatchSize;
+    private final long maxWaitMs;
+
+    public ChangeController(
+            ChangeLogService changeLogService,
+            @Value("${changes.max-batch-size:1000}") int maxBatchSize,
+            @Value("${changes.long-poll.max-wait-ms:30000}") long maxWaitMs) {
+        this.changeLogService = changeLogService;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    @GetMapping
+    public DeferredResult<ChangeBatchDTO> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(required = false) List<ChangeEntityType> types,
+            @RequestParam(defaultValue = "0") long waitMs) {
+        if (limit < 1 || limit > maxBatchSize) {
+            throw new RuntimeException("limit must be between 1 and " + maxBatchSize);
+        }
+        if (waitMs < 0 || waitMs > maxWaitMs) {
+            throw new RuntimeException("waitMs must be between 0 and " + maxWaitMs);
+        }
+        Set<ChangeEntityType> typeFilter = types == null || types.isEmpty()
+                ? EnumSet.noneOf(ChangeEntityType.class) : EnumSet.copyOf(types);
+        if (since == null) {
+            DeferredResult<ChangeBatchDTO> result = new DeferredResult<>();
+            result.setResult(changeLogService.getChanges(null, limit, typeFilter));
+            return result;
+        }
+        return changeLogService.awaitChanges(since, limit, typeFilter, waitMs);
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.orderdelivery.controller;
 
+import com.example.orderdelivery.dto.CustomerDTO;
+import com.example.orderdelivery.dto.DtoMapper;
+import com.example.orderdelivery.dto.MultiGetDTO;
+import com.example.orderdelivery.dto.OrderHistoryPageDTO;
 import com.example.orderdelivery.entity.Customer;
 import com.example.orderdelivery.service.CustomerService;
 import org.springframework.http.ResponseEntity;
@@ -18,29 +22,49 @@ public class CustomerController {
     }
 
     @GetMapping
-    public List<Customer> getAllCustomers() {
-        return customerService.getAllCustomers();
+    public List<CustomerDTO> getAllCustomers() {
+        return DtoMapper.toDtos(customerService.getAllCustomers(), DtoMapper::toDto);
+    }
+
+    /**
+     * Several customers in one request, e.g. ?ids=3,1,2; items come back in the requested order
+     */
+    @GetMapping(params = "ids")
+    public MultiGetDTO<CustomerDTO> getCustomersByIds(@RequestParam List<Long> ids) {
+        return DtoMapper.toMultiGet(customerService.getCustomersByIds(ids), DtoMapper::toDto);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Customer> getCustomerById(@PathVariable Long id) {
+    public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable Long id) {
         return customerService.getCustomerById(id)
+                .map(DtoMapper::toDto)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/orders")
+    public ResponseEntity<OrderHistoryPageDTO> getOrderHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(customerService.getOrderHistory(id, before, limit));
+    }
+
     @PostMapping
-    public Customer createCustomer(@RequestBody Customer customer) {
-        return customerService.saveCustomer(customer);
+    public CustomerDTO createCustomer(@RequestBody Customer customer) {
+        return DtoMapper.toDto(customerService.saveCustomer(customer));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Customer> updateCustomer(@PathVariable Long id, @RequestBody Customer customer) {
+    public ResponseEntity<CustomerDTO> updateCustomer(@PathVariable Long id, @RequestBody Customer customer) {
         if (!customerService.getCustomerById(id).isPresent()) {
             return ResponseEntity.notFound().build();
         }
         customer.setId(id);
-        return ResponseEntity.ok(customerService.saveCustomer(customer));
+        return ResponseEntity.ok(DtoMapper.toDto(customerService.saveCustomer(customer)));
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,22 @@
+package com.example.orderdelivery.controller;
+
+import com.example.orderdelivery.dto.StatusSummaryDTO;
+import com.example.orderdelivery.service.StatusCounterService;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "*")
+public class DashboardController {
+    private final StatusCounterService statusCounterService;
+
+    public DashboardController(StatusCounterService statusCounterService) {
+        this.statusCounterService = statusCounterService;
+    }
+
+    // Served from in-memory counters, so frequent polling does not reach the database
+    @GetMapping("/status-summary")
+    public StatusSummaryDTO getStatusSummary() {
+        return statusCounterService.getSummary();
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.orderdelivery.controller;
 
+import com.example.orderdelivery.dto.DeliveryDTO;
+import com.example.orderdelivery.dto.DtoMapper;
 import com.example.orderdelivery.entity.Delivery;
 import com.example.orderdelivery.service.DeliveryService;
+import com.example.orderdelivery.service.FieldSelection;
+import com.example.orderdelivery.service.ProjectionService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,35 +17,59 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class DeliveryController {
     private final DeliveryService deliveryService;
+    private final ProjectionService projectionService;
 
-    public DeliveryController(DeliveryService deliveryService) {
+    public DeliveryController(DeliveryService deliveryService, ProjectionService projectionService) {
         this.deliveryService = deliveryService;
+        this.projectionService = projectionService;
     }
 
+    /**
+     * @param fields Properties to return, e.g. id,status,deliveryDate or carrier.name
+     * @param include Relations to return: carrier, order
+     */
     @GetMapping
-    public List<Delivery> getAllDeliveries() {
-        return deliveryService.getAllDeliveries();
+    public List<?> getAllDeliveries(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include);
+        if (!selection.isEmpty()) {
+            return projectionService.findDeliveries(selection);
+        }
+        return DtoMapper.toDtos(deliveryService.getAllDeliveries(), DtoMapper::toDto);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Delivery> getDeliveryById(@PathVariable Long id) {
+    public ResponseEntity<?> getDeliveryById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include);
+        if (!selection.isEmpty()) {
+            return projectionService.findDelivery(id, selection)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        }
         return deliveryService.getDeliveryById(id)
+                .map(DtoMapper::toDto)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public Delivery createDelivery(@RequestBody Delivery delivery) {
-        return deliveryService.saveDelivery(delivery);
+    public DeliveryDTO createDelivery(@RequestBody Delivery delivery) {
+        return DtoMapper.toDto(deliveryService.saveDelivery(delivery));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Delivery> updateDelivery(@PathVariable Long id, @RequestBody Delivery delivery) {
-        if (!deliveryService.getDeliveryById(id).isPresent()) {
-            return ResponseEntity.notFound().build();
-        }
-        delivery.setId(id);
-        return ResponseEntity.ok(deliveryService.saveDelivery(delivery));
+    public ResponseEntity<DeliveryDTO> updateDelivery(
+            @PathVariable Long id,
+            @RequestBody Delivery delivery,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return deliveryService.updateDelivery(id, delivery, ExpectedVersion.resolve(ifMatch, delivery.getVersion()))
+                .map(DtoMapper::toDto)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
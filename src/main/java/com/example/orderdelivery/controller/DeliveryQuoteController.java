@@ -0,0 +1,34 @@
+package com.example.orderdelivery.controller;
+
+import com.example.orderdelivery.dto.QuoteDTO;
+import com.example.orderdelivery.dto.QuoteRequestDTO;
+import com.example.orderdelivery.service.DeliveryQuoteService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/quotes")
+@CrossOrigin(origins = "*")
+public class DeliveryQuoteController {
+    private final DeliveryQuoteService deliveryQuoteService;
+
+    public DeliveryQuoteController(DeliveryQuoteService deliveryQuoteService) {
+        this.deliveryQuoteService = deliveryQuoteService;
+    }
+
+    @PostMapping
+    public QuoteDTO quote(@RequestBody QuoteRequestDTO request) {
+        return deliveryQuoteService.quote(List.of(request)).get(0);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<QuoteDTO>> quoteBatch(@RequestBody List<QuoteRequestDTO> requests) {
+        try {
+            return ResponseEntity.ok(deliveryQuoteService.quote(requests));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.orderdelivery.controller;
+
+import com.example.orderdelivery.dto.SlotDTO;
+import com.example.orderdelivery.entity.DeliveryWindow;
+import com.example.orderdelivery.exception.ResourceNotFoundException;
+import com.example.orderdelivery.service.DeliverySlotService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/slots")
+@CrossOrigin(origins = "*")
+public class DeliverySlotController {
+    private final DeliverySlotService deliverySlotService;
+
+    public DeliverySlotController(DeliverySlotService deliverySlotService) {
+        this.deliverySlotService = deliverySlotService;
+    }
+
+    @GetMapping("/next-available")
+    public ResponseEntity<SlotDTO> getNextAvailableSlot(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from) {
+        return deliverySlotService.findNextAvailable(from)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/carriers/{carrierId}")
+    public List<SlotDTO> getCarrierSlots(
+            @PathVariable Long carrierId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return deliverySlotService.getCarrierSlots(carrierId, date);
+    }
+
+    @PutMapping("/carriers/{carrierId}/capacity")
+    public ResponseEntity<SlotDTO> updateCapacity(
+            @PathVariable Long carrierId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam DeliveryWindow window,
+            @RequestParam int capacity) {
+        try {
+            return ResponseEntity.ok(deliverySlotService.updateCapacity(carrierId, date, window, capacity));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
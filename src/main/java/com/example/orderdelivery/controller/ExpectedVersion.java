@@ -0,0 +1,31 @@
+package com.example.orderdelivery.controller;
+
+/**
+ * Reads the version a client based its PUT on, from an If-Match header ("3", W/"3" or 3)
+ * or else the version property of the body.
+ */
+final class ExpectedVersion {
+    private ExpectedVersion() {
+    }
+
+    static Long resolve(String ifMatch, Long bodyVersion) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            if (bodyVersion == null) {
+                throw new RuntimeException("Version is required, send it in the body or an If-Match header");
+            }
+            return bodyVersion;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("If-Match must carry the resource version");
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.orderdelivery.controller;
 
+import com.example.orderdelivery.dto.DemandForecastDTO;
+import com.example.orderdelivery.dto.DtoMapper;
+import com.example.orderdelivery.dto.ProductDTO;
+import com.example.orderdelivery.dto.ReorderSuggestionDTO;
 import com.example.orderdelivery.entity.Product;
+import com.example.orderdelivery.service.DemandForecastService;
 import com.example.orderdelivery.service.InventoryService;
+import com.example.orderdelivery.service.ResourceVersionTracker;
+import com.example.orderdelivery.service.StockThresholdCrossing;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -15,24 +23,68 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class InventoryController {
     private final InventoryService inventoryService;
+    private final ResourceVersionTracker resourceVersionTracker;
+    private final DemandForecastService demandForecastService;
 
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, ResourceVersionTracker resourceVersionTracker,
+                               DemandForecastService demandForecastService) {
         this.inventoryService = inventoryService;
+        this.resourceVersionTracker = resourceVersionTracker;
+        this.demandForecastService = demandForecastService;
     }
 
     @GetMapping("/products")
-    public List<Product> getAllProductsWithStock() {
-        return inventoryService.getAllProductsWithStock();
+    public ResponseEntity<List<ProductDTO>> getAllProductsWithStock(WebRequest request) {
+        String etag = resourceVersionTracker.etag(ResourceVersionTracker.PRODUCTS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(DtoMapper.toDtos(inventoryService.getAllProductsWithStock(), DtoMapper::toDto));
     }
 
     @GetMapping("/products/low-stock")
-    public List<Product> getProductsWithLowStock(@RequestParam(defaultValue = "5") int threshold) {
-        return inventoryService.getProductsWithLowStock(threshold);
+    public ResponseEntity<List<ProductDTO>> getProductsWithLowStock(
+            @RequestParam(defaultValue = "5") int threshold, WebRequest request) {
+        // The tag only tracks product changes; the threshold is part of the URL and so of the cache key
+        String etag = resourceVersionTracker.etag(ResourceVersionTracker.PRODUCTS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(DtoMapper.toDtos(inventoryService.getProductsWithLowStock(threshold), DtoMapper::toDto));
     }
 
     @GetMapping("/products/out-of-stock")
-    public List<Product> getOutOfStockProducts() {
-        return inventoryService.getOutOfStockProducts();
+    public ResponseEntity<List<ProductDTO>> getOutOfStockProducts(WebRequest request) {
+        String etag = resourceVersionTracker.etag(ResourceVersionTracker.PRODUCTS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(DtoMapper.toDtos(inventoryService.getOutOfStockProducts(), DtoMapper::toDto));
+    }
+
+    @GetMapping("/alerts")
+    public ResponseEntity<List<StockThresholdCrossing>> getRecentStockAlerts() {
+        return ResponseEntity.ok(inventoryService.getRecentStockAlerts());
+    }
+
+    @GetMapping("/reorder-suggestions")
+    public ResponseEntity<List<ReorderSuggestionDTO>> getReorderSuggestions() {
+        return ResponseEntity.ok(demandForecastService.getReorderSuggestions());
+    }
+
+    @GetMapping("/products/{productId}/forecast")
+    public ResponseEntity<DemandForecastDTO> getDemandForecast(
+            @PathVariable Long productId, @RequestParam(defaultValue = "14") int days) {
+        if (days < 1 || days > 365) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(demandForecastService.getForecast(productId, days));
     }
 
     @GetMapping("/value")
@@ -55,12 +107,12 @@ public class InventoryController {
     }
 
     @PutMapping("/products/{productId}/stock")
-    public ResponseEntity<Product> updateProductStock(
+    public ResponseEntity<ProductDTO> updateProductStock(
             @PathVariable Long productId,
             @RequestParam int stock) {
         try {
             Product product = inventoryService.updateProductStock(productId, stock);
-            return ResponseEntity.ok(product);
+            return ResponseEntity.ok(DtoMapper.toDto(product));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
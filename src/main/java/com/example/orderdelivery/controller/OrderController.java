@@ -1,49 +1,101 @@
 package com.example.orderdelivery.controller;
 
+import com.example.orderdelivery.dto.DtoMapper;
+import com.example.orderdelivery.dto.OrderDTO;
 import com.example.orderdelivery.entity.Order;
+import com.example.orderdelivery.service.FieldSelection;
+import com.example.orderdelivery.service.OrderArchiveService;
 import com.example.orderdelivery.service.OrderService;
+import com.example.orderdelivery.service.OrderWritePipeline;
+import com.example.orderdelivery.service.ProjectionService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
 @CrossOrigin(origins = "*")
 public class OrderController {
     private final OrderService orderService;
+    private final OrderWritePipeline orderWritePipeline;
+    private final OrderArchiveService orderArchiveService;
+    private final ProjectionService projectionService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderWritePipeline orderWritePipeline,
+                           OrderArchiveService orderArchiveService, ProjectionService projectionService) {
         this.orderService = orderService;
+        this.orderWritePipeline = orderWritePipeline;
+        this.orderArchiveService = orderArchiveService;
+        this.projectionService = projectionService;
     }
 
+    /**
+     * @param fields Properties to return, e.g. id,status,totalAmount or customer.name
+     * @param include Relations to return: customer, orderLines, delivery, payment
+     */
     @GetMapping
-    public List<Order> getAllOrders() {
-        return orderService.getAllOrders();
+    public List<?> getAllOrders(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include);
+        if (!selection.isEmpty()) {
+            return projectionService.findOrders(selection);
+        }
+        return DtoMapper.toDtos(orderService.getAllOrders(), DtoMapper::toDto);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<?> getOrderById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include);
+        if (!selection.isEmpty()) {
+            Optional<Map<String, Object>> order = projectionService.findOrder(id, selection);
+            if (order.isPresent()) {
+                return ResponseEntity.ok(order.get());
+            }
+            // Archived orders are stored as whole JSON documents and are returned whole
+            return orderArchiveService.getArchivedOrder(id)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        // Closed orders may have moved to the archive tier
         return orderService.getOrderById(id)
+                .map(DtoMapper::toDto)
+                .or(() -> orderArchiveService.getArchivedOrder(id))
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody Order order) {
+    public ResponseEntity<OrderDTO> createOrder(@RequestBody Order order) {
         try {
-            Order createdOrder = orderService.createOrder(order);
-            return ResponseEntity.ok(createdOrder);
+            Order createdOrder = orderWritePipeline.submit(order);
+            return ResponseEntity.ok(DtoMapper.toDto(createdOrder));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Order> updateOrder(@PathVariable Long id, @RequestBody Order order) {
+    public ResponseEntity<OrderDTO> updateOrder(
+            @PathVariable Long id,
+            @RequestBody Order order,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Order updatedOrder = orderService.updateOrder(id, order);
-            return ResponseEntity.ok(updatedOrder);
+            Order updatedOrder = orderService.updateOrder(id, order, ExpectedVersion.resolve(ifMatch, order.getVersion()));
+            return ResponseEntity.ok(DtoMapper.toDto(updatedOrder));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -59,10 +111,12 @@ public class OrderController {
     }
     
     @PutMapping("/{id}/cancel")
-    public ResponseEntity<Order> cancelOrder(@PathVariable Long id) {
+    public ResponseEntity<OrderDTO> cancelOrder(@PathVariable Long id) {
         try {
             Order canceledOrder = orderService.cancelOrder(id);
-            return ResponseEntity.ok(canceledOrder);
+            return ResponseEntity.ok(DtoMapper.toDto(canceledOrder));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
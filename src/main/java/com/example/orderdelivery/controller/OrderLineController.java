@@ -1,5 +1,7 @@
 package com.example.orderdelivery.controller;
 
+import com.example.orderdelivery.dto.OrderLineDTO;
+import com.example.orderdelivery.dto.DtoMapper;
 import com.example.orderdelivery.entity.OrderLine;
 import com.example.orderdelivery.service.OrderLineService;
 import org.springframework.http.ResponseEntity;
@@ -18,29 +20,30 @@ public class OrderLineController {
     }
 
     @GetMapping
-    public List<OrderLine> getAllOrderLines() {
-        return orderLineService.getAllOrderLines();
+    public List<OrderLineDTO> getAllOrderLines() {
+        return DtoMapper.toDtos(orderLineService.getAllOrderLines(), DtoMapper::toDto);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<OrderLine> getOrderLineById(@PathVariable Long id) {
+    public ResponseEntity<OrderLineDTO> getOrderLineById(@PathVariable Long id) {
         return orderLineService.getOrderLineById(id)
+                .map(DtoMapper::toDto)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public OrderLine createOrderLine(@RequestBody OrderLine orderLine) {
-        return orderLineService.saveOrderLine(orderLine);
+    public OrderLineDTO createOrderLine(@RequestBody OrderLine orderLine) {
+        return DtoMapper.toDto(orderLineService.saveOrderLine(orderLine));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<OrderLine> updateOrderLine(@PathVariable Long id, @RequestBody OrderLine orderLine) {
+    public ResponseEntity<OrderLineDTO> updateOrderLine(@PathVariable Long id, @RequestBody OrderLine orderLine) {
         if (!orderLineService.getOrderLineById(id).isPresent()) {
             return ResponseEntity.notFound().build();
         }
         orderLine.setId(id);
-        return ResponseEntity.ok(orderLineService.saveOrderLine(orderLine));
+        return ResponseEntity.ok(DtoMapper.toDto(orderLineService.saveOrderLine(orderLine)));
     }
 
     @DeleteMapping("/{id}")
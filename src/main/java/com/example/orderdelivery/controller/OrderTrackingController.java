@@ -1,8 +1,22 @@
 package com.example.orderdelivery.controller;
 
 import com.example.orderdelivery.entity.*;
+import com.example.orderdelivery.exception.ResourceNotFoundException;
+import com.example.orderdelivery.service.CarrierDispatchService;
+import com.example.orderdelivery.service.CarrierPingService;
+import com.example.orderdelivery.service.FieldSelection;
 import com.example.orderdelivery.service.OrderTrackingService;
+import com.example.orderdelivery.service.ProjectionService;
+import com.example.orderdelivery.dto.CarrierPingDTO;
+import com.example.orderdelivery.dto.DeliveryDTO;
+import com.example.orderdelivery.dto.DtoMapper;
+import com.example.orderdelivery.dto.NearbyCarrierDTO;
+import com.example.orderdelivery.dto.OrderDTO;
 import com.example.orderdelivery.dto.OrderTrackingDTO;
+import com.example.orderdelivery.dto.TrackingHistoryDTO;
+import com.example.orderdelivery.dto.TrackingViewDTO;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,14 +27,35 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class OrderTrackingController {
     private final OrderTrackingService orderTrackingService;
+    private final CarrierDispatchService carrierDispatchService;
+    private final ProjectionService projectionService;
+    private final CarrierPingService carrierPingService;
 
-    public OrderTrackingController(OrderTrackingService orderTrackingService) {
+    public OrderTrackingController(OrderTrackingService orderTrackingService,
+                                   CarrierDispatchService carrierDispatchService,
+                                   ProjectionService projectionService,
+                                   CarrierPingService carrierPingService) {
         this.orderTrackingService = orderTrackingService;
+        this.carrierDispatchService = carrierDispatchService;
+        this.projectionService = projectionService;
+        this.carrierPingService = carrierPingService;
     }
 
+    /**
+     * @param fields Properties to return, e.g. orderStatus,deliveryStatus; only the tables
+     *               behind them are joined
+     */
     @GetMapping("/orders/{orderId}")
-    public ResponseEntity<OrderTrackingDTO> getOrderTrackingInfo(@PathVariable Long orderId) {
+    public ResponseEntity<?> getOrderTrackingInfo(
+            @PathVariable Long orderId,
+            @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, null);
         try {
+            if (!selection.isEmpty()) {
+                return projectionService.findOrderTracking(orderId, selection)
+                        .map(ResponseEntity::ok)
+                        .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+            }
             OrderTrackingDTO trackingInfo = orderTrackingService.getOrderTrackingInfo(orderId);
             return ResponseEntity.ok(trackingInfo);
         } catch (Exception e) {
@@ -29,46 +64,104 @@ public class OrderTrackingController {
     }
 
     @GetMapping("/orders/{orderId}/history")
-    public ResponseEntity<List<TrackingHistory>> getOrderTrackingHistory(@PathVariable Long orderId) {
+    public ResponseEntity<List<TrackingHistoryDTO>> getOrderTrackingHistory(@PathVariable Long orderId) {
         try {
             List<TrackingHistory> history = orderTrackingService.getOrderTrackingHistory(orderId);
-            return ResponseEntity.ok(history);
+            return ResponseEntity.ok(DtoMapper.toDtos(history, DtoMapper::toDto));
         } catch (Exception e) {
             return ResponseEntity.ok(java.util.Collections.emptyList());
         }
     }
 
+    /**
+     * Tracking summary and the latest history entries in one response, for the tracking page
+     */
+    @GetMapping("/orders/{orderId}/view")
+    public TrackingViewDTO getOrderTrackingView(
+            @PathVariable Long orderId,
+            @RequestParam(defaultValue = "20") int historyLimit) {
+        return orderTrackingService.getOrderTrackingView(orderId, historyLimit);
+    }
+
     @PutMapping("/orders/{orderId}/status")
-    public ResponseEntity<Order> updateOrderStatus(
+    public ResponseEntity<OrderDTO> updateOrderStatus(
             @PathVariable Long orderId,
             @RequestParam OrderStatus status) {
         try {
             Order updatedOrder = orderTrackingService.updateOrderStatus(orderId, status);
-            return ResponseEntity.ok(updatedOrder);
+            return ResponseEntity.ok(DtoMapper.toDto(updatedOrder));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @PutMapping("/deliveries/{deliveryId}/assign")
-    public ResponseEntity<Delivery> assignCarrier(
+    public ResponseEntity<DeliveryDTO> assignCarrier(
             @PathVariable Long deliveryId,
             @RequestParam Long carrierId) {
         try {
             Delivery updatedDelivery = orderTrackingService.assignCarrier(deliveryId, carrierId);
-            return ResponseEntity.ok(updatedDelivery);
+            return ResponseEntity.ok(DtoMapper.toDto(updatedDelivery));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/deliveries/{deliveryId}/nearest-carriers")
+    public ResponseEntity<List<NearbyCarrierDTO>> getNearestCarriers(
+            @PathVariable Long deliveryId,
+            @RequestParam(defaultValue = "5") int k) {
+        try {
+            return ResponseEntity.ok(carrierDispatchService.findNearestCarriers(deliveryId, k));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @PutMapping("/deliveries/{deliveryId}/assign-nearest")
+    public ResponseEntity<DeliveryDTO> assignNearestCarrier(@PathVariable Long deliveryId) {
+        try {
+            Delivery updatedDelivery = carrierDispatchService.assignNearestCarrier(deliveryId);
+            return ResponseEntity.ok(DtoMapper.toDto(updatedDelivery));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Latest GPS position of the carrier of a delivery in transit
+     */
+    @GetMapping("/deliveries/{deliveryId}/position")
+    public ResponseEntity<CarrierPingDTO> getDeliveryPosition(@PathVariable Long deliveryId) {
+        return carrierPingService.getLatestDeliveryPosition(deliveryId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GPS trail of the carrier of a delivery in transit over the last minutes, oldest first
+     */
+    @GetMapping("/deliveries/{deliveryId}/trail")
+    public List<CarrierPingDTO> getDeliveryTrail(@PathVariable Long deliveryId,
+                                                 @RequestParam(defaultValue = "30") int minutes) {
+        return carrierPingService.getDeliveryTrail(deliveryId, minutes);
+    }
+
     @PutMapping("/deliveries/{deliveryId}/status")
-    public ResponseEntity<Delivery> updateDeliveryStatus(
+    public ResponseEntity<DeliveryDTO> updateDeliveryStatus(
             @PathVariable Long deliveryId,
             @RequestParam DeliveryStatus status) {
         try {
             Delivery updatedDelivery = orderTrackingService.updateDeliveryStatus(deliveryId, status);
-            return ResponseEntity.ok(updatedDelivery);
+            return ResponseEntity.ok(DtoMapper.toDto(updatedDelivery));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
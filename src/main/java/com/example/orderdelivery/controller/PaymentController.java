@@ -1,5 +1,7 @@
 package com.example.orderdelivery.controller;
 
+import com.example.orderdelivery.dto.PaymentDTO;
+import com.example.orderdelivery.dto.DtoMapper;
 import com.example.orderdelivery.entity.Payment;
 import com.example.orderdelivery.service.PaymentService;
 import org.springframework.http.ResponseEntity;
@@ -18,29 +20,30 @@ public class PaymentController {
     }
 
     @GetMapping
-    public List<Payment> getAllPayments() {
-        return paymentService.getAllPayments();
+    public List<PaymentDTO> getAllPayments() {
+        return DtoMapper.toDtos(paymentService.getAllPayments(), DtoMapper::toDto);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Payment> getPaymentById(@PathVariable Long id) {
+    public ResponseEntity<PaymentDTO> getPaymentById(@PathVariable Long id) {
         return paymentService.getPaymentById(id)
+                .map(DtoMapper::toDto)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public Payment createPayment(@RequestBody Payment payment) {
-        return paymentService.savePayment(payment);
+    public PaymentDTO createPayment(@RequestBody Payment payment) {
+        return DtoMapper.toDto(paymentService.savePayment(payment));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Payment> updatePayment(@PathVariable Long id, @RequestBody Payment payment) {
+    public ResponseEntity<PaymentDTO> updatePayment(@PathVariable Long id, @RequestBody Payment payment) {
         if (!paymentService.getPaymentById(id).isPresent()) {
             return ResponseEntity.notFound().build();
         }
         payment.setId(id);
-        return ResponseEntity.ok(paymentService.savePayment(payment));
+        return ResponseEntity.ok(DtoMapper.toDto(paymentService.savePayment(payment)));
     }
 
     @DeleteMapping("/{id}")
@@ -1,9 +1,17 @@
 package com.example.orderdelivery.controller;
 
+import com.example.orderdelivery.dto.ProductDTO;
+import com.example.orderdelivery.dto.DtoMapper;
+import com.example.orderdelivery.dto.MultiGetDTO;
 import com.example.orderdelivery.entity.Product;
+import com.example.orderdelivery.service.FieldSelection;
 import com.example.orderdelivery.service.ProductService;
+import com.example.orderdelivery.service.ProjectionService;
+import com.example.orderdelivery.service.ResourceVersionTracker;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -12,35 +20,84 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class ProductController {
     private final ProductService productService;
+    private final ResourceVersionTracker resourceVersionTracker;
+    private final ProjectionService projectionService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ResourceVersionTracker resourceVersionTracker,
+                             ProjectionService projectionService) {
         this.productService = productService;
+        this.resourceVersionTracker = resourceVersionTracker;
+        this.projectionService = projectionService;
     }
 
+    /**
+     * @param fields Properties to return, e.g. id,name,price,stock
+     */
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<List<?>> getAllProducts(
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        FieldSelection selection = FieldSelection.parse(fields, null);
+        String etag = selection.etag(resourceVersionTracker.etag(ResourceVersionTracker.PRODUCTS));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (!selection.isEmpty()) {
+            return ResponseEntity.ok().eTag(etag).body(projectionService.findProducts(selection));
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(DtoMapper.toDtos(productService.getAllProducts(), DtoMapper::toDto));
+    }
+
+    /**
+     * Several products in one request, e.g. ?ids=3,1,2; items come back in the requested order
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetDTO<ProductDTO>> getProductsByIds(@RequestParam List<Long> ids, WebRequest request) {
+        String etag = resourceVersionTracker.etag(ResourceVersionTracker.PRODUCTS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(DtoMapper.toMultiGet(productService.getProductsByIds(ids), DtoMapper::toDto));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<?> getProductById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        FieldSelection selection = FieldSelection.parse(fields, null);
+        String etag = selection.etag(resourceVersionTracker.etag(ResourceVersionTracker.PRODUCTS));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (!selection.isEmpty()) {
+            return projectionService.findProduct(id, selection)
+                    .map(product -> ResponseEntity.ok().eTag(etag).body(product))
+                    .orElse(ResponseEntity.notFound().build());
+        }
         return productService.getProductById(id)
-                .map(ResponseEntity::ok)
+                .map(product -> ResponseEntity.ok().eTag(etag).body(DtoMapper.toDto(product)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public Product createProduct(@RequestBody Product product) {
-        return productService.saveProduct(product);
+    public ProductDTO createProduct(@RequestBody Product product) {
+        return DtoMapper.toDto(productService.saveProduct(product));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product product) {
-        if (!productService.getProductById(id).isPresent()) {
-            return ResponseEntity.notFound().build();
-        }
-        product.setId(id);
-        return ResponseEntity.ok(productService.saveProduct(product));
+    public ResponseEntity<ProductDTO> updateProduct(
+            @PathVariable Long id,
+            @RequestBody Product product,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return productService.updateProduct(id, product, ExpectedVersion.resolve(ifMatch, product.getVersion()))
+                .map(DtoMapper::toDto)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,57 @@
+package com.example.orderdelivery.controller;
+
+import com.example.orderdelivery.dto.DtoMapper;
+import com.example.orderdelivery.dto.ReconciliationResultDTO;
+import com.example.orderdelivery.dto.ReconciliationRunDTO;
+import com.example.orderdelivery.entity.ReconciliationStatus;
+import com.example.orderdelivery.service.PaymentReconciliationService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reconciliations")
+@CrossOrigin(origins = "*")
+public class ReconciliationController {
+    private final PaymentReconciliationService reconciliationService;
+
+    public ReconciliationController(PaymentReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReconciliationRunDTO> reconcile(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try (InputStream statement = file.getInputStream()) {
+            return ResponseEntity.ok(DtoMapper.toDto(
+                    reconciliationService.reconcile(file.getOriginalFilename(), statement, from, to)));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReconciliationRunDTO> getRun(@PathVariable Long id) {
+        return reconciliationService.getRun(id)
+                .map(DtoMapper::toDto)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/results")
+    public List<ReconciliationResultDTO> getResults(
+            @PathVariable Long id,
+            @RequestParam(required = false) ReconciliationStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        return DtoMapper.toDtos(reconciliationService.getResults(id, status, page, size), DtoMapper::toDto);
+    }
+}
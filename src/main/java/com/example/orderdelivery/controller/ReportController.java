@@ -0,0 +1,83 @@
+package com.example.orderdelivery.controller;
+
+import com.example.orderdelivery.dto.ReportJobDTO;
+import com.example.orderdelivery.dto.ReportRequestDTO;
+import com.example.orderdelivery.service.ReportJobService;
+import com.example.orderdelivery.service.ReportResult;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous reports: POST a job, poll it until COMPLETED, then download the result.
+ * Report types and their parameters: INVENTORY_MOVEMENT (productId, startDate, endDate),
+ * SUPPLIER_REVENUE (none), SALES_EXPORT (startDate, endDate).
+ */
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+    private final ReportJobService reportJobService;
+
+    public ReportController(ReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReportJobDTO> submit(@RequestBody ReportRequestDTO request) {
+        try {
+            ReportJobDTO job = reportJobService.submit(request.getType(), request.getParams());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/reports/" + job.getId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+
+    @GetMapping
+    public List<ReportJobDTO> getJobs() {
+        return reportJobService.getJobs();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportJobDTO> getJob(@PathVariable String id) {
+        return reportJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> getResult(@PathVariable String id) {
+        ReportResult result;
+        try {
+            result = reportJobService.getResult(id);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(result.contentType()))
+                .contentLength(result.size())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(result.fileName()).build().toString())
+                .body(new FileSystemResource(result.path()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable String id) {
+        return reportJobService.cancel(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.orderdelivery.controller;
 
+import com.example.orderdelivery.dto.DtoMapper;
+import com.example.orderdelivery.dto.OrderDTO;
+import com.example.orderdelivery.dto.ProductDTO;
+import com.example.orderdelivery.dto.SupplierDTO;
 import com.example.orderdelivery.entity.Order;
 import com.example.orderdelivery.entity.Product;
 import com.example.orderdelivery.entity.Supplier;
 import com.example.orderdelivery.service.SupplierService;
+import com.example.orderdelivery.service.ResourceVersionTracker;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -15,41 +21,53 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class SupplierController {
     private final SupplierService supplierService;
+    private final ResourceVersionTracker resourceVersionTracker;
 
-    public SupplierController(SupplierService supplierService) {
+    public SupplierController(SupplierService supplierService, ResourceVersionTracker resourceVersionTracker) {
         this.supplierService = supplierService;
+        this.resourceVersionTracker = resourceVersionTracker;
     }
 
     @GetMapping
-    public List<Supplier> getAllSuppliers() {
-        return supplierService.getAllSuppliers();
+    public ResponseEntity<List<SupplierDTO>> getAllSuppliers(WebRequest request) {
+        String etag = resourceVersionTracker.etag(ResourceVersionTracker.SUPPLIERS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(DtoMapper.toDtos(supplierService.getAllSuppliers(), DtoMapper::toDto));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Supplier> getSupplierById(@PathVariable Long id) {
+    public ResponseEntity<SupplierDTO> getSupplierById(@PathVariable Long id, WebRequest request) {
+        String etag = resourceVersionTracker.etag(ResourceVersionTracker.SUPPLIERS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         try {
             Supplier supplier = supplierService.getSupplierById(id);
-            return ResponseEntity.ok(supplier);
+            return ResponseEntity.ok().eTag(etag).body(DtoMapper.toDto(supplier));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PostMapping
-    public ResponseEntity<Supplier> createSupplier(@RequestBody Supplier supplier) {
+    public ResponseEntity<SupplierDTO> createSupplier(@RequestBody Supplier supplier) {
         try {
             Supplier createdSupplier = supplierService.createSupplier(supplier);
-            return ResponseEntity.ok(createdSupplier);
+            return ResponseEntity.ok(DtoMapper.toDto(createdSupplier));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Supplier> updateSupplier(@PathVariable Long id, @RequestBody Supplier supplier) {
+    public ResponseEntity<SupplierDTO> updateSupplier(@PathVariable Long id, @RequestBody Supplier supplier) {
         try {
             Supplier updatedSupplier = supplierService.updateSupplier(id, supplier);
-            return ResponseEntity.ok(updatedSupplier);
+            return ResponseEntity.ok(DtoMapper.toDto(updatedSupplier));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -66,15 +84,21 @@ public class SupplierController {
     }
 
     @GetMapping("/search")
-    public List<Supplier> searchSuppliersByName(@RequestParam String name) {
-        return supplierService.searchSuppliersByName(name);
+    public ResponseEntity<List<SupplierDTO>> searchSuppliersByName(@RequestParam String name, WebRequest request) {
+        String etag = resourceVersionTracker.etag(ResourceVersionTracker.SUPPLIERS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(DtoMapper.toDtos(supplierService.searchSuppliersByName(name), DtoMapper::toDto));
     }
 
     @GetMapping("/{id}/orders")
-    public ResponseEntity<List<Order>> getOrdersBySupplier(@PathVariable Long id) {
+    public ResponseEntity<List<OrderDTO>> getOrdersBySupplier(@PathVariable Long id) {
         try {
             List<Order> orders = supplierService.getOrdersBySupplier(id);
-            return ResponseEntity.ok(orders);
+            return ResponseEntity.ok(DtoMapper.toDtos(orders, DtoMapper::toDto));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -91,12 +115,12 @@ public class SupplierController {
     }
 
     @PutMapping("/products/{productId}/assign")
-    public ResponseEntity<Product> assignSupplierToProduct(
+    public ResponseEntity<ProductDTO> assignSupplierToProduct(
             @PathVariable Long productId,
             @RequestParam Long supplierId) {
         try {
             Product product = supplierService.assignSupplierToProduct(productId, supplierId);
-            return ResponseEntity.ok(product);
+            return ResponseEntity.ok(DtoMapper.toDto(product));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -0,0 +1,20 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarrierPositionDTO {
+    private Long carrierId;
+    private Double latitude;
+    private Double longitude;
+    private Boolean available;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,22 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeBatchDTO {
+    private List<ChangeDTO> changes;
+    // Pass as since on the next request
+    private Long nextCursor;
+    // More changes are, or will shortly be, available after nextCursor
+    private boolean hasMore;
+    // Changes after the given cursor have been purged; reload the collections and continue from nextCursor
+    private boolean resetRequired;
+}
@@ -0,0 +1,22 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.service.ChangeEntityType;
+import com.example.orderdelivery.service.ChangeOperation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeDTO {
+    private Long id;
+    private ChangeEntityType entityType;
+    private Long entityId;
+    private ChangeOperation operation;
+    private LocalDateTime changedAt;
+}
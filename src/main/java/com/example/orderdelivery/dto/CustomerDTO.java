@@ -0,0 +1,19 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerDTO {
+    private Long id;
+    private String name;
+    private String email;
+    private String address;
+    private Double latitude;
+    private Double longitude;
+}
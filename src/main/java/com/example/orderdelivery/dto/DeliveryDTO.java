@@ -0,0 +1,25 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.entity.DeliveryStatus;
+import com.example.orderdelivery.entity.DeliveryWindow;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryDTO {
+    private Long id;
+    private Long orderId;
+    private CarrierDTO carrier;
+    private LocalDate deliveryDate;
+    private DeliveryWindow timeWindow;
+    private Double cost;
+    private DeliveryStatus status;
+    private Long version;
+}
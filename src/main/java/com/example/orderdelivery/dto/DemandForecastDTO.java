@@ -0,0 +1,19 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandForecastDTO {
+    private Long productId;
+    private Integer observedDays;
+    private Map<LocalDate, Double> daily;
+}
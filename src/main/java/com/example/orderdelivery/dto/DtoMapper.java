@@ -0,0 +1,202 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.entity.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maps JPA entities to response DTOs.
+ * Only scalar fields and one level of summaries are copied; bidirectional links
+ * (Customer.orders, Product.orderLines, Carrier.deliveries, OrderLine.order) are
+ * never followed, so a response cannot recurse or pull in unrelated rows.
+ */
+public final class DtoMapper {
+
+    private DtoMapper() {
+    }
+
+    public static ProductDTO toDto(Product product) {
+        return ProductDTO.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .stock(product.getStock())
+                .category(product.getCategory())
+                .weight(product.getWeight())
+                .volume(product.getVolume())
+                .reorderPoint(product.getReorderPoint())
+                .version(product.getVersion())
+                .build();
+    }
+
+    public static CustomerDTO toDto(Customer customer) {
+        return CustomerDTO.builder()
+                .id(customer.getId())
+                .name(customer.getName())
+                .email(customer.getEmail())
+                .address(customer.getAddress())
+                .latitude(customer.getLatitude())
+                .longitude(customer.getLongitude())
+                .build();
+    }
+
+    public static CarrierDTO toDto(Carrier carrier) {
+        return CarrierDTO.builder()
+                .id(carrier.getId())
+                .name(carrier.getName())
+                .phone(carrier.getPhone())
+                .note(carrier.getNote())
+                .surchargeRate(carrier.getSurchargeRate())
+                .surchargeAmount(carrier.getSurchargeAmount())
+                .build();
+    }
+
+    public static CarrierPositionDTO toDto(CarrierPosition position) {
+        return CarrierPositionDTO.builder()
+                .carrierId(position.getCarrierId())
+                .latitude(position.getLatitude())
+                .longitude(position.getLongitude())
+                .available(position.getAvailable())
+                .updatedAt(position.getUpdatedAt())
+                .build();
+    }
+
+    public static SupplierDTO toDto(Supplier supplier) {
+        return SupplierDTO.builder()
+                .id(supplier.getId())
+                .name(supplier.getName())
+                .contactPerson(supplier.getContactPerson())
+                .email(supplier.getEmail())
+                .phone(supplier.getPhone())
+                .address(supplier.getAddress())
+                .notes(supplier.getNotes())
+                .build();
+    }
+
+    public static OrderLineDTO toDto(OrderLine line) {
+        Product product = line.getProduct();
+        return OrderLineDTO.builder()
+                .id(line.getId())
+                .orderId(line.getOrder() != null ? line.getOrder().getId() : null)
+                .productId(product != null ? product.getId() : null)
+                .productName(product != null ? product.getName() : null)
+                .quantity(line.getQuantity())
+                .unitPrice(line.getUnitPrice())
+                .build();
+    }
+
+    public static OrderDTO toDto(Order order) {
+        OrderDTO.OrderDTOBuilder builder = OrderDTO.builder()
+                .id(order.getId())
+                .customer(order.getCustomer() != null ? toDto(order.getCustomer()) : null)
+                .date(order.getDate())
+                .status(order.getStatus())
+                .totalAmount(order.getTotalAmount())
+                .version(order.getVersion())
+                .orderLines(order.getOrderLines() != null ? toDtos(order.getOrderLines(), DtoMapper::toDto) : List.of());
+
+        if (order.getDelivery() != null) {
+            builder.deliveryId(order.getDelivery().getId())
+                    .deliveryStatus(order.getDelivery().getStatus());
+        }
+        if (order.getPayment() != null) {
+            builder.paymentId(order.getPayment().getId())
+                    .paymentStatus(order.getPayment().getStatus());
+        }
+        return builder.build();
+    }
+
+    public static DeliveryDTO toDto(Delivery delivery) {
+        return DeliveryDTO.builder()
+                .id(delivery.getId())
+                .orderId(delivery.getOrder() != null ? delivery.getOrder().getId() : null)
+                .carrier(delivery.getCarrier() != null ? toDto(delivery.getCarrier()) : null)
+                .deliveryDate(delivery.getDeliveryDate())
+                .timeWindow(delivery.getTimeWindow())
+                .cost(delivery.getCost())
+                .status(delivery.getStatus())
+                .version(delivery.getVersion())
+                .build();
+    }
+
+    public static PaymentDTO toDto(Payment payment) {
+        return PaymentDTO.builder()
+                .id(payment.getId())
+                .orderId(payment.getOrder() != null ? payment.getOrder().getId() : null)
+                .amount(payment.getAmount())
+                .date(payment.getDate())
+                .status(payment.getStatus())
+                .method(payment.getMethod())
+                .build();
+    }
+
+    public static TrackingHistoryDTO toDto(TrackingHistory history) {
+        return TrackingHistoryDTO.builder()
+                .id(history.getId())
+                .orderId(history.getOrder() != null ? history.getOrder().getId() : null)
+                .orderStatus(history.getOrderStatus())
+                .deliveryStatus(history.getDeliveryStatus())
+                .timestamp(history.getTimestamp())
+                .description(history.getDescription())
+                .build();
+    }
+
+    public static ReconciliationRunDTO toDto(ReconciliationRun run) {
+        return ReconciliationRunDTO.builder()
+                .id(run.getId())
+                .fileName(run.getFileName())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .totalLines(run.getTotalLines())
+                .matched(run.getMatched())
+                .mismatched(run.getMismatched())
+                .duplicates(run.getDuplicates())
+                .unmatched(run.getUnmatched())
+                .invalid(run.getInvalid())
+                .indexedOrders(run.getIndexedOrders())
+                .indexBuildMs(run.getIndexBuildMs())
+                .durationMs(run.getDurationMs())
+                .linesPerSecond(run.getLinesPerSecond())
+                .build();
+    }
+
+    public static ReconciliationResultDTO toDto(ReconciliationResult result) {
+        return ReconciliationResultDTO.builder()
+                .lineNumber(result.getLineNumber())
+                .orderId(result.getOrderId())
+                .paymentId(result.getPaymentId())
+                .reference(result.getReference())
+                .statementAmount(result.getStatementAmount())
+                .expectedAmount(result.getExpectedAmount())
+                .orderTotal(result.getOrderTotal())
+                .paymentAmount(result.getPaymentAmount())
+                .status(result.getStatus())
+                .message(result.getMessage())
+                .build();
+    }
+
+    public static <E, D> List<D> toDtos(List<E> entities, Function<E, D> mapper) {
+        return entities.stream().map(mapper).collect(Collectors.toList());
+    }
+
+    /**
+     * @param byId Requested IDs in order, mapped to the entity or to null when missing
+     */
+    public static <E, D> MultiGetDTO<D> toMultiGet(Map<Long, E> byId, Function<E, D> mapper) {
+        List<D> items = new ArrayList<>();
+        List<Long> missingIds = new ArrayList<>();
+        byId.forEach((id, entity) -> {
+            if (entity != null) {
+                items.add(mapper.apply(entity));
+            } else {
+                missingIds.add(id);
+            }
+        });
+        return MultiGetDTO.<D>builder().items(items).missingIds(missingIds).build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a multi-get: the found items in the order their IDs were requested, and the IDs
+ * that do not exist
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiGetDTO<T> {
+    private List<T> items;
+    private List<Long> missingIds;
+}
@@ -0,0 +1,18 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyCarrierDTO {
+    private Long carrierId;
+    private String carrierName;
+    private Double latitude;
+    private Double longitude;
+    private Double distanceKm;
+}
@@ -0,0 +1,30 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.entity.DeliveryStatus;
+import com.example.orderdelivery.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDTO {
+    private Long id;
+    private CustomerDTO customer;
+    private LocalDate date;
+    private OrderStatus status;
+    private Double totalAmount;
+    private Long version;
+    private List<OrderLineDTO> orderLines;
+
+    private Long deliveryId;
+    private DeliveryStatus deliveryStatus;
+    private Long paymentId;
+    private String paymentStatus;
+}
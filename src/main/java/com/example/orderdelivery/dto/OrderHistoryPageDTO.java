@@ -0,0 +1,18 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryPageDTO {
+    private List<OrderSummaryDTO> orders;
+    // Pass as "before" to get the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,19 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLineDTO {
+    private Long id;
+    private Long orderId;
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private Double unitPrice;
+}
@@ -0,0 +1,25 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One line of a customer's order history; every field is read from the
+ * (customer_id, date, id, status, total_amount) index, so no order row is touched.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+    private Long id;
+    private LocalDate date;
+    private OrderStatus status;
+    private Double totalAmount;
+    private Boolean archived;
+}
@@ -2,10 +2,14 @@ package com.example.orderdelivery.dto;
 
 import com.example.orderdelivery.entity.DeliveryStatus;
 import com.example.orderdelivery.entity.OrderStatus;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class OrderTrackingDTO {
     private Long orderId;
     private OrderStatus orderStatus;
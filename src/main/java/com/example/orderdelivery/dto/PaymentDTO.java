@@ -0,0 +1,21 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentDTO {
+    private Long id;
+    private Long orderId;
+    private Double amount;
+    private LocalDate date;
+    private String status;
+    private String method;
+}
@@ -0,0 +1,16 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PingBatchResultDTO {
+    private int accepted;
+    // Invalid, from an unknown carrier, or older than the carrier's latest ping
+    private int rejected;
+}
@@ -0,0 +1,23 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private Double price;
+    private Integer stock;
+    private String category;
+    private Double weight;
+    private Double volume;
+    private Integer reorderPoint;
+    private Long version;
+}
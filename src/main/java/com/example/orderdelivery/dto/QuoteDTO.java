@@ -0,0 +1,24 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteDTO {
+    private String originZone;
+    private String destinationZone;
+    private Long carrierId;
+    private Double weightKg;
+    private Double volumeLiters;
+    private Double baseRate;
+    private Double weightSurcharge;
+    private Double sizeSurcharge;
+    private Double carrierSurcharge;
+    private Double cost;
+    private String error;
+}
@@ -0,0 +1,22 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A cart to be priced. The destination is taken from the address if given, otherwise from the customer.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteRequestDTO {
+    private Long customerId;
+    private String address;
+    private Long carrierId;
+    private List<QuoteLineDTO> lines;
+}
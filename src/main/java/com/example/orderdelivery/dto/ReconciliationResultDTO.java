@@ -0,0 +1,24 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.entity.ReconciliationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationResultDTO {
+    private Long lineNumber;
+    private Long orderId;
+    private Long paymentId;
+    private String reference;
+    private Double statementAmount;
+    private Double expectedAmount;
+    private Double orderTotal;
+    private Double paymentAmount;
+    private ReconciliationStatus status;
+    private String message;
+}
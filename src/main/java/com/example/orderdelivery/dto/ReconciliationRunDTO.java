@@ -0,0 +1,29 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRunDTO {
+    private Long id;
+    private String fileName;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long totalLines;
+    private Long matched;
+    private Long mismatched;
+    private Long duplicates;
+    private Long unmatched;
+    private Long invalid;
+    private Long indexedOrders;
+    private Long indexBuildMs;
+    private Long durationMs;
+    private Double linesPerSecond;
+}
@@ -0,0 +1,23 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderSuggestionDTO {
+    private Long productId;
+    private String productName;
+    private Integer stock;
+    private Double forecastDailyDemand;
+    private Double leadTimeDemand;
+    private Double safetyStock;
+    private Integer reorderPoint;
+    private Integer targetStock;
+    private Integer suggestedQuantity;
+    private Integer observedDays;
+}
@@ -0,0 +1,34 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.service.ReportJobStatus;
+import com.example.orderdelivery.service.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDTO {
+    private String id;
+    private ReportType type;
+    private ReportJobStatus status;
+    private Map<String, String> params;
+    private long processed;
+    // -1 until the report knows how much it will process
+    private long total;
+    // Fraction done between 0 and 1, or null while the total is unknown
+    private Double progress;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    // When the result is deleted and the job forgotten
+    private LocalDateTime expiresAt;
+    private Long resultSize;
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.service.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportRequestDTO {
+    private ReportType type;
+    private Map<String, String> params;
+}
@@ -0,0 +1,22 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.entity.DeliveryWindow;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotDTO {
+    private Long carrierId;
+    private LocalDate date;
+    private DeliveryWindow window;
+    private Integer capacity;
+    private Integer reserved;
+    private Integer remaining;
+}
@@ -0,0 +1,22 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.entity.DeliveryStatus;
+import com.example.orderdelivery.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusSummaryDTO {
+    private Map<OrderStatus, Long> orders;
+    private Map<DeliveryStatus, Long> deliveries;
+    // When the counts were last checked against the database
+    private LocalDateTime reconciledAt;
+}
@@ -0,0 +1,20 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupplierDTO {
+    private Long id;
+    private String name;
+    private String contactPerson;
+    private String email;
+    private String phone;
+    private String address;
+    private String notes;
+}
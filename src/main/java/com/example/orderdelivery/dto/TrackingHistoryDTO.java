@@ -0,0 +1,23 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.entity.DeliveryStatus;
+import com.example.orderdelivery.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingHistoryDTO {
+    private Long id;
+    private Long orderId;
+    private OrderStatus orderStatus;
+    private DeliveryStatus deliveryStatus;
+    private LocalDateTime timestamp;
+    private String description;
+}
@@ -0,0 +1,19 @@
+package com.example.orderdelivery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingViewDTO {
+    private OrderTrackingDTO tracking;
+    // Newest first
+    private List<TrackingHistoryDTO> history;
+    private boolean hasMoreHistory;
+}
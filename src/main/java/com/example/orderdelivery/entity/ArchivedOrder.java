@@ -0,0 +1,44 @@
+package com.example.orderdelivery.entity;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A closed order moved to the cold tier. The order with its lines, the delivery and the
+ * payment are kept as JSON snapshots of their response DTOs; date is part of the key
+ * because order_archive is partitioned on it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(ArchivedOrderId.class)
+@Table(name = "order_archive")
+public class ArchivedOrder {
+    @Id
+    private Long id;
+
+    @Id
+    private LocalDate date;
+
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private Double totalAmount;
+
+    @Column(columnDefinition = "TEXT")
+    private String orderJson;
+
+    @Column(columnDefinition = "TEXT")
+    private String deliveryJson;
+
+    @Column(columnDefinition = "TEXT")
+    private String paymentJson;
+
+    private LocalDateTime archivedAt;
+}
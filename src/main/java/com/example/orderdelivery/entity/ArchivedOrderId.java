@@ -0,0 +1,13 @@
+package com.example.orderdelivery.entity;
+
+import lombok.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrderId implements Serializable {
+    private Long id;
+    private LocalDate date;
+}
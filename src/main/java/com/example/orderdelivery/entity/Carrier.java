@@ -2,6 +2,8 @@ package com.example.orderdelivery.entity;
 
 import lombok.*;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 @Entity
@@ -9,6 +11,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Carrier {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -18,6 +22,10 @@ public class Carrier {
     private String phone;
     private String note;
 
+    // Added to delivery quotes: a fraction of the base price plus a fixed amount in TND
+    private Double surchargeRate;
+    private Double surchargeAmount;
+
     @OneToMany(mappedBy = "carrier")
     private List<Delivery> deliveries;
 } 
\ No newline at end of file
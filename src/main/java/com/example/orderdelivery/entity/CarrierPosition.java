@@ -0,0 +1,24 @@
+package com.example.orderdelivery.entity;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Last reported position of a carrier. One row per carrier, overwritten on every report.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "carrier_position")
+public class CarrierPosition {
+    @Id
+    private Long carrierId;
+
+    private Double latitude;
+    private Double longitude;
+    private Boolean available;
+    private LocalDateTime updatedAt;
+}
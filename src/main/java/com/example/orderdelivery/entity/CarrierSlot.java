@@ -0,0 +1,30 @@
+package com.example.orderdelivery.entity;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Persisted capacity and reservation count of one carrier for one delivery window on one day.
+ * The live counters are held by DeliverySlotService; this table is its durable copy.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "carrier_slot")
+public class CarrierSlot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long carrierId;
+    private LocalDate slotDate;
+
+    @Enumerated(EnumType.STRING)
+    private DeliveryWindow timeWindow;
+
+    private Integer capacity;
+    private Integer reserved;
+}
@@ -2,6 +2,8 @@ package com.example.orderdelivery.entity;
 
 import lombok.*;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 @Entity
@@ -9,6 +11,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Customer {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -18,6 +22,10 @@ public class Customer {
     private String email;
     private String address;
 
+    // Resolved from the address by the offline gazetteer when not supplied
+    private Double latitude;
+    private Double longitude;
+
     @OneToMany(mappedBy = "customer")
     private List<Order> orders;
 } 
\ No newline at end of file
@@ -21,8 +21,15 @@ public class Delivery {
     private Carrier carrier;
 
     private LocalDate deliveryDate;
+
+    @Enumerated(EnumType.STRING)
+    private DeliveryWindow timeWindow;
+
     private Double cost;
     
     @Enumerated(EnumType.STRING)
     private DeliveryStatus status;
+
+    @Version
+    private Long version;
 } 
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.example.orderdelivery.entity;
+
+import java.time.LocalTime;
+
+public enum DeliveryWindow {
+    MORNING(LocalTime.of(8, 0), LocalTime.of(12, 0)),
+    AFTERNOON(LocalTime.of(12, 0), LocalTime.of(16, 0)),
+    EVENING(LocalTime.of(16, 0), LocalTime.of(20, 0));
+
+    private final LocalTime start;
+    private final LocalTime end;
+
+    DeliveryWindow(LocalTime start, LocalTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public LocalTime getStart() {
+        return start;
+    }
+
+    public LocalTime getEnd() {
+        return end;
+    }
+}
@@ -34,4 +34,7 @@ public class Order {
 
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL)
     private Payment payment;
+
+    @Version
+    private Long version;
 } 
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.example.orderdelivery.entity;
+
+public enum OutboxStatus {
+    PENDING,        // Written with the business change, waiting for dispatch
+    IN_FLIGHT,      // Claimed by a dispatcher and being delivered to sinks
+    DISPATCHED,     // Delivered to every sink
+    FAILED          // Gave up after the maximum number of attempts
+}
@@ -17,7 +17,13 @@ public class Payment {
     @OneToOne
     private Order order;
 
+    private Double amount;
+
+    @Column(name = "payment_date")
     private LocalDate date;
+
     private String status;
+
+    @Column(name = "payment_method")
     private String method;
 } 
\ No newline at end of file
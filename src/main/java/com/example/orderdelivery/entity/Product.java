@@ -2,6 +2,8 @@ package com.example.orderdelivery.entity;
 
 import lombok.*;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 @Entity
@@ -9,6 +11,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,6 +24,16 @@ public class Product {
     private Integer stock;
     private String category;
 
+    // Shipping weight in kg and volume in litres, used for delivery quotes
+    private Double weight;
+    private Double volume;
+
+    // Stock level that triggers a reorder alert; null falls back to the category or default
+    private Integer reorderPoint;
+
     @OneToMany(mappedBy = "product")
     private List<OrderLine> orderLines;
+
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.example.orderdelivery.entity;
+
+import lombok.*;
+import jakarta.persistence.*;
+
+/**
+ * Outcome for one statement line. Rows are written in JDBC batches by PaymentReconciliationService.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "reconciliation_result")
+public class ReconciliationResult {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long runId;
+    private Long lineNumber;
+    private Long orderId;
+    private Long paymentId;
+    private String reference;
+    private Double statementAmount;
+    private Double expectedAmount;
+    private Double orderTotal;
+    private Double paymentAmount;
+
+    @Enumerated(EnumType.STRING)
+    private ReconciliationStatus status;
+
+    private String message;
+}
@@ -0,0 +1,36 @@
+package com.example.orderdelivery.entity;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One reconciliation of a payment statement file; finishedAt stays null while the run is in progress.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "reconciliation_run")
+public class ReconciliationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String fileName;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    private Long totalLines;
+    private Long matched;
+    private Long mismatched;
+    private Long duplicates;
+    private Long unmatched;
+    private Long invalid;
+
+    private Long indexedOrders;
+    private Long indexBuildMs;
+    private Long durationMs;
+    private Double linesPerSecond;
+}
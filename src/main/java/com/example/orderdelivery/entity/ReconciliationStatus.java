@@ -0,0 +1,9 @@
+package com.example.orderdelivery.entity;
+
+public enum ReconciliationStatus {
+    MATCHED,
+    AMOUNT_MISMATCH,
+    DUPLICATE,
+    UNMATCHED,
+    INVALID
+}
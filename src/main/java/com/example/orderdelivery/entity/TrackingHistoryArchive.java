@@ -0,0 +1,31 @@
+package com.example.orderdelivery.entity;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Archived tracking history of one closed order, stored as a single compressed blob
+ * (see TrackingHistoryCodec) so the hot tracking_history table only holds live orders.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "tracking_history_archive")
+public class TrackingHistoryArchive {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true)
+    private Long orderId;
+
+    private Integer entryCount;
+    private LocalDateTime archivedAt;
+
+    @Lob
+    @Column(columnDefinition = "MEDIUMBLOB")
+    private byte[] data;
+}
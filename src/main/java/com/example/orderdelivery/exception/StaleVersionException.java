@@ -0,0 +1,26 @@
+package com.example.orderdelivery.exception;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * The client edited an older version of a resource than the stored one. Maps to 409 like any
+ * optimistic lock failure, but is never retried: only the client can reload and reapply its edit.
+ */
+public class StaleVersionException extends OptimisticLockingFailureException {
+    public StaleVersionException(String message) {
+        super(message);
+    }
+
+    /**
+     * @param resource The resource name used in the message, e.g. "Order"
+     * @param id The resource ID
+     * @param expectedVersion The version the client edited
+     * @param currentVersion The stored version
+     */
+    public static void check(String resource, Long id, Long expectedVersion, Long currentVersion) {
+        if (!expectedVersion.equals(currentVersion)) {
+            throw new StaleVersionException(resource + " " + id + " is at version " + currentVersion
+                    + ", not " + expectedVersion + "; reload it and retry");
+        }
+    }
+}
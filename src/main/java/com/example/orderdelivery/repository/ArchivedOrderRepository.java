@@ -0,0 +1,56 @@
+package com.example.orderdelivery.repository;
+
+import com.example.orderdelivery.dto.OrderSummaryDTO;
+import com.example.orderdelivery.entity.ArchivedOrder;
+import com.example.orderdelivery.entity.ArchivedOrderId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, ArchivedOrderId> {
+    /**
+     * Find an archived order by ID alone; probes the primary key of each partition
+     * @param id The order ID
+     * @return The archived order, if any
+     */
+    Optional<ArchivedOrder> findFirstById(Long id);
+
+    /**
+     * Find archived orders within a date range; only the matching monthly partitions are read
+     * @param startDate The start date (inclusive)
+     * @param endDate The end date (inclusive)
+     * @return List of archived orders within the date range
+     */
+    List<ArchivedOrder> findByDateBetween(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * First page of a customer's archived orders, newest first
+     * @param customerId The customer ID
+     * @param pageable Limits the number of orders
+     * @return Order summaries
+     */
+    @Query("SELECT new com.example.orderdelivery.dto.OrderSummaryDTO(a.id, a.date, a.status, a.totalAmount, true) " +
+            "FROM ArchivedOrder a WHERE a.customerId = :customerId ORDER BY a.date DESC, a.id DESC")
+    List<OrderSummaryDTO> findCustomerOrderSummaries(@Param("customerId") Long customerId, Pageable pageable);
+
+    /**
+     * Next page of a customer's archived orders
+     * @param customerId The customer ID
+     * @param date The date of the last order already returned
+     * @param id The ID of the last order already returned
+     * @param pageable Limits the number of orders
+     * @return Order summaries
+     */
+    @Query("SELECT new com.example.orderdelivery.dto.OrderSummaryDTO(a.id, a.date, a.status, a.totalAmount, true) " +
+            "FROM ArchivedOrder a WHERE a.customerId = :customerId AND (a.date < :date OR (a.date = :date AND a.id < :id)) " +
+            "ORDER BY a.date DESC, a.id DESC")
+    List<OrderSummaryDTO> findCustomerOrderSummariesBefore(@Param("customerId") Long customerId,
+                                                           @Param("date") LocalDate date,
+                                                           @Param("id") Long id,
+                                                           Pageable pageable);
+}
@@ -0,0 +1,7 @@
+package com.example.orderdelivery.repository;
+
+import com.example.orderdelivery.entity.CarrierPosition;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CarrierPositionRepository extends JpaRepository<CarrierPosition, Long> {
+}
@@ -0,0 +1,11 @@
+package com.example.orderdelivery.repository;
+
+import com.example.orderdelivery.entity.CarrierSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CarrierSlotRepository extends JpaRepository<CarrierSlot, Long> {
+    List<CarrierSlot> findBySlotDateGreaterThanEqual(LocalDate date);
+}
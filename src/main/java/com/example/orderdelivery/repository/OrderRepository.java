@@ -1,12 +1,31 @@
 package com.example.orderdelivery.repository;
 
+import com.example.orderdelivery.dto.OrderSummaryDTO;
+import com.example.orderdelivery.dto.OrderTrackingDTO;
 import com.example.orderdelivery.entity.Order;
+import com.example.orderdelivery.entity.OrderStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    /**
+     * Tracking summary of an order with its customer, delivery and carrier in one join query
+     * @param orderId The order ID
+     * @return The summary, or empty if the order does not exist
+     */
+    @Query("SELECT new com.example.orderdelivery.dto.OrderTrackingDTO(o.id, o.status, o.date, o.totalAmount, " +
+            "d.id, d.status, d.deliveryDate, car.name, car.phone, c.name, c.address) " +
+            "FROM Order o LEFT JOIN o.customer c LEFT JOIN o.delivery d LEFT JOIN d.carrier car " +
+            "WHERE o.id = :orderId")
+    Optional<OrderTrackingDTO> findTrackingSummary(@Param("orderId") Long orderId);
+
     /**
      * Find orders within a date range
      * @param startDate The start date (inclusive)
@@ -14,4 +33,43 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @return List of orders within the date range
      */
     List<Order> findByDateBetween(LocalDate startDate, LocalDate endDate);
-}
\ No newline at end of file
+
+    /**
+     * First page of a customer's order history, newest first; a range read of idx_orders_customer_date
+     * @param customerId The customer ID
+     * @param pageable Limits the number of orders
+     * @return Order summaries
+     */
+    @Query("SELECT new com.example.orderdelivery.dto.OrderSummaryDTO(o.id, o.date, o.status, o.totalAmount, false) " +
+            "FROM Order o WHERE o.customer.id = :customerId ORDER BY o.date DESC, o.id DESC")
+    List<OrderSummaryDTO> findCustomerOrderSummaries(@Param("customerId") Long customerId, Pageable pageable);
+
+    /**
+     * Next page of a customer's order history: orders strictly after the given one in history order
+     * @param customerId The customer ID
+     * @param date The date of the last order already returned
+     * @param id The ID of the last order already returned
+     * @param pageable Limits the number of orders
+     * @return Order summaries
+     */
+    @Query("SELECT new com.example.orderdelivery.dto.OrderSummaryDTO(o.id, o.date, o.status, o.totalAmount, false) " +
+            "FROM Order o WHERE o.customer.id = :customerId AND (o.date < :date OR (o.date = :date AND o.id < :id)) " +
+            "ORDER BY o.date DESC, o.id DESC")
+    List<OrderSummaryDTO> findCustomerOrderSummariesBefore(@Param("customerId") Long customerId,
+                                                           @Param("date") LocalDate date,
+                                                           @Param("id") Long id,
+                                                           Pageable pageable);
+
+    /**
+     * Find closed orders older than the cutoff whose tracking history is no longer in the hot table
+     * @param statuses The closed order statuses
+     * @param cutoff Only orders dated before this are returned
+     * @param pageable Limits how many order IDs are returned
+     * @return IDs of orders that can move to the archive tier
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.date < :cutoff " +
+            "AND NOT EXISTS (SELECT h.id FROM TrackingHistory h WHERE h.order = o) ORDER BY o.date")
+    List<Long> findArchivableOrderIds(@Param("statuses") Collection<OrderStatus> statuses,
+                                      @Param("cutoff") LocalDate cutoff,
+                                      Pageable pageable);
+}
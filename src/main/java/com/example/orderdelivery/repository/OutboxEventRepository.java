@@ -0,0 +1,33 @@
+package com.example.orderdelivery.repository;
+
+import com.example.orderdelivery.entity.OutboxEvent;
+import com.example.orderdelivery.entity.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Lock a batch of events that are due for delivery, skipping rows already locked by
+     * another dispatcher. Events stuck IN_FLIGHT past the lease are picked up again.
+     * @param now The current time
+     * @param staleBefore Claims older than this are considered abandoned
+     * @param limit The maximum number of events to claim
+     * @return The locked events, oldest first
+     */
+    @Query(value = "SELECT * FROM outbox_event " +
+            "WHERE (status = 'PENDING' AND next_attempt_at <= :now) " +
+            "OR (status = 'IN_FLIGHT' AND claimed_at < :staleBefore) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockDueEvents(@Param("now") LocalDateTime now,
+                                    @Param("staleBefore") LocalDateTime staleBefore,
+                                    @Param("limit") int limit);
+
+    long countByStatus(OutboxStatus status);
+
+    Optional<OutboxEvent> findFirstByStatusOrderByIdAsc(OutboxStatus status);
+}
@@ -1,7 +1,10 @@
 package com.example.orderdelivery.repository;
 
 import com.example.orderdelivery.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,6 +17,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @param category The category
      * @return List of products in the category
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Product> findByCategory(String category);
     
     /**
@@ -0,0 +1,14 @@
+package com.example.orderdelivery.repository;
+
+import com.example.orderdelivery.entity.ReconciliationResult;
+import com.example.orderdelivery.entity.ReconciliationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ReconciliationResultRepository extends JpaRepository<ReconciliationResult, Long> {
+    List<ReconciliationResult> findByRunIdOrderByLineNumberAsc(Long runId, Pageable pageable);
+
+    List<ReconciliationResult> findByRunIdAndStatusOrderByLineNumberAsc(Long runId, ReconciliationStatus status, Pageable pageable);
+}
@@ -0,0 +1,7 @@
+package com.example.orderdelivery.repository;
+
+import com.example.orderdelivery.entity.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+}
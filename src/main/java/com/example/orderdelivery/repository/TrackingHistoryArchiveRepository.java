@@ -0,0 +1,14 @@
+package com.example.orderdelivery.repository;
+
+import com.example.orderdelivery.entity.TrackingHistoryArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface TrackingHistoryArchiveRepository extends JpaRepository<TrackingHistoryArchive, Long> {
+    Optional<TrackingHistoryArchive> findByOrderId(Long orderId);
+
+    List<TrackingHistoryArchive> findByOrderIdIn(Collection<Long> orderIds);
+}
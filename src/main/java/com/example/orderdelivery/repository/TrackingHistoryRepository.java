@@ -1,9 +1,53 @@
 package com.example.orderdelivery.repository;
 
+import com.example.orderdelivery.dto.TrackingHistoryDTO;
+import com.example.orderdelivery.entity.OrderStatus;
 import com.example.orderdelivery.entity.TrackingHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface TrackingHistoryRepository extends JpaRepository<TrackingHistory, Long> {
     List<TrackingHistory> findByOrderIdOrderByTimestampDesc(Long orderId);
-} 
\ No newline at end of file
+
+    /**
+     * Latest tracking entries of an order, newest first; a backward range read of
+     * idx_tracking_history_order_timestamp that does not load the order
+     * @param orderId The order ID
+     * @param pageable Limits the number of entries
+     * @return Tracking history entries
+     */
+    @Query("SELECT new com.example.orderdelivery.dto.TrackingHistoryDTO(h.id, h.order.id, h.orderStatus, " +
+            "h.deliveryStatus, h.timestamp, h.description) " +
+            "FROM TrackingHistory h WHERE h.order.id = :orderId ORDER BY h.timestamp DESC")
+    List<TrackingHistoryDTO> findLatestByOrderId(@Param("orderId") Long orderId, Pageable pageable);
+
+    List<TrackingHistory> findByOrderIdInOrderByTimestampAsc(Collection<Long> orderIds);
+
+    /**
+     * Find closed orders dated before the cutoff that still have tracking history, none of it
+     * after the cutoff. Walks orders by ID from a cursor; both history checks are probes of
+     * idx_tracking_history_order_timestamp, so tracking_history itself is never scanned.
+     * @param statuses The closed order statuses
+     * @param cutoffDate Only orders dated before this are returned
+     * @param cutoff Only orders with no history after this time are returned
+     * @param afterId Only orders with a greater ID are returned
+     * @param pageable Limits how many order IDs are returned
+     * @return IDs of orders whose history can be archived, ascending
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId AND o.status IN :statuses AND o.date < :cutoffDate " +
+            "AND EXISTS (SELECT h.id FROM TrackingHistory h WHERE h.order.id = o.id) " +
+            "AND NOT EXISTS (SELECT h.id FROM TrackingHistory h WHERE h.order.id = o.id AND h.timestamp >= :cutoff) " +
+            "ORDER BY o.id")
+    List<Long> findArchivableOrderIds(@Param("statuses") Collection<OrderStatus> statuses,
+                                      @Param("cutoffDate") LocalDate cutoffDate,
+                                      @Param("cutoff") LocalDateTime cutoff,
+                                      @Param("afterId") long afterId,
+                                      Pageable pageable);
+}
@@ -0,0 +1,168 @@
+package com.example.orderdelivery.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts entity changes between application instances so node-local caches (Hibernate
+ * second-level cache, ETag counters, dispatch and quote indexes) converge after a write on
+ * another node. Writers publish a region and entity key; keys published in a transaction are
+ * collected and handed to the {@link InvalidationTransport} just before commit, so they are
+ * sent exactly when the change commits. Every other node applies them to the handlers
+ * subscribed for that region within one transport poll interval.
+ */
+@Service
+public class CacheInvalidationBus {
+    public static final String PRODUCTS = ResourceVersionTracker.PRODUCTS;
+    public static final String SUPPLIERS = ResourceVersionTracker.SUPPLIERS;
+    public static final String CUSTOMERS = "customers";
+    public static final String CARRIERS = "carriers";
+    public static final String CARRIER_POSITIONS = "carrier-positions";
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final InvalidationTransport transport;
+    private final boolean enabled;
+    private final String nodeId;
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+
+    private final Timer propagationLag;
+    private final Counter published;
+    private final Counter received;
+    private final Counter handlerErrors;
+
+    public CacheInvalidationBus(
+            InvalidationTransport transport,
+            MeterRegistry meterRegistry,
+            @Value("${cache.invalidation.enabled:true}") boolean enabled,
+            @Value("${cache.invalidation.node-id:}") String nodeId) {
+        this.transport = transport;
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? Long.toHexString(ThreadLocalRandom.current().nextLong()) : nodeId;
+        this.propagationLag = Timer.builder("cache.invalidation.lag")
+                .description("Time from the commit of a change on another node to its invalidation here")
+                .register(meterRegistry);
+        this.published = Counter.builder("cache.invalidation.published").register(meterRegistry);
+        this.received = Counter.builder("cache.invalidation.received").register(meterRegistry);
+        this.handlerErrors = Counter.builder("cache.invalidation.errors").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            transport.start(this::receive);
+            log.info("Cache invalidation bus started on node {} using the {} transport", nodeId, transport.getName());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Register a handler for changes made on other nodes
+     * @param region The cache region
+     * @param handler Called with the changed entity's ID, or null when the whole region changed
+     */
+    public void subscribe(String region, Consumer<String> handler) {
+        handlers.computeIfAbsent(region, key -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Announce that an entity changed. Inside a transaction the message is sent with the
+     * commit and dropped on rollback; outside one it is sent immediately.
+     * @param region The cache region
+     * @param key The entity ID, or null when the whole region changed
+     */
+    public void publish(String region, Object key) {
+        if (!enabled) {
+            return;
+        }
+        String entityKey = key != null ? key.toString() : null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingMessages().add(new InvalidationMessage(region, entityKey, nodeId, 0));
+        } else {
+            send(List.of(new InvalidationMessage(region, entityKey, nodeId, 0)));
+        }
+    }
+
+    private Set<InvalidationMessage> pendingMessages() {
+        @SuppressWarnings("unchecked")
+        Set<InvalidationMessage> pending = (Set<InvalidationMessage>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<InvalidationMessage> messages = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, messages);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (!messages.isEmpty()) {
+                        send(new ArrayList<>(messages));
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationBus.this);
+                }
+            });
+            pending = messages;
+        }
+        return pending;
+    }
+
+    private void send(List<InvalidationMessage> messages) {
+        transport.publish(messages);
+        published.increment(messages.size());
+    }
+
+    private void receive(List<InvalidationMessage> messages) {
+        // Collapse the batch to one call per region and key; a region-wide change covers all keys
+        Map<String, Set<String>> changes = new LinkedHashMap<>();
+        for (InvalidationMessage message : messages) {
+            if (nodeId.equals(message.originNode())) {
+                continue;
+            }
+            received.increment();
+            propagationLag.record(message.ageMillis(), TimeUnit.MILLISECONDS);
+            Set<String> keys = changes.computeIfAbsent(message.region(), region -> new LinkedHashSet<>());
+            if (message.key() == null) {
+                keys.clear();
+                keys.add(null);
+            } else if (!keys.contains(null)) {
+                keys.add(message.key());
+            }
+        }
+        changes.forEach((region, keys) -> {
+            for (Consumer<String> handler : handlers.getOrDefault(region, List.of())) {
+                for (String key : keys) {
+                    try {
+                        handler.accept(key);
+                    } catch (RuntimeException e) {
+                        handlerErrors.increment();
+                        log.warn("Invalidating {} {} failed: {}", region, key, e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+}
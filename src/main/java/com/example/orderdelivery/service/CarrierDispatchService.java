@@ -0,0 +1,113 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.dto.NearbyCarrierDTO;
+import com.example.orderdelivery.entity.Carrier;
+import com.example.orderdelivery.entity.Customer;
+import com.example.orderdelivery.entity.Delivery;
+import com.example.orderdelivery.exception.ResourceNotFoundException;
+import com.example.orderdelivery.exception.SlotUnavailableException;
+import com.example.orderdelivery.repository.CarrierRepository;
+import com.example.orderdelivery.repository.DeliveryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Picks carriers for deliveries by distance from the customer's address.
+ */
+@Service
+public class CarrierDispatchService {
+    private final DeliveryRepository deliveryRepository;
+    private final CarrierRepository carrierRepository;
+    private final CarrierPositionService carrierPositionService;
+    private final DeliverySlotService deliverySlotService;
+    private final OrderTrackingService orderTrackingService;
+    private final TunisiaGazetteer gazetteer;
+    private final int candidates;
+
+    public CarrierDispatchService(
+            DeliveryRepository deliveryRepository,
+            CarrierRepository carrierRepository,
+            CarrierPositionService carrierPositionService,
+            DeliverySlotService deliverySlotService,
+            OrderTrackingService orderTrackingService,
+            TunisiaGazetteer gazetteer,
+            @Value("${dispatch.candidates:10}") int candidates) {
+        this.deliveryRepository = deliveryRepository;
+        this.carrierRepository = carrierRepository;
+        this.carrierPositionService = carrierPositionService;
+        this.deliverySlotService = deliverySlotService;
+        this.orderTrackingService = orderTrackingService;
+        this.gazetteer = gazetteer;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Find the nearest available carriers that still have a free delivery slot
+     * @param deliveryId The delivery ID
+     * @param k The number of carriers wanted
+     * @return Up to k carriers, nearest first
+     */
+    public List<NearbyCarrierDTO> findNearestCarriers(Long deliveryId, int k) {
+        Delivery delivery = deliveryRepository.findById(deliveryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Delivery not found"));
+        List<CarrierGridIndex.Neighbor> nearest = nearest(delivery, k);
+
+        Map<Long, Carrier> carriers = carrierRepository.findAllById(
+                        nearest.stream().map(neighbor -> neighbor.entry().carrierId()).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Carrier::getId, Function.identity()));
+        return nearest.stream()
+                .map(neighbor -> NearbyCarrierDTO.builder()
+                        .carrierId(neighbor.entry().carrierId())
+                        .carrierName(carriers.containsKey(neighbor.entry().carrierId())
+                                ? carriers.get(neighbor.entry().carrierId()).getName() : null)
+                        .latitude(neighbor.entry().latitude())
+                        .longitude(neighbor.entry().longitude())
+                        .distanceKm(neighbor.distanceKm())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Assign the nearest available carrier with a free slot to a pending delivery
+     * @param deliveryId The delivery ID
+     * @return The updated delivery
+     */
+    public Delivery assignNearestCarrier(Long deliveryId) {
+        Delivery delivery = deliveryRepository.findById(deliveryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Delivery not found"));
+        for (CarrierGridIndex.Neighbor neighbor : nearest(delivery, candidates)) {
+            try {
+                return orderTrackingService.assignCarrier(deliveryId, neighbor.entry().carrierId());
+            } catch (SlotUnavailableException e) {
+                // The carrier filled up since the lookup; try the next one
+            }
+        }
+        throw new RuntimeException("No available carrier near the delivery address");
+    }
+
+    private List<CarrierGridIndex.Neighbor> nearest(Delivery delivery, int k) {
+        GeoPoint location = locate(delivery);
+        LocalDate from = delivery.getDeliveryDate();
+        return carrierPositionService.findNearest(location, k,
+                carrierId -> deliverySlotService.hasFreeSlot(carrierId, from));
+    }
+
+    private GeoPoint locate(Delivery delivery) {
+        Customer customer = delivery.getOrder() != null ? delivery.getOrder().getCustomer() : null;
+        if (customer == null) {
+            throw new RuntimeException("Delivery has no customer");
+        }
+        if (customer.getLatitude() != null && customer.getLongitude() != null) {
+            return new GeoPoint(customer.getLatitude(), customer.getLongitude());
+        }
+        return gazetteer.resolve(customer.getAddress())
+                .orElseThrow(() -> new RuntimeException("Customer address could not be located"));
+    }
+}
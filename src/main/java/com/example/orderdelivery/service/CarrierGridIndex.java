@@ -0,0 +1,168 @@
+package com.example.orderdelivery.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Uniform lat/lon grid over carrier positions.
+ * A k-nearest query walks square rings of cells outwards from the query cell and stops as
+ * soon as the closest possible point of the next ring is farther than the current k-th
+ * candidate, so it only touches the carriers around the query point regardless of how many
+ * carriers are indexed. Moving a carrier is a remove/add on two cell sets.
+ */
+final class CarrierGridIndex {
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellDegrees;
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    CarrierGridIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    record Entry(long carrierId, double latitude, double longitude, boolean available, long updatedAtMillis, long cell) {
+    }
+
+    record Neighbor(Entry entry, double distanceKm) {
+    }
+
+    void update(long carrierId, double latitude, double longitude, boolean available, long updatedAtMillis) {
+        long cell = cellKey(row(latitude), column(longitude));
+        entries.compute(carrierId, (id, previous) -> {
+            // Reports can arrive out of order; never move a carrier back to an older position
+            if (previous != null && previous.updatedAtMillis() > updatedAtMillis) {
+                return previous;
+            }
+            if (previous == null || previous.cell() != cell) {
+                if (previous != null) {
+                    removeFromCell(previous.cell(), id);
+                }
+                cells.compute(cell, (key, carriers) -> {
+                    Set<Long> members = carriers != null ? carriers : ConcurrentHashMap.<Long>newKeySet();
+                    members.add(id);
+                    return members;
+                });
+            }
+            return new Entry(id, latitude, longitude, available, updatedAtMillis, cell);
+        });
+    }
+
+    void remove(long carrierId) {
+        Entry previous = entries.remove(carrierId);
+        if (previous != null) {
+            removeFromCell(previous.cell(), carrierId);
+        }
+    }
+
+    Entry get(long carrierId) {
+        return entries.get(carrierId);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Find the k nearest available carriers
+     * @param point The query point
+     * @param k The number of carriers wanted
+     * @param maxRadiusKm Carriers farther than this are ignored
+     * @param notBeforeMillis Positions reported before this time are ignored
+     * @param filter Extra condition on the carrier ID, e.g. free capacity
+     * @return Up to k carriers, nearest first
+     */
+    List<Neighbor> nearest(GeoPoint point, int k, double maxRadiusKm, long notBeforeMillis, LongPredicate filter) {
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(Neighbor::distanceKm).reversed());
+        if (k <= 0 || entries.isEmpty()) {
+            return List.of();
+        }
+        int centerRow = row(point.latitude());
+        int centerColumn = column(point.longitude());
+
+        for (int ring = 0; ; ring++) {
+            double ringDistanceKm = minDistanceToRing(point.latitude(), ring);
+            if (ringDistanceKm > maxRadiusKm || ring * cellDegrees > 180
+                    || (best.size() == k && ringDistanceKm > best.peek().distanceKm())) {
+                break;
+            }
+            for (int dRow = -ring; dRow <= ring; dRow++) {
+                boolean edgeRow = Math.abs(dRow) == ring;
+                for (int dColumn = -ring; dColumn <= ring; dColumn += edgeRow ? 1 : 2 * ring) {
+                    Set<Long> carriers = cells.get(cellKey(centerRow + dRow, centerColumn + dColumn));
+                    if (carriers != null) {
+                        collect(carriers, point, k, maxRadiusKm, notBeforeMillis, filter, best);
+                    }
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        List<Neighbor> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    private void collect(Set<Long> carriers, GeoPoint point, int k, double maxRadiusKm, long notBeforeMillis,
+                         LongPredicate filter, PriorityQueue<Neighbor> best) {
+        for (Long carrierId : carriers) {
+            Entry entry = entries.get(carrierId);
+            if (entry == null || !entry.available() || entry.updatedAtMillis() < notBeforeMillis) {
+                continue;
+            }
+            double distance = GeoPoint.distanceKm(point.latitude(), point.longitude(), entry.latitude(), entry.longitude());
+            if (distance > maxRadiusKm || (best.size() == k && distance >= best.peek().distanceKm())) {
+                continue;
+            }
+            if (!filter.test(carrierId)) {
+                continue;
+            }
+            best.offer(new Neighbor(entry, distance));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+    }
+
+    /**
+     * Lower bound on the distance from a point to any cell of the given ring. A cell in ring r
+     * is at least r - 1 whole cells away along one axis; longitude degrees are measured at the
+     * highest latitude the ring reaches, where they are shortest.
+     */
+    private double minDistanceToRing(double latitude, int ring) {
+        if (ring <= 1) {
+            return 0;
+        }
+        double farthestLatitude = Math.min(89.0, Math.abs(latitude) + ring * cellDegrees);
+        double cellKm = cellDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(farthestLatitude));
+        return (ring - 1) * cellKm;
+    }
+
+    private void removeFromCell(long cell, long carrierId) {
+        cells.computeIfPresent(cell, (key, carriers) -> {
+            carriers.remove(carrierId);
+            return carriers.isEmpty() ? null : carriers;
+        });
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
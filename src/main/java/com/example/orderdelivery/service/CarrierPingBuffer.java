@@ -0,0 +1,117 @@
+package com.example.orderdelivery.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of one carrier's most recent GPS pings, in time order; once full, each new
+ * ping overwrites the oldest. Coordinates are kept as whole microdegrees (about 0.1 m) so
+ * thousands of buffers stay small. Also tracks how far the ping flush has got.
+ */
+final class CarrierPingBuffer {
+    private static final double MICRODEGREES = 1_000_000d;
+
+    record Ping(double latitude, double longitude, long recordedAtMillis) {
+    }
+
+    /**
+     * Pings picked for storage and the point the flush has reached once they are stored
+     */
+    record FlushBatch(List<Ping> samples, long upToMillis) {
+    }
+
+    private final long[] times;
+    private final int[] latitudes;
+    private final int[] longitudes;
+    private int next;
+    private int size;
+    // Newest ping already seen by the flush, and the last one it stored
+    private long flushedUpToMillis = Long.MIN_VALUE;
+    private long lastSampleMillis = Long.MIN_VALUE;
+
+    CarrierPingBuffer(int capacity) {
+        times = new long[capacity];
+        latitudes = new int[capacity];
+        longitudes = new int[capacity];
+    }
+
+    /**
+     * @return false if the ping is older than the newest one held
+     */
+    synchronized boolean add(double latitude, double longitude, long recordedAtMillis) {
+        if (size > 0 && recordedAtMillis < times[slot(size - 1)]) {
+            return false;
+        }
+        times[next] = recordedAtMillis;
+        latitudes[next] = (int) Math.round(latitude * MICRODEGREES);
+        longitudes[next] = (int) Math.round(longitude * MICRODEGREES);
+        next = (next + 1) % times.length;
+        if (size < times.length) {
+            size++;
+        }
+        return true;
+    }
+
+    synchronized Ping latest() {
+        return size > 0 ? ping(slot(size - 1)) : null;
+    }
+
+    synchronized long latestMillis() {
+        return size > 0 ? times[slot(size - 1)] : Long.MIN_VALUE;
+    }
+
+    /**
+     * @return The pings recorded at or after the cutoff, oldest first
+     */
+    synchronized List<Ping> since(long cutoffMillis) {
+        int first = size;
+        while (first > 0 && times[slot(first - 1)] >= cutoffMillis) {
+            first--;
+        }
+        List<Ping> pings = new ArrayList<>(size - first);
+        for (int i = first; i < size; i++) {
+            pings.add(ping(slot(i)));
+        }
+        return pings;
+    }
+
+    /**
+     * Pick the pings not flushed yet, at most one per sampleMillis. The flush position only
+     * moves in {@link #markFlushed}, so nothing is lost if storing the batch fails.
+     * @return The batch, or null if there is nothing new
+     */
+    synchronized FlushBatch pendingSamples(long sampleMillis) {
+        if (size == 0 || times[slot(size - 1)] <= flushedUpToMillis) {
+            return null;
+        }
+        List<Ping> samples = new ArrayList<>();
+        long lastSample = lastSampleMillis;
+        for (int i = 0; i < size; i++) {
+            long time = times[slot(i)];
+            if (time > flushedUpToMillis && (lastSample == Long.MIN_VALUE || time - lastSample >= sampleMillis)) {
+                samples.add(ping(slot(i)));
+                lastSample = time;
+            }
+        }
+        return new FlushBatch(samples, times[slot(size - 1)]);
+    }
+
+    synchronized void markFlushed(FlushBatch batch) {
+        flushedUpToMillis = Math.max(flushedUpToMillis, batch.upToMillis());
+        if (!batch.samples().isEmpty()) {
+            lastSampleMillis = Math.max(lastSampleMillis,
+                    batch.samples().get(batch.samples().size() - 1).recordedAtMillis());
+        }
+    }
+
+    /**
+     * @param index 0 for the oldest ping held, size - 1 for the newest
+     */
+    private int slot(int index) {
+        return (next - size + index + times.length) % times.length;
+    }
+
+    private Ping ping(int slot) {
+        return new Ping(latitudes[slot] / MICRODEGREES, longitudes[slot] / MICRODEGREES, times[slot]);
+    }
+}
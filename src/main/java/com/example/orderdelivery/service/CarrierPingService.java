@@ -0,0 +1,315 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.dto.CarrierPingDTO;
+import com.example.orderdelivery.dto.PingBatchResultDTO;
+import com.example.orderdelivery.entity.CarrierPosition;
+import com.example.orderdelivery.entity.DeliveryStatus;
+import com.example.orderdelivery.exception.ResourceNotFoundException;
+import com.example.orderdelivery.repository.CarrierRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GPS pings from carriers on the road. Each carrier's recent pings are held in a fixed-size
+ * {@link CarrierPingBuffer}, so the latest position and the recent trail of a carrier, or of
+ * the delivery it has in transit, are memory reads. Every gps.flush-interval-ms the new pings
+ * are thinned to one per gps.sample-interval-seconds and inserted into carrier_ping in one
+ * batch. The latest position of each carrier also moves it in the dispatch index. Buffers are
+ * per instance; with several instances, route a carrier's pings to one of them.
+ */
+@Service
+public class CarrierPingService {
+    private static final Logger log = LoggerFactory.getLogger(CarrierPingService.class);
+    private static final String REGION = "deliveries-in-transit";
+    private static final long MAX_CLOCK_SKEW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int PURGE_CHUNK = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CarrierRepository carrierRepository;
+    private final CarrierPositionService carrierPositionService;
+    private final CacheInvalidationBus invalidationBus;
+    private final int bufferSize;
+    private final int maxBatchSize;
+    private final long sampleMillis;
+    private final int trailMinutes;
+    private final int retentionDays;
+    private final Map<Long, CarrierPingBuffer> buffers = new ConcurrentHashMap<>();
+    // Delivery ID -> carrier ID of deliveries found in transit; dropped when the delivery changes
+    private final Map<Long, Long> inTransit = new ConcurrentHashMap<>();
+    // Bumped before every drop from inTransit, so a lookup can tell that it raced with one
+    private final AtomicLong inTransitDrops = new AtomicLong();
+    private final Counter acceptedPings;
+    private final Counter rejectedPings;
+
+    public CarrierPingService(
+            JdbcTemplate jdbcTemplate,
+            CarrierRepository carrierRepository,
+            CarrierPositionService carrierPositionService,
+            CacheInvalidationBus invalidationBus,
+            MeterRegistry meterRegistry,
+            @Value("${gps.buffer-size:400}") int bufferSize,
+            @Value("${gps.max-batch-size:1000}") int maxBatchSize,
+            @Value("${gps.sample-interval-seconds:30}") long sampleSeconds,
+            @Value("${gps.trail-minutes:30}") int trailMinutes,
+            @Value("${gps.retention-days:30}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.carrierRepository = carrierRepository;
+        this.carrierPositionService = carrierPositionService;
+        this.invalidationBus = invalidationBus;
+        this.bufferSize = bufferSize;
+        this.maxBatchSize = maxBatchSize;
+        this.sampleMillis = TimeUnit.SECONDS.toMillis(sampleSeconds);
+        this.trailMinutes = trailMinutes;
+        this.retentionDays = retentionDays;
+        this.acceptedPings = Counter.builder("gps.pings.accepted").register(meterRegistry);
+        this.rejectedPings = Counter.builder("gps.pings.rejected").register(meterRegistry);
+        Gauge.builder("gps.buffers", buffers, Map::size).register(meterRegistry);
+        invalidationBus.subscribe(REGION, key -> forgetInTransit(key != null ? Long.parseLong(key) : null));
+    }
+
+    /**
+     * Take in a batch of pings, from one carrier or many
+     * @param pings The pings, in any order
+     * @return How many were kept and how many were dropped
+     */
+    public PingBatchResultDTO ingest(List<CarrierPingDTO> pings) {
+        if (pings.size() > maxBatchSize) {
+            throw new RuntimeException("At most " + maxBatchSize + " pings per batch");
+        }
+        long now = System.currentTimeMillis();
+        List<CarrierPingDTO> ordered = new ArrayList<>(pings);
+        // Buffers only take pings in time order
+        ordered.sort(Comparator.comparing(CarrierPingDTO::getRecordedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+        int accepted = 0;
+        for (CarrierPingDTO ping : ordered) {
+            if (accept(ping, now)) {
+                accepted++;
+            }
+        }
+        acceptedPings.increment(accepted);
+        rejectedPings.increment(pings.size() - accepted);
+        return PingBatchResultDTO.builder()
+                .accepted(accepted)
+                .rejected(pings.size() - accepted)
+                .build();
+    }
+
+    public Optional<CarrierPingDTO> getLatestCarrierPosition(Long carrierId) {
+        CarrierPingBuffer buffer = buffers.get(carrierId);
+        CarrierPingBuffer.Ping latest = buffer != null ? buffer.latest() : null;
+        return Optional.ofNullable(latest).map(ping -> toDto(carrierId, ping));
+    }
+
+    /**
+     * @param carrierId The carrier ID
+     * @param minutes How far back to go, up to gps.trail-minutes
+     * @return The carrier's pings over the last minutes, oldest first
+     */
+    public List<CarrierPingDTO> getCarrierTrail(Long carrierId, int minutes) {
+        if (minutes < 1 || minutes > trailMinutes) {
+            throw new RuntimeException("Minutes must be between 1 and " + trailMinutes);
+        }
+        CarrierPingBuffer buffer = buffers.get(carrierId);
+        if (buffer == null) {
+            return List.of();
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(minutes);
+        return buffer.since(cutoff).stream().map(ping -> toDto(carrierId, ping)).toList();
+    }
+
+    /**
+     * @return The latest position of the carrier of a delivery in transit
+     */
+    public Optional<CarrierPingDTO> getLatestDeliveryPosition(Long deliveryId) {
+        return carrierInTransit(deliveryId).flatMap(this::getLatestCarrierPosition);
+    }
+
+    /**
+     * @return The trail of the carrier of a delivery in transit, oldest first
+     */
+    public List<CarrierPingDTO> getDeliveryTrail(Long deliveryId, int minutes) {
+        Long carrierId = carrierInTransit(deliveryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Delivery is not in transit"));
+        return getCarrierTrail(carrierId, minutes);
+    }
+
+    /**
+     * Forget which carrier a delivery is in transit with once the caller's transaction commits;
+     * call whenever a delivery's status or carrier may have changed
+     */
+    public void deliveryChanged(Long deliveryId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    forgetInTransit(deliveryId);
+                }
+            });
+        } else {
+            forgetInTransit(deliveryId);
+        }
+        invalidationBus.publish(REGION, deliveryId);
+    }
+
+    /**
+     * Store the pings received since the last flush, downsampled, and move each carrier to its
+     * latest position. Buffers that have not had a ping for gps.trail-minutes are dropped.
+     */
+    @Scheduled(fixedDelayString = "${gps.flush-interval-ms:15000}", initialDelay = 5000)
+    public void flush() {
+        long idleBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(trailMinutes);
+        Map<CarrierPingBuffer, CarrierPingBuffer.FlushBatch> batches = new LinkedHashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        List<CarrierPosition> positions = new ArrayList<>();
+        for (Map.Entry<Long, CarrierPingBuffer> entry : buffers.entrySet()) {
+            Long carrierId = entry.getKey();
+            CarrierPingBuffer buffer = entry.getValue();
+            CarrierPingBuffer.FlushBatch batch = buffer.pendingSamples(sampleMillis);
+            if (batch == null) {
+                if (buffer.latestMillis() < idleBefore) {
+                    buffers.remove(carrierId, buffer);
+                }
+                continue;
+            }
+            batches.put(buffer, batch);
+            for (CarrierPingBuffer.Ping ping : batch.samples()) {
+                rows.add(new Object[]{carrierId, ping.latitude(), ping.longitude(), new Timestamp(ping.recordedAtMillis())});
+            }
+            CarrierPingBuffer.Ping latest = buffer.latest();
+            positions.add(CarrierPosition.builder()
+                    .carrierId(carrierId)
+                    .latitude(latest.latitude())
+                    .longitude(latest.longitude())
+                    .updatedAt(toLocalDateTime(latest.recordedAtMillis()))
+                    .build());
+        }
+        if (batches.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO carrier_ping (carrier_id, latitude, longitude, recorded_at) VALUES (?, ?, ?, ?)", rows);
+            carrierPositionService.recordPositions(positions);
+            batches.forEach(CarrierPingBuffer::markFlushed);
+        } catch (RuntimeException e) {
+            // The buffers keep their flush position; the pings are stored with the next flush
+            log.warn("GPS ping flush failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delete stored pings older than gps.retention-days
+     */
+    @Scheduled(fixedDelayString = "${gps.purge-interval-ms:3600000}", initialDelay = 60000)
+    public void purge() {
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(
+                        "DELETE FROM carrier_ping WHERE recorded_at < NOW(3) - INTERVAL ? DAY LIMIT " + PURGE_CHUNK,
+                        retentionDays);
+            } while (deleted == PURGE_CHUNK);
+        } catch (RuntimeException e) {
+            log.warn("GPS ping purge failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean accept(CarrierPingDTO ping, long now) {
+        if (ping.getCarrierId() == null || ping.getLatitude() == null || ping.getLongitude() == null
+                || Math.abs(ping.getLatitude()) > 90 || Math.abs(ping.getLongitude()) > 180) {
+            return false;
+        }
+        long recordedAt = ping.getRecordedAt() != null ? toMillis(ping.getRecordedAt()) : now;
+        if (recordedAt > now + MAX_CLOCK_SKEW_MILLIS) {
+            return false;
+        }
+        CarrierPingBuffer buffer = buffer(ping.getCarrierId());
+        return buffer != null && buffer.add(ping.getLatitude(), ping.getLongitude(), recordedAt);
+    }
+
+    private CarrierPingBuffer buffer(Long carrierId) {
+        CarrierPingBuffer buffer = buffers.get(carrierId);
+        if (buffer != null) {
+            return buffer;
+        }
+        // First ping from this carrier here; the carrier comes from the second-level cache
+        if (carrierRepository.findById(carrierId).isEmpty()) {
+            return null;
+        }
+        return buffers.computeIfAbsent(carrierId, id -> new CarrierPingBuffer(bufferSize));
+    }
+
+    private Optional<Long> carrierInTransit(Long deliveryId) {
+        Long carrierId = inTransit.get(deliveryId);
+        if (carrierId != null) {
+            return Optional.of(carrierId);
+        }
+        long drops = inTransitDrops.get();
+        List<Long> carriers = jdbcTemplate.queryForList(
+                "SELECT carrier_id FROM delivery WHERE id = ? AND status = ? AND carrier_id IS NOT NULL",
+                Long.class, deliveryId, DeliveryStatus.IN_TRANSIT.name());
+        if (carriers.isEmpty()) {
+            return Optional.empty();
+        }
+        inTransit.put(deliveryId, carriers.get(0));
+        // A delivery change that committed while the row was read may have been dropped before
+        // this put, leaving a stale carrier behind; take it out again and let the next lookup
+        // read the committed row. A drop after this check removes the entry itself.
+        if (inTransitDrops.get() != drops) {
+            inTransit.remove(deliveryId, carriers.get(0));
+        }
+        return Optional.of(carriers.get(0));
+    }
+
+    /**
+     * @param deliveryId The changed delivery, or null when any delivery may have changed
+     */
+    private void forgetInTransit(Long deliveryId) {
+        inTransitDrops.incrementAndGet();
+        if (deliveryId == null) {
+            inTransit.clear();
+        } else {
+            inTransit.remove(deliveryId);
+        }
+    }
+
+    private static CarrierPingDTO toDto(Long carrierId, CarrierPingBuffer.Ping ping) {
+        return CarrierPingDTO.builder()
+                .carrierId(carrierId)
+                .latitude(ping.latitude())
+                .longitude(ping.longitude())
+                .recordedAt(toLocalDateTime(ping.recordedAtMillis()))
+                .build();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.CarrierPosition;
+import com.example.orderdelivery.exception.ResourceNotFoundException;
+import com.example.orderdelivery.repository.CarrierPositionRepository;
+import com.example.orderdelivery.repository.CarrierRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+
+/**
+ * Live carrier positions. Every report is written to carrier_position and applied to an
+ * in-memory {@link CarrierGridIndex}, which answers nearest-carrier queries without touching
+ * the database. The index is filled from the table on first use; positions reported to other
+ * nodes arrive through the {@link CacheInvalidationBus} and are re-read from the table. GPS
+ * pings arrive in batches from {@link CarrierPingService}.
+ */
+@Service
+public class CarrierPositionService {
+    private static final Logger log = LoggerFactory.getLogger(CarrierPositionService.class);
+    // Keeps the stored availability, and never moves a carrier back to an older position
+    private static final String UPSERT =
+            "INSERT INTO carrier_position (carrier_id, latitude, longitude, available, updated_at) VALUES (?, ?, ?, TRUE, ?) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "latitude = IF(updated_at IS NULL OR VALUES(updated_at) >= updated_at, VALUES(latitude), latitude), " +
+                    "longitude = IF(updated_at IS NULL OR VALUES(updated_at) >= updated_at, VALUES(longitude), longitude), " +
+                    "updated_at = GREATEST(COALESCE(updated_at, VALUES(updated_at)), VALUES(updated_at))";
+
+    private final CarrierPositionRepository carrierPositionRepository;
+    private final CarrierRepository carrierRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CarrierGridIndex index;
+    private final double maxRadiusKm;
+    private final long maxAgeMillis;
+    private final CacheInvalidationBus invalidationBus;
+    private volatile boolean loaded;
+
+    public CarrierPositionService(
+            CarrierPositionRepository carrierPositionRepository,
+            CarrierRepository carrierRepository,
+            JdbcTemplate jdbcTemplate,
+            CacheInvalidationBus invalidationBus,
+            @Value("${dispatch.grid-cell-degrees:0.05}") double cellDegrees,
+            @Value("${dispatch.max-radius-km:250}") double maxRadiusKm,
+            @Value("${dispatch.position-max-age-minutes:30}") long maxAgeMinutes) {
+        this.carrierPositionRepository = carrierPositionRepository;
+        this.carrierRepository = carrierRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.index = new CarrierGridIndex(cellDegrees);
+        this.maxRadiusKm = maxRadiusKm;
+        this.maxAgeMillis = TimeUnit.MINUTES.toMillis(maxAgeMinutes);
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(CacheInvalidationBus.CARRIER_POSITIONS, this::reindex);
+    }
+
+    /**
+     * Record a carrier's current position
+     * @param carrierId The carrier ID
+     * @param position The reported coordinates and availability; a missing availability means available
+     * @return The stored position
+     */
+    public CarrierPosition updatePosition(Long carrierId, CarrierPosition position) {
+        if (position.getLatitude() == null || position.getLongitude() == null) {
+            throw new RuntimeException("Latitude and longitude are required");
+        }
+        if (!carrierRepository.existsById(carrierId)) {
+            throw new ResourceNotFoundException("Carrier not found");
+        }
+        position.setCarrierId(carrierId);
+        position.setAvailable(position.getAvailable() == null || position.getAvailable());
+        if (position.getUpdatedAt() == null) {
+            position.setUpdatedAt(LocalDateTime.now());
+        }
+        CarrierPosition saved = carrierPositionRepository.save(position);
+        invalidationBus.publish(CacheInvalidationBus.CARRIER_POSITIONS, carrierId);
+        ensureLoaded();
+        index(saved);
+        return saved;
+    }
+
+    /**
+     * Move several carriers at once, keeping their availability; used for GPS pings
+     * @param positions The latest position of each carrier
+     */
+    public void recordPositions(List<CarrierPosition> positions) {
+        if (positions.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT, positions, positions.size(), (ps, position) -> {
+            ps.setLong(1, position.getCarrierId());
+            ps.setDouble(2, position.getLatitude());
+            ps.setDouble(3, position.getLongitude());
+            ps.setTimestamp(4, Timestamp.valueOf(position.getUpdatedAt()));
+        });
+        // One region-wide message per batch rather than one per carrier
+        invalidationBus.publish(CacheInvalidationBus.CARRIER_POSITIONS, null);
+        ensureLoaded();
+        for (CarrierPosition position : positions) {
+            CarrierGridIndex.Entry current = index.get(position.getCarrierId());
+            position.setAvailable(current == null || current.available());
+            index(position);
+        }
+    }
+
+    public Optional<CarrierPosition> getPosition(Long carrierId) {
+        return carrierPositionRepository.findById(carrierId);
+    }
+
+    /**
+     * Find the nearest available carriers with a recent position
+     * @param point The delivery location
+     * @param k The number of carriers wanted
+     * @param filter Extra condition on the carrier ID
+     * @return Up to k carriers, nearest first
+     */
+    public List<CarrierGridIndex.Neighbor> findNearest(GeoPoint point, int k, LongPredicate filter) {
+        ensureLoaded();
+        return index.nearest(point, k, maxRadiusKm, System.currentTimeMillis() - maxAgeMillis, filter);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            List<CarrierPosition> positions = carrierPositionRepository.findAll();
+            positions.forEach(this::index);
+            loaded = true;
+            log.info("Loaded {} carrier positions into the dispatch index", positions.size());
+        }
+    }
+
+    private void reindex(String carrierId) {
+        if (!loaded) {
+            // Not built yet; it will read the current table when first used
+            return;
+        }
+        if (carrierId == null) {
+            carrierPositionRepository.findAll().forEach(this::index);
+            return;
+        }
+        long id = Long.parseLong(carrierId);
+        carrierPositionRepository.findById(id).ifPresentOrElse(this::index, () -> index.remove(id));
+    }
+
+    private void index(CarrierPosition position) {
+        index.update(position.getCarrierId(), position.getLatitude(), position.getLongitude(),
+                Boolean.TRUE.equals(position.getAvailable()),
+                position.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+}
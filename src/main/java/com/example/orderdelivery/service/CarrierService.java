@@ -5,14 +5,22 @@ import com.example.orderdelivery.repository.CarrierRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class CarrierService {
     private final CarrierRepository carrierRepository;
+    private final DeliveryQuoteService deliveryQuoteService;
+    private final CacheInvalidationBus invalidationBus;
+    private final EntityMultiLoader entityMultiLoader;
 
-    public CarrierService(CarrierRepository carrierRepository) {
+    public CarrierService(CarrierRepository carrierRepository, DeliveryQuoteService deliveryQuoteService,
+                          CacheInvalidationBus invalidationBus, EntityMultiLoader entityMultiLoader) {
         this.carrierRepository = carrierRepository;
+        this.deliveryQuoteService = deliveryQuoteService;
+        this.invalidationBus = invalidationBus;
+        this.entityMultiLoader = entityMultiLoader;
     }
 
     public List<Carrier> getAllCarriers() {
@@ -23,11 +31,24 @@ public class CarrierService {
         return carrierRepository.findById(id);
     }
 
+    /**
+     * @param ids The carrier IDs
+     * @return Each distinct ID in order, mapped to its carrier or to null if it does not exist
+     */
+    public Map<Long, Carrier> getCarriersByIds(List<Long> ids) {
+        return entityMultiLoader.load(Carrier.class, ids);
+    }
+
     public Carrier saveCarrier(Carrier carrier) {
-        return carrierRepository.save(carrier);
+        Carrier saved = carrierRepository.save(carrier);
+        invalidationBus.publish(CacheInvalidationBus.CARRIERS, saved.getId());
+        deliveryQuoteService.reloadCarrierSurcharges();
+        return saved;
     }
 
     public void deleteCarrier(Long id) {
         carrierRepository.deleteById(id);
+        invalidationBus.publish(CacheInvalidationBus.CARRIERS, id);
+        deliveryQuoteService.reloadCarrierSurcharges();
     }
 } 
\ No newline at end of file
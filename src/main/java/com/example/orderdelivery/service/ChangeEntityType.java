@@ -0,0 +1,7 @@
+package com.example.orderdelivery.service;
+
+public enum ChangeEntityType {
+    ORDER,
+    PRODUCT,
+    DELIVERY
+}
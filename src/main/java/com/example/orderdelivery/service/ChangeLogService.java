@@ -0,0 +1,318 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.dto.ChangeBatchDTO;
+import com.example.orderdelivery.dto.ChangeDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The change feed behind GET /api/changes: one change_log row per order, product or delivery
+ * change. Services record changes inside their transaction; the rows are inserted just before
+ * commit, so they commit or roll back with the change and their auto-increment IDs are handed
+ * out in nearly commit order. Readers page through the log with an ID cursor. A missing ID may
+ * belong to a transaction that has not committed yet, so a read stops before any gap whose next
+ * row is younger than changes.gap-wait-ms and the client picks it up on its next request.
+ * Long-poll readers are parked until a commit on this node, a change announced by another node
+ * through the {@link CacheInvalidationBus}, or the periodic check finds something for them.
+ */
+@Service
+public class ChangeLogService {
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogService.class);
+    private static final String REGION = "change-log";
+    private static final String COLUMNS =
+            "SELECT id, entity_type, entity_id, operation, changed_at, " +
+                    "TIMESTAMPDIFF(MICROSECOND, changed_at, NOW(3)) AS age_us FROM change_log ";
+    private static final int PURGE_CHUNK = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final long gapWaitMs;
+    private final int retentionHours;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean checkScheduled = new AtomicBoolean();
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-feed-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ChangeLogService(
+            JdbcTemplate jdbcTemplate,
+            CacheInvalidationBus invalidationBus,
+            MeterRegistry meterRegistry,
+            @Value("${changes.gap-wait-ms:10000}") long gapWaitMs,
+            @Value("${changes.retention-hours:72}") int retentionHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBus = invalidationBus;
+        this.gapWaitMs = gapWaitMs;
+        this.retentionHours = retentionHours;
+        Gauge.builder("changes.long_poll.waiters", waiters, Queue::size).register(meterRegistry);
+        invalidationBus.subscribe(REGION, key -> wake());
+    }
+
+    /**
+     * Record a change in the caller's transaction
+     * @param entityType The kind of entity
+     * @param entityId The entity ID
+     * @param operation What happened to it
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ChangeEntityType entityType, Long entityId, ChangeOperation operation) {
+        if (entityId == null) {
+            return;
+        }
+        Map<ChangeKey, ChangeOperation> pending = pendingChanges();
+        pending.merge(new ChangeKey(entityType, entityId), operation,
+                // A create followed by updates in the same transaction is still a create
+                (previous, next) -> previous == ChangeOperation.CREATED && next == ChangeOperation.UPDATED ? previous : next);
+        invalidationBus.publish(REGION, null);
+    }
+
+    /**
+     * Record the same change for several entities in the caller's transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(ChangeEntityType entityType, Collection<Long> entityIds, ChangeOperation operation) {
+        for (Long entityId : entityIds) {
+            record(entityType, entityId, operation);
+        }
+    }
+
+    /**
+     * @return The cursor of the newest change, to start following the feed from now
+     */
+    public long getLatestCursor() {
+        Long latest = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM change_log", Long.class);
+        return latest != null ? latest : 0;
+    }
+
+    /**
+     * Read the changes after a cursor
+     * @param since The cursor from the previous batch; null to get the current cursor only
+     * @param limit The maximum number of log entries to read
+     * @param types The entity types to return, or empty for all
+     * @return The changes, in log order
+     */
+    public ChangeBatchDTO getChanges(Long since, int limit, Set<ChangeEntityType> types) {
+        if (since == null) {
+            return ChangeBatchDTO.builder().changes(List.of()).nextCursor(getLatestCursor()).build();
+        }
+        Long oldest = jdbcTemplate.queryForObject("SELECT MIN(id) FROM change_log", Long.class);
+        if (oldest != null && since < oldest - 1) {
+            return ChangeBatchDTO.builder()
+                    .changes(List.of())
+                    .nextCursor(getLatestCursor())
+                    .resetRequired(true)
+                    .build();
+        }
+
+        List<ChangeRow> rows = jdbcTemplate.query(COLUMNS + "WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new ChangeRow(
+                        rs.getLong("id"),
+                        ChangeEntityType.valueOf(rs.getString("entity_type")),
+                        rs.getLong("entity_id"),
+                        ChangeOperation.valueOf(rs.getString("operation")),
+                        rs.getTimestamp("changed_at").toLocalDateTime(),
+                        rs.getLong("age_us") / 1000),
+                since, limit);
+
+        List<ChangeDTO> changes = new ArrayList<>();
+        long cursor = since;
+        boolean blocked = false;
+        for (ChangeRow row : rows) {
+            if (row.id() != cursor + 1 && row.ageMillis() < gapWaitMs) {
+                // The skipped IDs may still commit; stop here until they do or the wait is over
+                blocked = true;
+                break;
+            }
+            cursor = row.id();
+            if (types.isEmpty() || types.contains(row.entityType())) {
+                changes.add(ChangeDTO.builder()
+                        .id(row.id())
+                        .entityType(row.entityType())
+                        .entityId(row.entityId())
+                        .operation(row.operation())
+                        .changedAt(row.changedAt())
+                        .build());
+            }
+        }
+        return ChangeBatchDTO.builder()
+                .changes(changes)
+                .nextCursor(cursor)
+                .hasMore(blocked || rows.size() == limit)
+                .build();
+    }
+
+    /**
+     * Read the changes after a cursor, waiting up to waitMs for one if there are none yet
+     * @return A result completed with the first non-empty batch, or an empty batch on timeout
+     */
+    public DeferredResult<ChangeBatchDTO> awaitChanges(long since, int limit, Set<ChangeEntityType> types, long waitMs) {
+        ChangeBatchDTO batch = getChanges(since, limit, types);
+        DeferredResult<ChangeBatchDTO> result = new DeferredResult<>(waitMs);
+        if (!batch.getChanges().isEmpty() || batch.isResetRequired() || waitMs <= 0) {
+            result.setResult(batch);
+            return result;
+        }
+        Waiter waiter = new Waiter(batch.getNextCursor(), limit, types, result);
+        result.onTimeout(() -> result.setResult(ChangeBatchDTO.builder()
+                .changes(List.of())
+                .nextCursor(waiter.cursor)
+                .hasMore(false)
+                .build()));
+        result.onCompletion(() -> waiters.remove(waiter));
+        waiters.add(waiter);
+        return result;
+    }
+
+    /**
+     * Look for changes for parked long-poll readers; also covers gaps that have since filled
+     */
+    @Scheduled(fixedDelayString = "${changes.long-poll.check-interval-ms:1000}", initialDelay = 5000)
+    public void checkWaiters() {
+        wake();
+    }
+
+    /**
+     * Delete changes older than changes.retention-hours. The newest row is always kept so the
+     * oldest remaining ID shows how far the log has been purged.
+     */
+    @Scheduled(fixedDelayString = "${changes.purge-interval-ms:3600000}", initialDelay = 60000)
+    public void purge() {
+        try {
+            long latest = getLatestCursor();
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(
+                        "DELETE FROM change_log WHERE changed_at < NOW(3) - INTERVAL ? HOUR AND id < ? LIMIT " + PURGE_CHUNK,
+                        retentionHours, latest);
+            } while (deleted == PURGE_CHUNK);
+        } catch (RuntimeException e) {
+            log.warn("Change log purge failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        notifier.shutdownNow();
+    }
+
+    private void wake() {
+        if (!waiters.isEmpty() && checkScheduled.compareAndSet(false, true)) {
+            notifier.execute(this::serveWaiters);
+        }
+    }
+
+    private void serveWaiters() {
+        checkScheduled.set(false);
+        try {
+            long latest = getLatestCursor();
+            for (Waiter waiter : waiters) {
+                if (waiter.result.isSetOrExpired()) {
+                    waiters.remove(waiter);
+                    continue;
+                }
+                if (latest <= waiter.cursor) {
+                    continue;
+                }
+                ChangeBatchDTO batch = getChanges(waiter.cursor, waiter.limit, waiter.types);
+                if (!batch.getChanges().isEmpty() || batch.isResetRequired()) {
+                    waiters.remove(waiter);
+                    waiter.result.setResult(batch);
+                } else {
+                    // Entries of other types were skipped; do not read them again
+                    waiter.cursor = batch.getNextCursor();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Change feed check failed: {}", e.getMessage());
+        }
+    }
+
+    private Map<ChangeKey, ChangeOperation> pendingChanges() {
+        @SuppressWarnings("unchecked")
+        Map<ChangeKey, ChangeOperation> pending =
+                (Map<ChangeKey, ChangeOperation>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<ChangeKey, ChangeOperation> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (!changes.isEmpty()) {
+                        insert(changes);
+                    }
+                }
+
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLogService.this);
+                }
+            });
+            pending = changes;
+        }
+        return pending;
+    }
+
+    private void insert(Map<ChangeKey, ChangeOperation> changes) {
+        List<Map.Entry<ChangeKey, ChangeOperation>> entries = new ArrayList<>(changes.entrySet());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO change_log (entity_type, entity_id, operation) VALUES (?, ?, ?)",
+                entries, entries.size(), (ps, entry) -> {
+                    ps.setString(1, entry.getKey().entityType().name());
+                    ps.setLong(2, entry.getKey().entityId());
+                    ps.setString(3, entry.getValue().name());
+                });
+    }
+
+    private record ChangeKey(ChangeEntityType entityType, long entityId) {
+    }
+
+    private record ChangeRow(long id, ChangeEntityType entityType, long entityId, ChangeOperation operation,
+                             LocalDateTime changedAt, long ageMillis) {
+    }
+
+    private static final class Waiter {
+        private final int limit;
+        private final Set<ChangeEntityType> types;
+        private final DeferredResult<ChangeBatchDTO> result;
+        private volatile long cursor;
+
+        private Waiter(long cursor, int limit, Set<ChangeEntityType> types, DeferredResult<ChangeBatchDTO> result) {
+            this.cursor = cursor;
+            this.limit = limit;
+            this.types = types;
+            this.result = result;
+        }
+    }
+}
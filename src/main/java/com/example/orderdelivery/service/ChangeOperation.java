@@ -0,0 +1,9 @@
+package com.example.orderdelivery.service;
+
+public enum ChangeOperation {
+    CREATED,
+    UPDATED,
+    DELETED,
+    // Moved to the archive tier; still readable through GET /api/orders/{id}
+    ARCHIVED
+}
@@ -1,18 +1,51 @@
 package com.example.orderdelivery.service;
 
+import com.example.orderdelivery.dto.OrderHistoryPageDTO;
+import com.example.orderdelivery.dto.OrderSummaryDTO;
 import com.example.orderdelivery.entity.Customer;
+import com.example.orderdelivery.exception.ResourceNotFoundException;
+import com.example.orderdelivery.repository.ArchivedOrderRepository;
 import com.example.orderdelivery.repository.CustomerRepository;
+import com.example.orderdelivery.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class CustomerService {
+    private static final Comparator<OrderSummaryDTO> HISTORY_ORDER = Comparator
+            .comparing(OrderSummaryDTO::getDate, Comparator.reverseOrder())
+            .thenComparing(OrderSummaryDTO::getId, Comparator.reverseOrder());
+
     private final CustomerRepository customerRepository;
+    private final TunisiaGazetteer gazetteer;
+    private final CacheInvalidationBus invalidationBus;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final EntityMultiLoader entityMultiLoader;
+    private final int archiveAfterDays;
 
-    public CustomerService(CustomerRepository customerRepository) {
+    public CustomerService(CustomerRepository customerRepository, TunisiaGazetteer gazetteer,
+                           CacheInvalidationBus invalidationBus, OrderRepository orderRepository,
+                           ArchivedOrderRepository archivedOrderRepository,
+                           EntityMultiLoader entityMultiLoader,
+                           @Value("${orders.archive.after-days:365}") int archiveAfterDays) {
         this.customerRepository = customerRepository;
+        this.gazetteer = gazetteer;
+        this.invalidationBus = invalidationBus;
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.entityMultiLoader = entityMultiLoader;
+        this.archiveAfterDays = archiveAfterDays;
     }
 
     public List<Customer> getAllCustomers() {
@@ -23,11 +56,83 @@ public class CustomerService {
         return customerRepository.findById(id);
     }
 
+    /**
+     * @param ids The customer IDs
+     * @return Each distinct ID in order, mapped to its customer or to null if it does not exist
+     */
+    public Map<Long, Customer> getCustomersByIds(List<Long> ids) {
+        return entityMultiLoader.load(Customer.class, ids);
+    }
+
     public Customer saveCustomer(Customer customer) {
-        return customerRepository.save(customer);
+        if (customer.getLatitude() == null || customer.getLongitude() == null) {
+            gazetteer.resolve(customer.getAddress()).ifPresent(point -> {
+                customer.setLatitude(point.latitude());
+                customer.setLongitude(point.longitude());
+            });
+        }
+        Customer saved = customerRepository.save(customer);
+        invalidationBus.publish(CacheInvalidationBus.CUSTOMERS, saved.getId());
+        return saved;
+    }
+
+    /**
+     * Get one page of a customer's orders, newest first. Pages are addressed by the last order of
+     * the previous page rather than an offset, so every page is a single range read of
+     * idx_orders_customer_date however deep it is. Archived orders are merged in only when the
+     * page reaches back past the archive cutoff.
+     * @param customerId The customer ID
+     * @param before The nextCursor of the previous page, or null for the first page
+     * @param limit The page size
+     * @return The page and the cursor of the next one
+     */
+    public OrderHistoryPageDTO getOrderHistory(Long customerId, String before, int limit) {
+        // One extra row tells whether there is a next page
+        Pageable page = PageRequest.of(0, limit + 1);
+        LocalDate beforeDate = null;
+        Long beforeId = null;
+        if (before != null) {
+            int separator = before.indexOf(':');
+            try {
+                beforeDate = LocalDate.parse(before.substring(0, Math.max(separator, 0)));
+                beforeId = Long.valueOf(before.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor: " + before);
+            }
+        }
+
+        List<OrderSummaryDTO> orders = new ArrayList<>(before == null
+                ? orderRepository.findCustomerOrderSummaries(customerId, page)
+                : orderRepository.findCustomerOrderSummariesBefore(customerId, beforeDate, beforeId, page));
+
+        // Archived orders are all dated before the cutoff, so they can only belong on this page
+        // if it is not full or already reaches past the cutoff
+        LocalDate cutoff = LocalDate.now().minusDays(archiveAfterDays);
+        if (orders.size() <= limit || orders.get(orders.size() - 1).getDate().isBefore(cutoff)) {
+            orders.addAll(before == null
+                    ? archivedOrderRepository.findCustomerOrderSummaries(customerId, page)
+                    : archivedOrderRepository.findCustomerOrderSummariesBefore(customerId, beforeDate, beforeId, page));
+            orders.sort(HISTORY_ORDER);
+        }
+
+        if (orders.isEmpty() && before == null && !customerRepository.existsById(customerId)) {
+            throw new ResourceNotFoundException("Customer not found");
+        }
+
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = new ArrayList<>(orders.subList(0, limit));
+            OrderSummaryDTO last = orders.get(limit - 1);
+            nextCursor = last.getDate() + ":" + last.getId();
+        }
+        return OrderHistoryPageDTO.builder()
+                .orders(orders)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     public void deleteCustomer(Long id) {
         customerRepository.deleteById(id);
+        invalidationBus.publish(CacheInvalidationBus.CUSTOMERS, id);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,292 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.dto.QuoteDTO;
+import com.example.orderdelivery.dto.QuoteLineDTO;
+import com.example.orderdelivery.dto.QuoteRequestDTO;
+import com.example.orderdelivery.entity.Carrier;
+import com.example.orderdelivery.entity.Customer;
+import com.example.orderdelivery.entity.Order;
+import com.example.orderdelivery.entity.OrderLine;
+import com.example.orderdelivery.entity.Product;
+import com.example.orderdelivery.repository.CarrierRepository;
+import com.example.orderdelivery.repository.CustomerRepository;
+import com.example.orderdelivery.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Prices deliveries from the rate card: a base rate for the origin/destination governorate pair,
+ * weight and size band surcharges for the whole parcel, and the carrier's surcharge on top.
+ * Carrier surcharges are held in sorted arrays and reloaded when carriers change, on this node
+ * or (through the {@link CacheInvalidationBus}) on another one.
+ */
+@Service
+public class DeliveryQuoteService {
+    private static final Logger log = LoggerFactory.getLogger(DeliveryQuoteService.class);
+
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final CarrierRepository carrierRepository;
+    private final TunisiaGazetteer gazetteer;
+    private final RateCard rateCard;
+    private final String originZone;
+    private final int origin;
+    private final double defaultWeightKg;
+    private final double defaultVolumeLiters;
+    private final int maxBatchSize;
+
+    private volatile CarrierSurcharges carrierSurcharges;
+
+    public DeliveryQuoteService(
+            ProductRepository productRepository,
+            CustomerRepository customerRepository,
+            CarrierRepository carrierRepository,
+            TunisiaGazetteer gazetteer,
+            CacheInvalidationBus invalidationBus,
+            @Value("${quote.rate-card:quote/rate-card.csv}") String rateCardResource,
+            @Value("${quote.origin-zone:Nabeul}") String originZone,
+            @Value("${quote.default-weight-kg:1.0}") double defaultWeightKg,
+            @Value("${quote.default-volume-liters:1.0}") double defaultVolumeLiters,
+            @Value("${quote.max-batch-size:10000}") int maxBatchSize) {
+        this.productRepository = productRepository;
+        this.customerRepository = customerRepository;
+        this.carrierRepository = carrierRepository;
+        this.gazetteer = gazetteer;
+        this.rateCard = RateCard.load(rateCardResource);
+        this.originZone = originZone;
+        this.origin = rateCard.zone(originZone);
+        if (origin < 0) {
+            throw new IllegalStateException("Origin zone " + originZone + " is not on the rate card");
+        }
+        this.defaultWeightKg = defaultWeightKg;
+        this.defaultVolumeLiters = defaultVolumeLiters;
+        this.maxBatchSize = maxBatchSize;
+        // Reloaded on the next quote, so a burst of carrier changes costs one query
+        invalidationBus.subscribe(CacheInvalidationBus.CARRIERS, key -> carrierSurcharges = null);
+    }
+
+    /**
+     * Price the delivery of an order
+     * @param order The order, with its lines and customer loaded
+     * @param carrier The carrier, or null to price without a carrier surcharge
+     * @return The quote; its error is set if the destination could not be located
+     */
+    public QuoteDTO quoteOrder(Order order, Carrier carrier) {
+        double weight = 0;
+        double volume = 0;
+        if (order.getOrderLines() != null) {
+            for (OrderLine line : order.getOrderLines()) {
+                weight += weightOf(line.getProduct()) * line.getQuantity();
+                volume += volumeOf(line.getProduct()) * line.getQuantity();
+            }
+        }
+        String destination = order.getCustomer() != null ? destinationZone(order.getCustomer()) : null;
+        return price(destination, weight, volume, carrier != null ? carrier.getId() : null,
+                carrier != null ? valueOrZero(carrier.getSurchargeRate()) : 0,
+                carrier != null ? valueOrZero(carrier.getSurchargeAmount()) : 0);
+    }
+
+    /**
+     * Price many carts at once. Products and customers are loaded with one query each;
+     * a cart that cannot be priced gets a quote with its error set instead of failing the batch.
+     * @param requests The carts to price
+     * @return One quote per cart, in request order
+     */
+    public List<QuoteDTO> quote(List<QuoteRequestDTO> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new RuntimeException("At most " + maxBatchSize + " carts can be quoted per call");
+        }
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> customerIds = new HashSet<>();
+        for (QuoteRequestDTO request : requests) {
+            if (request.getLines() != null) {
+                request.getLines().forEach(line -> productIds.add(line.getProductId()));
+            }
+            if (request.getAddress() == null && request.getCustomerId() != null) {
+                customerIds.add(request.getCustomerId());
+            }
+        }
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, Customer> customers = customerRepository.findAllById(customerIds).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Map<Long, String> customerZones = new HashMap<>();
+        CarrierSurcharges surcharges = carrierSurcharges();
+
+        List<QuoteDTO> quotes = new ArrayList<>(requests.size());
+        for (QuoteRequestDTO request : requests) {
+            try {
+                quotes.add(quoteCart(request, products, customers, customerZones, surcharges));
+            } catch (RuntimeException e) {
+                quotes.add(QuoteDTO.builder().carrierId(request.getCarrierId()).error(e.getMessage()).build());
+            }
+        }
+        return quotes;
+    }
+
+    /**
+     * Reload carrier surcharges after carriers were created, changed or deleted
+     */
+    public void reloadCarrierSurcharges() {
+        carrierSurcharges = CarrierSurcharges.of(carrierRepository.findAll());
+    }
+
+    @Scheduled(fixedDelayString = "${quote.carrier-refresh-interval-ms:300000}", initialDelay = 5000)
+    public void refreshCarrierSurcharges() {
+        try {
+            reloadCarrierSurcharges();
+        } catch (RuntimeException e) {
+            log.warn("Reloading carrier surcharges failed: {}", e.getMessage());
+        }
+    }
+
+    private QuoteDTO quoteCart(QuoteRequestDTO request, Map<Long, Product> products, Map<Long, Customer> customers,
+                               Map<Long, String> customerZones, CarrierSurcharges surcharges) {
+        double weight = 0;
+        double volume = 0;
+        if (request.getLines() != null) {
+            for (QuoteLineDTO line : request.getLines()) {
+                Product product = products.get(line.getProductId());
+                if (product == null) {
+                    throw new RuntimeException("Product not found: " + line.getProductId());
+                }
+                int quantity = line.getQuantity() != null ? line.getQuantity() : 1;
+                if (quantity <= 0) {
+                    throw new RuntimeException("Quantity must be greater than 0");
+                }
+                weight += weightOf(product) * quantity;
+                volume += volumeOf(product) * quantity;
+            }
+        }
+
+        String destination;
+        if (request.getAddress() != null) {
+            destination = gazetteer.resolveGovernorate(request.getAddress()).orElse(null);
+        } else {
+            Customer customer = customers.get(request.getCustomerId());
+            if (customer == null) {
+                throw new RuntimeException("Customer not found: " + request.getCustomerId());
+            }
+            destination = customerZones.computeIfAbsent(customer.getId(), id -> destinationZone(customer));
+        }
+
+        double surchargeRate = 0;
+        double surchargeAmount = 0;
+        if (request.getCarrierId() != null) {
+            int index = surcharges.indexOf(request.getCarrierId());
+            if (index < 0) {
+                throw new RuntimeException("Carrier not found: " + request.getCarrierId());
+            }
+            surchargeRate = surcharges.rates[index];
+            surchargeAmount = surcharges.amounts[index];
+        }
+        return price(destination, weight, volume, request.getCarrierId(), surchargeRate, surchargeAmount);
+    }
+
+    private QuoteDTO price(String destinationZone, double weight, double volume,
+                           Long carrierId, double surchargeRate, double surchargeAmount) {
+        int destination = rateCard.zone(destinationZone);
+        if (destination < 0) {
+            return QuoteDTO.builder()
+                    .originZone(originZone)
+                    .carrierId(carrierId)
+                    .error("Delivery address could not be located")
+                    .build();
+        }
+        double baseRate = rateCard.baseRate(origin, destination);
+        double weightSurcharge = rateCard.weightSurcharge(weight);
+        double sizeSurcharge = rateCard.sizeSurcharge(volume);
+        double subtotal = baseRate + weightSurcharge + sizeSurcharge;
+        double carrierSurcharge = subtotal * surchargeRate + surchargeAmount;
+        return QuoteDTO.builder()
+                .originZone(originZone)
+                .destinationZone(destinationZone)
+                .carrierId(carrierId)
+                .weightKg(round(weight))
+                .volumeLiters(round(volume))
+                .baseRate(baseRate)
+                .weightSurcharge(weightSurcharge)
+                .sizeSurcharge(sizeSurcharge)
+                .carrierSurcharge(round(carrierSurcharge))
+                .cost(round(subtotal + carrierSurcharge))
+                .build();
+    }
+
+    private String destinationZone(Customer customer) {
+        return gazetteer.resolveGovernorate(customer.getAddress()).orElseGet(() ->
+                customer.getLatitude() != null && customer.getLongitude() != null
+                        ? gazetteer.nearestGovernorate(new GeoPoint(customer.getLatitude(), customer.getLongitude()))
+                        : null);
+    }
+
+    private CarrierSurcharges carrierSurcharges() {
+        CarrierSurcharges surcharges = carrierSurcharges;
+        if (surcharges == null) {
+            reloadCarrierSurcharges();
+            surcharges = carrierSurcharges;
+        }
+        return surcharges;
+    }
+
+    private double weightOf(Product product) {
+        return product != null && product.getWeight() != null ? product.getWeight() : defaultWeightKg;
+    }
+
+    private double volumeOf(Product product) {
+        return product != null && product.getVolume() != null ? product.getVolume() : defaultVolumeLiters;
+    }
+
+    private static double valueOrZero(Double value) {
+        return value != null ? value : 0;
+    }
+
+    // Amounts are kept to the millime
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static final class CarrierSurcharges {
+        private final long[] ids;
+        private final double[] rates;
+        private final double[] amounts;
+
+        private CarrierSurcharges(long[] ids, double[] rates, double[] amounts) {
+            this.ids = ids;
+            this.rates = rates;
+            this.amounts = amounts;
+        }
+
+        static CarrierSurcharges of(List<Carrier> carriers) {
+            List<Carrier> sorted = new ArrayList<>(carriers);
+            sorted.sort(Comparator.comparing(Carrier::getId));
+            long[] ids = new long[sorted.size()];
+            double[] rates = new double[sorted.size()];
+            double[] amounts = new double[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                ids[i] = sorted.get(i).getId();
+                rates[i] = valueOrZero(sorted.get(i).getSurchargeRate());
+                amounts[i] = valueOrZero(sorted.get(i).getSurchargeAmount());
+            }
+            return new CarrierSurcharges(ids, rates, amounts);
+        }
+
+        int indexOf(long carrierId) {
+            int index = Arrays.binarySearch(ids, carrierId);
+            return index >= 0 ? index : -1;
+        }
+    }
+}
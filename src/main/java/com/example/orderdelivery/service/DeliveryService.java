@@ -1,18 +1,33 @@
 package com.example.orderdelivery.service;
 
+import com.example.orderdelivery.config.RetryOnOptimisticLock;
 import com.example.orderdelivery.entity.Delivery;
+import com.example.orderdelivery.entity.DeliveryStatus;
+import com.example.orderdelivery.exception.StaleVersionException;
 import com.example.orderdelivery.repository.DeliveryRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class DeliveryService {
     private final DeliveryRepository deliveryRepository;
+    private final StatusCounterService statusCounterService;
+    private final ChangeLogService changeLogService;
+    private final CarrierPingService carrierPingService;
+    private final DeliverySlotService deliverySlotService;
 
-    public DeliveryService(DeliveryRepository deliveryRepository) {
+    public DeliveryService(DeliveryRepository deliveryRepository, StatusCounterService statusCounterService,
+                           ChangeLogService changeLogService, CarrierPingService carrierPingService,
+                           DeliverySlotService deliverySlotService) {
         this.deliveryRepository = deliveryRepository;
+        this.statusCounterService = statusCounterService;
+        this.changeLogService = changeLogService;
+        this.carrierPingService = carrierPingService;
+        this.deliverySlotService = deliverySlotService;
     }
 
     public List<Delivery> getAllDeliveries() {
@@ -23,11 +38,67 @@ public class DeliveryService {
         return deliveryRepository.findById(id);
     }
 
+    @Transactional
     public Delivery saveDelivery(Delivery delivery) {
-        return deliveryRepository.save(delivery);
+        boolean created = delivery.getId() == null;
+        Delivery saved = deliveryRepository.save(delivery);
+        if (created) {
+            statusCounterService.deliveryStatusChanged(null, saved.getStatus());
+        } else {
+            statusCounterService.markStale();
+            carrierPingService.deliveryChanged(saved.getId());
+        }
+        changeLogService.record(ChangeEntityType.DELIVERY, saved.getId(),
+                created ? ChangeOperation.CREATED : ChangeOperation.UPDATED);
+        return saved;
     }
 
+    /**
+     * Copies editable fields onto the stored delivery, provided the client edited its current
+     * version; a write that races in after the check is retried against it. The carrier and status
+     * hold delivery slots and counters, so they only change through the tracking endpoints; a
+     * new date moves the slot reservation.
+     * @param expectedVersion The version the client's copy was read at
+     * @throws StaleVersionException If the delivery has changed since
+     */
+    @RetryOnOptimisticLock
+    @Transactional
+    public Optional<Delivery> updateDelivery(Long id, Delivery delivery, Long expectedVersion) {
+        return deliveryRepository.findById(id).map(existingDelivery -> {
+            StaleVersionException.check("Delivery", id, expectedVersion, existingDelivery.getVersion());
+            Long carrierId = existingDelivery.getCarrier() != null ? existingDelivery.getCarrier().getId() : null;
+            Long newCarrierId = delivery.getCarrier() != null ? delivery.getCarrier().getId() : null;
+            if (!Objects.equals(carrierId, newCarrierId)) {
+                throw new RuntimeException("Assign the carrier through PUT /api/tracking/deliveries/{id}/assign");
+            }
+            if (delivery.getStatus() != null && delivery.getStatus() != existingDelivery.getStatus()) {
+                throw new RuntimeException("Change the status through PUT /api/tracking/deliveries/{id}/status");
+            }
+            if (!Objects.equals(delivery.getDeliveryDate(), existingDelivery.getDeliveryDate())) {
+                if (delivery.getDeliveryDate() == null) {
+                    throw new RuntimeException("Delivery date is required");
+                }
+                if (existingDelivery.getStatus() != DeliveryStatus.PENDING
+                        && existingDelivery.getStatus() != DeliveryStatus.ASSIGNED) {
+                    throw new RuntimeException("Delivery date cannot change after pickup");
+                }
+                deliverySlotService.move(existingDelivery, delivery.getDeliveryDate());
+                existingDelivery.setDeliveryDate(delivery.getDeliveryDate());
+            }
+            existingDelivery.setCost(delivery.getCost());
+            changeLogService.record(ChangeEntityType.DELIVERY, id, ChangeOperation.UPDATED);
+            carrierPingService.deliveryChanged(id);
+            return deliveryRepository.save(existingDelivery);
+        });
+    }
+
+    @Transactional
     public void deleteDelivery(Long id) {
-        deliveryRepository.deleteById(id);
+        deliveryRepository.findById(id).ifPresent(delivery -> {
+            deliveryRepository.delete(delivery);
+            statusCounterService.deliveryStatusChanged(delivery.getStatus(), null);
+            changeLogService.record(ChangeEntityType.DELIVERY, id, ChangeOperation.DELETED);
+            carrierPingService.deliveryChanged(id);
+        });
     }
 } 
\ No newline at end of file
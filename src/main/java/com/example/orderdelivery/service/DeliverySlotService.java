@@ -0,0 +1,563 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.dto.SlotDTO;
+import com.example.orderdelivery.entity.Carrier;
+import com.example.orderdelivery.entity.CarrierSlot;
+import com.example.orderdelivery.entity.Delivery;
+import com.example.orderdelivery.entity.DeliveryWindow;
+import com.example.orderdelivery.exception.ResourceNotFoundException;
+import com.example.orderdelivery.exception.SlotUnavailableException;
+import com.example.orderdelivery.repository.CarrierRepository;
+import com.example.orderdelivery.repository.CarrierSlotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivery capacity per carrier, day and time window.
+ * Live counters are kept in memory, indexed by (day, window) and then by carrier, so reserving
+ * or releasing a slot only locks that slot and the next-available query only walks (day, window)
+ * buckets until one with free capacity is found; the per-bucket free counts are only used to
+ * skip full buckets, the carrier slots themselves stay authoritative. Changed slots are flushed to carrier_slot in
+ * one batched upsert every slots.flush-interval-ms. Reservations are written as relative changes
+ * (reserved = reserved + n), so nodes never overwrite each other's counts, and every
+ * slots.sync-interval-ms each node reads the table back to pick up the other nodes' reservations.
+ * Between two syncs two nodes can both take the last place of a slot; run a single assigning
+ * node where capacity must never be exceeded.
+ */
+@Service
+public class DeliverySlotService {
+    private static final Logger log = LoggerFactory.getLogger(DeliverySlotService.class);
+    private static final DeliveryWindow[] WINDOWS = DeliveryWindow.values();
+
+    private final CarrierSlotRepository carrierSlotRepository;
+    private final CarrierRepository carrierRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int defaultCapacity;
+    private final int horizonDays;
+
+    private final Map<WindowKey, Map<Long, Slot>> slotsByWindow = new ConcurrentHashMap<>();
+    private final Map<WindowKey, AtomicInteger> freeByWindow = new ConcurrentHashMap<>();
+    private final Set<Slot> dirtySlots = ConcurrentHashMap.newKeySet();
+    // Keeps a sync from reading the table while a flush has taken changes it has not written yet
+    private final Object flushLock = new Object();
+    private volatile boolean loaded;
+
+    public DeliverySlotService(
+            CarrierSlotRepository carrierSlotRepository,
+            CarrierRepository carrierRepository,
+            JdbcTemplate jdbcTemplate,
+            @Value("${slots.default-capacity:10}") int defaultCapacity,
+            @Value("${slots.horizon-days:14}") int horizonDays) {
+        this.carrierSlotRepository = carrierSlotRepository;
+        this.carrierRepository = carrierRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultCapacity = defaultCapacity;
+        this.horizonDays = horizonDays;
+    }
+
+    /**
+     * Reserve one delivery in a specific slot
+     * @param carrierId The carrier ID
+     * @param date The delivery day
+     * @param window The time window
+     * @return true if the slot is within the horizon, had free capacity and has not ended yet
+     */
+    public boolean reserve(Long carrierId, LocalDate date, DeliveryWindow window) {
+        if (!inHorizon(date) || isPast(date, window)) {
+            return false;
+        }
+        ensureLoaded();
+        Slot slot = slot(carrierId, date, window);
+        if (!slot.tryReserve()) {
+            return false;
+        }
+        free(slot).decrementAndGet();
+        dirtySlots.add(slot);
+        releaseOnRollback(slot);
+        return true;
+    }
+
+    /**
+     * Reserve the earliest free slot of a carrier, starting from the given day
+     * @param carrierId The carrier ID
+     * @param from The earliest acceptable day
+     * @return The reserved slot, or empty if the carrier is full for the rest of the horizon
+     */
+    public Optional<SlotDTO> reserveNextAvailable(Long carrierId, LocalDate from) {
+        LocalDate start = earliest(from);
+        for (LocalDate date = start; inHorizon(date); date = date.plusDays(1)) {
+            for (DeliveryWindow window : WINDOWS) {
+                if (reserve(carrierId, date, window)) {
+                    return Optional.of(toDto(slot(carrierId, date, window)));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Check whether a carrier has any free slot within the horizon, starting from the given day
+     * @param carrierId The carrier ID
+     * @param from The earliest acceptable day
+     * @return true if at least one slot can still be reserved
+     */
+    public boolean hasFreeSlot(Long carrierId, LocalDate from) {
+        ensureLoaded();
+        LocalDate start = earliest(from);
+        for (LocalDate date = start; inHorizon(date); date = date.plusDays(1)) {
+            for (DeliveryWindow window : WINDOWS) {
+                if (isPast(date, window)) {
+                    continue;
+                }
+                Slot slot = peek(carrierId, date, window);
+                if (slot != null ? slot.remaining() > 0 : defaultCapacity > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Give back the slot held by a delivery. Inside a transaction the release happens after commit.
+     * @param delivery The delivery whose slot is freed
+     */
+    public void release(Delivery delivery) {
+        if (delivery.getCarrier() == null || delivery.getDeliveryDate() == null || delivery.getTimeWindow() == null) {
+            return;
+        }
+        Long carrierId = delivery.getCarrier().getId();
+        LocalDate date = delivery.getDeliveryDate();
+        DeliveryWindow window = delivery.getTimeWindow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(carrierId, date, window);
+                }
+            });
+        } else {
+            release(carrierId, date, window);
+        }
+    }
+
+    /**
+     * Move a delivery's reservation to another day in the same window. The new slot is taken now;
+     * the old one is given back after commit. A delivery without a carrier holds no slot.
+     * @param delivery The delivery, still with its current date
+     * @param date The new delivery day
+     * @throws SlotUnavailableException if the carrier has no free capacity in that slot
+     */
+    public void move(Delivery delivery, LocalDate date) {
+        if (delivery.getCarrier() == null || delivery.getTimeWindow() == null) {
+            return;
+        }
+        if (!reserve(delivery.getCarrier().getId(), date, delivery.getTimeWindow())) {
+            throw new SlotUnavailableException("Carrier has no free " + delivery.getTimeWindow() + " slot on " + date);
+        }
+        release(delivery);
+    }
+
+    /**
+     * Find the earliest slot with free capacity across all carriers
+     * @param from The earliest acceptable day
+     * @return The first free slot, or empty if every carrier is full over the horizon
+     */
+    public Optional<SlotDTO> findNextAvailable(LocalDate from) {
+        ensureLoaded();
+        LocalDate start = earliest(from);
+        for (LocalDate date = start; date.isBefore(start.plusDays(horizonDays)); date = date.plusDays(1)) {
+            for (DeliveryWindow window : WINDOWS) {
+                WindowKey key = new WindowKey(date, window);
+                AtomicInteger free = freeByWindow.get(key);
+                if (isPast(date, window) || free == null || free.get() <= 0) {
+                    continue;
+                }
+                Optional<Slot> slot = slotsByWindow.getOrDefault(key, Map.of()).values().stream()
+                        .filter(candidate -> candidate.remaining() > 0)
+                        .max(Comparator.comparingInt(Slot::remaining));
+                if (slot.isPresent()) {
+                    return slot.map(this::toDto);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Get all slots of a carrier on one day; slots not created yet are shown with the default
+     * capacity and nothing is stored
+     * @param carrierId The carrier ID
+     * @param date The day, within the horizon
+     * @return One entry per time window
+     */
+    public List<SlotDTO> getCarrierSlots(Long carrierId, LocalDate date) {
+        checkCarrierAndDate(carrierId, date);
+        ensureLoaded();
+        List<SlotDTO> slots = new ArrayList<>(WINDOWS.length);
+        for (DeliveryWindow window : WINDOWS) {
+            Slot slot = peek(carrierId, date, window);
+            slots.add(toDto(slot != null ? slot : new Slot(carrierId, date, window, defaultCapacity, 0)));
+        }
+        return slots;
+    }
+
+    /**
+     * Change the capacity of one slot; existing reservations are kept even if above the new capacity
+     * @param carrierId The carrier ID
+     * @param date The day, within the horizon
+     * @param window The time window
+     * @param capacity The new capacity
+     * @return The updated slot
+     */
+    public SlotDTO updateCapacity(Long carrierId, LocalDate date, DeliveryWindow window, int capacity) {
+        if (capacity < 0) {
+            throw new RuntimeException("Capacity cannot be negative");
+        }
+        checkCarrierAndDate(carrierId, date);
+        ensureLoaded();
+        Slot slot = slot(carrierId, date, window);
+        free(slot).addAndGet(slot.setCapacity(capacity));
+        dirtySlots.add(slot);
+        return toDto(slot);
+    }
+
+    /**
+     * Create default slots for new carriers and new days, and drop days that have passed
+     */
+    @Scheduled(fixedDelayString = "${slots.refresh-interval-ms:60000}", initialDelay = 5000)
+    public void refresh() {
+        try {
+            ensureLoaded();
+            LocalDate today = LocalDate.now();
+            for (Carrier carrier : carrierRepository.findAll()) {
+                for (int day = 0; day < horizonDays; day++) {
+                    for (DeliveryWindow window : WINDOWS) {
+                        slot(carrier.getId(), today.plusDays(day), window);
+                    }
+                }
+            }
+            slotsByWindow.keySet().removeIf(key -> key.date().isBefore(today));
+            freeByWindow.keySet().removeIf(key -> key.date().isBefore(today));
+        } catch (RuntimeException e) {
+            log.warn("Delivery slot refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Read carrier_slot back so reservations made on other nodes count here too. Changes of this
+     * node that are not flushed yet are kept on top of the stored counts.
+     */
+    @Scheduled(fixedDelayString = "${slots.sync-interval-ms:5000}", initialDelay = 5000)
+    public void sync() {
+        if (!loaded) {
+            return;
+        }
+        try {
+            synchronized (flushLock) {
+                for (CarrierSlot row : carrierSlotRepository.findBySlotDateGreaterThanEqual(LocalDate.now())) {
+                    Slot slot = peek(row.getCarrierId(), row.getSlotDate(), row.getTimeWindow());
+                    if (slot == null) {
+                        load(row);
+                    } else {
+                        free(slot).addAndGet(slot.sync(row.getCapacity(), row.getReserved()));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Delivery slot sync failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${slots.flush-interval-ms:2000}", initialDelay = 5000)
+    public void flush() {
+        if (dirtySlots.isEmpty()) {
+            return;
+        }
+        synchronized (flushLock) {
+            List<Slot> batch = new ArrayList<>(dirtySlots);
+            dirtySlots.removeAll(batch);
+            List<SlotChange> changes = new ArrayList<>(batch.size());
+            for (Slot slot : batch) {
+                changes.add(slot.takeChange());
+            }
+            try {
+                write(changes);
+            } catch (DataIntegrityViolationException e) {
+                // One row that can never be stored (e.g. its carrier was deleted) fails the whole
+                // batch; write the rows one by one and drop the ones the database rejects
+                for (SlotChange change : changes) {
+                    try {
+                        write(List.of(change));
+                    } catch (DataIntegrityViolationException rejected) {
+                        drop(change.slot());
+                        log.warn("Dropped delivery slot of carrier {} on {} {}: {}", change.slot().carrierId,
+                                change.slot().date, change.slot().window, rejected.getMessage());
+                    } catch (RuntimeException retry) {
+                        restore(change);
+                    }
+                }
+            } catch (RuntimeException e) {
+                changes.forEach(this::restore);
+                log.warn("Flushing {} delivery slots failed: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void write(List<SlotChange> changes) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO carrier_slot (carrier_id, slot_date, time_window, capacity, reserved) " +
+                        "VALUES (?, ?, ?, ?, GREATEST(?, 0)) " +
+                        "ON DUPLICATE KEY UPDATE capacity = IF(?, ?, capacity), reserved = GREATEST(reserved + ?, 0)",
+                changes, changes.size(), (statement, change) -> {
+                    statement.setLong(1, change.slot().carrierId);
+                    statement.setDate(2, Date.valueOf(change.slot().date));
+                    statement.setString(3, change.slot().window.name());
+                    statement.setInt(4, change.capacity());
+                    statement.setInt(5, change.reservedDelta());
+                    statement.setBoolean(6, change.capacityChanged());
+                    statement.setInt(7, change.capacity());
+                    statement.setInt(8, change.reservedDelta());
+                });
+    }
+
+    private void restore(SlotChange change) {
+        change.slot().restore(change);
+        dirtySlots.add(change.slot());
+    }
+
+    private void drop(Slot slot) {
+        WindowKey key = new WindowKey(slot.date, slot.window);
+        Map<Long, Slot> slots = slotsByWindow.get(key);
+        if (slots != null && slots.remove(slot.carrierId, slot)) {
+            free(slot).addAndGet(-slot.remaining());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            List<CarrierSlot> rows = carrierSlotRepository.findBySlotDateGreaterThanEqual(LocalDate.now());
+            rows.forEach(this::load);
+            loaded = true;
+            log.info("Loaded {} delivery slots", rows.size());
+        }
+    }
+
+    private void load(CarrierSlot row) {
+        WindowKey key = new WindowKey(row.getSlotDate(), row.getTimeWindow());
+        Slot slot = new Slot(row.getCarrierId(), row.getSlotDate(), row.getTimeWindow(),
+                row.getCapacity(), row.getReserved());
+        if (slotsByWindow.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).putIfAbsent(slot.carrierId, slot) == null) {
+            freeByWindow.computeIfAbsent(key, k -> new AtomicInteger()).addAndGet(slot.remaining());
+        }
+    }
+
+    /**
+     * @return The slot if it exists, without creating it
+     */
+    private Slot peek(Long carrierId, LocalDate date, DeliveryWindow window) {
+        Map<Long, Slot> slots = slotsByWindow.get(new WindowKey(date, window));
+        return slots != null ? slots.get(carrierId) : null;
+    }
+
+    private Slot slot(Long carrierId, LocalDate date, DeliveryWindow window) {
+        WindowKey key = new WindowKey(date, window);
+        return slotsByWindow.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(carrierId, id -> {
+                    Slot slot = new Slot(id, date, window, defaultCapacity, 0);
+                    freeByWindow.computeIfAbsent(key, k -> new AtomicInteger()).addAndGet(defaultCapacity);
+                    dirtySlots.add(slot);
+                    return slot;
+                });
+    }
+
+    private void release(Long carrierId, LocalDate date, DeliveryWindow window) {
+        ensureLoaded();
+        Slot slot = peek(carrierId, date, window);
+        if (slot == null) {
+            // Never reserved here, or its day has passed and been dropped
+            return;
+        }
+        int before = slot.remaining();
+        if (slot.tryRelease()) {
+            free(slot).addAndGet(slot.remaining() - before);
+            dirtySlots.add(slot);
+        }
+    }
+
+    private void releaseOnRollback(Slot slot) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(slot.carrierId, slot.date, slot.window);
+                }
+            }
+        });
+    }
+
+    private AtomicInteger free(Slot slot) {
+        return freeByWindow.computeIfAbsent(new WindowKey(slot.date, slot.window), k -> new AtomicInteger());
+    }
+
+    private LocalDate earliest(LocalDate from) {
+        LocalDate today = LocalDate.now();
+        return from == null || from.isBefore(today) ? today : from;
+    }
+
+    private boolean inHorizon(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        return !date.isBefore(today) && date.isBefore(today.plusDays(horizonDays));
+    }
+
+    private void checkCarrierAndDate(Long carrierId, LocalDate date) {
+        if (!inHorizon(date)) {
+            throw new RuntimeException("Date must be within the next " + horizonDays + " days");
+        }
+        // Served from the second-level cache
+        if (carrierRepository.findById(carrierId).isEmpty()) {
+            throw new ResourceNotFoundException("Carrier not found");
+        }
+    }
+
+    private boolean isPast(LocalDate date, DeliveryWindow window) {
+        LocalDateTime now = LocalDateTime.now();
+        return date.atTime(window.getEnd()).isBefore(now);
+    }
+
+    private SlotDTO toDto(Slot slot) {
+        return SlotDTO.builder()
+                .carrierId(slot.carrierId)
+                .date(slot.date)
+                .window(slot.window)
+                .capacity(slot.capacity())
+                .reserved(slot.reserved())
+                .remaining(slot.remaining())
+                .build();
+    }
+
+    private record WindowKey(LocalDate date, DeliveryWindow window) {
+    }
+
+    /**
+     * What a flush writes for one slot: its capacity if it was changed here, and the reservations
+     * taken (positive) or given back (negative) since the previous flush
+     */
+    private record SlotChange(Slot slot, int capacity, boolean capacityChanged, int reservedDelta) {
+    }
+
+    private static final class Slot {
+        private final long carrierId;
+        private final LocalDate date;
+        private final DeliveryWindow window;
+        private int capacity;
+        private int reserved;
+        private int unflushedReserved;
+        private boolean capacityChanged;
+
+        private Slot(long carrierId, LocalDate date, DeliveryWindow window, int capacity, int reserved) {
+            this.carrierId = carrierId;
+            this.date = date;
+            this.window = window;
+            this.capacity = capacity;
+            this.reserved = reserved;
+        }
+
+        private synchronized boolean tryReserve() {
+            if (reserved >= capacity) {
+                return false;
+            }
+            reserved++;
+            unflushedReserved++;
+            return true;
+        }
+
+        private synchronized boolean tryRelease() {
+            if (reserved <= 0) {
+                return false;
+            }
+            reserved--;
+            unflushedReserved--;
+            return true;
+        }
+
+        /**
+         * @return The change in remaining capacity
+         */
+        private synchronized int setCapacity(int capacity) {
+            int before = remaining();
+            this.capacity = capacity;
+            capacityChanged = true;
+            return remaining() - before;
+        }
+
+        /**
+         * Take the stored counts, keeping the changes made here that are not flushed yet
+         * @return The change in remaining capacity
+         */
+        private synchronized int sync(int storedCapacity, int storedReserved) {
+            int before = remaining();
+            if (!capacityChanged) {
+                capacity = storedCapacity;
+            }
+            reserved = Math.max(0, storedReserved + unflushedReserved);
+            return remaining() - before;
+        }
+
+        private synchronized SlotChange takeChange() {
+            SlotChange change = new SlotChange(this, capacity, capacityChanged, unflushedReserved);
+            capacityChanged = false;
+            unflushedReserved = 0;
+            return change;
+        }
+
+        /**
+         * Put back a change whose write failed
+         */
+        private synchronized void restore(SlotChange change) {
+            capacityChanged |= change.capacityChanged();
+            unflushedReserved += change.reservedDelta();
+        }
+
+        private synchronized int capacity() {
+            return capacity;
+        }
+
+        private synchronized int reserved() {
+            return reserved;
+        }
+
+        private synchronized int remaining() {
+            return Math.max(0, capacity - reserved);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.dto.DemandForecastDTO;
+import com.example.orderdelivery.dto.ReorderSuggestionDTO;
+import com.example.orderdelivery.entity.Order;
+import com.example.orderdelivery.entity.OrderLine;
+import com.example.orderdelivery.entity.OrderStatus;
+import com.example.orderdelivery.entity.Product;
+import com.example.orderdelivery.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Per-product demand forecasts and reorder suggestions.
+ * Each product has a {@link DemandState} that OrderService updates in O(1) when an order is
+ * created (adds demand) or cancelled (removes it), after the transaction commits. The states
+ * are rebuilt from the last forecast.history-days of order lines shortly after startup and
+ * then daily: products are replayed in parallel on the fork-join pool. Changes that commit
+ * while a rebuild runs are buffered and replayed onto the new states before they go live.
+ */
+@Service
+public class DemandForecastService {
+    private static final Logger log = LoggerFactory.getLogger(DemandForecastService.class);
+    // Products replayed per fork-join leaf task
+    private static final int REPLAY_CHUNK = 256;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final double alpha;
+    private final double gamma;
+    private final int historyDays;
+    private final int leadTimeDays;
+    private final int reviewPeriodDays;
+    private final double serviceLevelZ;
+
+    private volatile Map<Long, DemandState> states = new ConcurrentHashMap<>();
+    private volatile Queue<long[]> rebuildBuffer;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    public DemandForecastService(
+            JdbcTemplate jdbcTemplate,
+            ProductRepository productRepository,
+            @Value("${forecast.alpha:0.3}") double alpha,
+            @Value("${forecast.seasonal-gamma:0.2}") double gamma,
+            @Value("${forecast.history-days:180}") int historyDays,
+            @Value("${forecast.lead-time-days:7}") int leadTimeDays,
+            @Value("${forecast.review-period-days:7}") int reviewPeriodDays,
+            @Value("${forecast.service-level-z:1.65}") double serviceLevelZ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepository = productRepository;
+        this.alpha = alpha;
+        this.gamma = gamma;
+        this.historyDays = historyDays;
+        this.leadTimeDays = leadTimeDays;
+        this.reviewPeriodDays = reviewPeriodDays;
+        this.serviceLevelZ = serviceLevelZ;
+    }
+
+    /**
+     * Record the demand of a newly placed order once its transaction commits
+     * @param order The order, with its date and lines set
+     */
+    public void orderPlaced(Order order) {
+        record(order, 1);
+    }
+
+    /**
+     * Remove the demand of a cancelled order once its transaction commits
+     * @param order The order, with its date and lines set
+     */
+    public void orderCancelled(Order order) {
+        record(order, -1);
+    }
+
+    /**
+     * Forecast a product's daily demand
+     * @param productId The product ID
+     * @param days The number of days from today
+     * @return Expected demand per day
+     */
+    public DemandForecastDTO getForecast(Long productId, int days) {
+        LocalDate today = LocalDate.now();
+        DemandState state = states.get(productId);
+        double[] daily = state != null ? state.forecast(today.toEpochDay(), days) : new double[days];
+        Map<LocalDate, Double> byDate = new LinkedHashMap<>();
+        for (int i = 0; i < days; i++) {
+            byDate.put(today.plusDays(i), daily[i]);
+        }
+        return DemandForecastDTO.builder()
+                .productId(productId)
+                .observedDays(state != null ? state.getObservedDays() : 0)
+                .daily(byDate)
+                .build();
+    }
+
+    /**
+     * Suggest reorder quantities for every product. A product should be reordered when its stock
+     * is at or below the forecast demand over the lead time plus safety stock; the suggestion
+     * then tops it up to cover the lead time and the following review period.
+     * @return One suggestion per product, those to reorder first
+     */
+    public List<ReorderSuggestionDTO> getReorderSuggestions() {
+        long today = LocalDate.now().toEpochDay();
+        int horizon = leadTimeDays + reviewPeriodDays;
+        List<ReorderSuggestionDTO> suggestions = new ArrayList<>();
+        for (Product product : productRepository.findAll()) {
+            DemandState state = states.get(product.getId());
+            double[] daily = state != null ? state.forecast(today, horizon) : new double[horizon];
+            double leadTimeDemand = Arrays.stream(daily, 0, leadTimeDays).sum();
+            double horizonDemand = Arrays.stream(daily).sum();
+            double safetyStock = state != null
+                    ? serviceLevelZ * state.errorStdDev() * Math.sqrt(leadTimeDays) : 0;
+            int stock = product.getStock() != null ? product.getStock() : 0;
+            int reorderPoint = (int) Math.ceil(leadTimeDemand + safetyStock);
+            int targetStock = (int) Math.ceil(horizonDemand + safetyStock);
+            suggestions.add(ReorderSuggestionDTO.builder()
+                    .productId(product.getId())
+                    .productName(product.getName())
+                    .stock(stock)
+                    .forecastDailyDemand(horizon > 0 ? horizonDemand / horizon : 0)
+                    .leadTimeDemand(leadTimeDemand)
+                    .safetyStock(safetyStock)
+                    .reorderPoint(reorderPoint)
+                    .targetStock(targetStock)
+                    .suggestedQuantity(stock <= reorderPoint ? Math.max(0, targetStock - stock) : 0)
+                    .observedDays(state != null ? state.getObservedDays() : 0)
+                    .build());
+        }
+        suggestions.sort((a, b) -> Integer.compare(b.getSuggestedQuantity(), a.getSuggestedQuantity()));
+        return suggestions;
+    }
+
+    @Scheduled(fixedDelayString = "${forecast.rebuild-interval-ms:86400000}", initialDelay = 5000)
+    public void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            int products = rebuildStates();
+            log.info("Rebuilt demand forecasts for {} products in {} ms", products, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("Demand forecast rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    private int rebuildStates() {
+        Queue<long[]> buffer = new ConcurrentLinkedQueue<>();
+        rebuildLock.writeLock().lock();
+        try {
+            rebuildBuffer = buffer;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+
+        Map<Long, DemandState> rebuilt = new ConcurrentHashMap<>();
+        try {
+            Map<Long, DailySeries> history = loadHistory(LocalDate.now().minusDays(historyDays));
+            Long[] productIds = history.keySet().toArray(new Long[0]);
+            ForkJoinPool.commonPool().invoke(new ReplayTask(productIds, 0, productIds.length, history, rebuilt));
+        } catch (RuntimeException e) {
+            rebuildBuffer = null;
+            throw e;
+        }
+
+        rebuildLock.writeLock().lock();
+        try {
+            for (long[] event : buffer) {
+                stateFor(rebuilt, event[0]).add(event[1], event[2]);
+            }
+            states = rebuilt;
+            rebuildBuffer = null;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        return rebuilt.size();
+    }
+
+    private Map<Long, DailySeries> loadHistory(LocalDate from) {
+        Map<Long, DailySeries> history = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT ol.product_id, o.date, SUM(ol.quantity) AS quantity " +
+                        "FROM order_line ol JOIN orders o ON o.id = ol.order_id " +
+                        "WHERE o.date >= ? AND o.status <> ? AND ol.product_id IS NOT NULL " +
+                        "GROUP BY ol.product_id, o.date",
+                rs -> {
+                    history.computeIfAbsent(rs.getLong("product_id"), id -> new DailySeries())
+                            .add(rs.getDate("date").toLocalDate().toEpochDay(), rs.getLong("quantity"));
+                },
+                Date.valueOf(from), OrderStatus.CANCELLED.name());
+        return history;
+    }
+
+    private void record(Order order, int sign) {
+        if (order.getDate() == null || order.getOrderLines() == null) {
+            return;
+        }
+        long day = order.getDate().toEpochDay();
+        Map<Long, Long> quantities = order.getOrderLines().stream()
+                .filter(line -> line.getProduct() != null && line.getProduct().getId() != null && line.getQuantity() != null)
+                .collect(Collectors.groupingBy(line -> line.getProduct().getId(),
+                        Collectors.summingLong(OrderLine::getQuantity)));
+        Runnable apply = () -> quantities.forEach((productId, quantity) -> apply(productId, day, sign * quantity));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private void apply(long productId, long day, long quantity) {
+        rebuildLock.readLock().lock();
+        try {
+            Queue<long[]> buffer = rebuildBuffer;
+            if (buffer != null) {
+                buffer.add(new long[]{productId, day, quantity});
+            }
+            stateFor(states, productId).add(day, quantity);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private DemandState stateFor(Map<Long, DemandState> target, long productId) {
+        return target.computeIfAbsent(productId, id -> new DemandState(alpha, gamma));
+    }
+
+    /**
+     * Daily demand of one product in date order, as returned by the history query
+     */
+    private static final class DailySeries {
+        private long[] days = new long[16];
+        private long[] quantities = new long[16];
+        private int size;
+
+        void add(long day, long quantity) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                quantities = Arrays.copyOf(quantities, size * 2);
+            }
+            days[size] = day;
+            quantities[size] = quantity;
+            size++;
+        }
+
+        void replayInto(DemandState state, long today) {
+            // GROUP BY gives no order guarantee; series are short, so sort here
+            long[][] pairs = new long[size][];
+            for (int i = 0; i < size; i++) {
+                pairs[i] = new long[]{days[i], quantities[i]};
+            }
+            Arrays.sort(pairs, (a, b) -> Long.compare(a[0], b[0]));
+            for (long[] pair : pairs) {
+                state.add(pair[0], pair[1]);
+            }
+            state.add(today, 0);
+        }
+    }
+
+    private final class ReplayTask extends RecursiveAction {
+        private final Long[] productIds;
+        private final int from;
+        private final int to;
+        private final Map<Long, DailySeries> history;
+        private final Map<Long, DemandState> target;
+
+        ReplayTask(Long[] productIds, int from, int to, Map<Long, DailySeries> history, Map<Long, DemandState> target) {
+            this.productIds = productIds;
+            this.from = from;
+            this.to = to;
+            this.history = history;
+            this.target = target;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= REPLAY_CHUNK) {
+                long today = LocalDate.now().toEpochDay();
+                for (int i = from; i < to; i++) {
+                    DemandState state = new DemandState(alpha, gamma);
+                    history.get(productIds[i]).replayInto(state, today);
+                    target.put(productIds[i], state);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ReplayTask(productIds, from, middle, history, target),
+                    new ReplayTask(productIds, middle, to, history, target));
+        }
+    }
+}
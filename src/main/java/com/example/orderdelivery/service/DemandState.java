@@ -0,0 +1,104 @@
+package com.example.orderdelivery.service;
+
+/**
+ * Smoothed daily demand for one product: exponential smoothing of the level with additive
+ * day-of-week seasonality (Holt-Winters without trend). Orders accumulate in the bucket of the
+ * current day; when a later day is seen the bucket is closed and folded into the level and
+ * that weekday's seasonal term, with any skipped days folded in as zero demand. Each update
+ * is O(1) apart from closing those skipped days, which is capped.
+ */
+final class DemandState {
+    // Long gaps decay the level to practically zero well before this many days
+    private static final int MAX_GAP_DAYS = 56;
+
+    private final double alpha;
+    private final double gamma;
+
+    private long day = Long.MIN_VALUE;
+    private double openDemand;
+    private double level;
+    private final double[] seasonal = new double[7];
+    private double meanAbsoluteError;
+    private int observedDays;
+
+    DemandState(double alpha, double gamma) {
+        this.alpha = alpha;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Add demand on a day; negative quantities remove demand (cancellations)
+     * @param epochDay The order date as an epoch day
+     * @param quantity The quantity
+     */
+    synchronized void add(long epochDay, double quantity) {
+        if (day == Long.MIN_VALUE) {
+            day = epochDay;
+            openDemand = quantity;
+        } else if (epochDay == day) {
+            openDemand += quantity;
+        } else if (epochDay > day) {
+            close(day, openDemand);
+            long gap = Math.min(epochDay - day - 1, MAX_GAP_DAYS);
+            for (long skipped = epochDay - gap; skipped < epochDay; skipped++) {
+                close(skipped, 0);
+            }
+            day = epochDay;
+            openDemand = quantity;
+        } else if (observedDays > 0) {
+            // The day is already folded in: correct the level by what that observation would
+            // have contributed, decayed by the updates since
+            level += alpha * quantity * Math.pow(1 - alpha, day - 1 - epochDay);
+        }
+    }
+
+    /**
+     * Forecast daily demand, closing any days that passed without orders first
+     * @param fromEpochDay The first day to forecast, normally today
+     * @param days The number of days
+     * @return Expected demand per day, never negative
+     */
+    synchronized double[] forecast(long fromEpochDay, int days) {
+        if (day != Long.MIN_VALUE && day < fromEpochDay) {
+            add(fromEpochDay, 0);
+        }
+        double[] daily = new double[days];
+        if (observedDays == 0) {
+            return daily;
+        }
+        for (int i = 0; i < days; i++) {
+            daily[i] = Math.max(0, level + seasonal[dayOfWeek(fromEpochDay + i)]);
+        }
+        return daily;
+    }
+
+    /**
+     * @return Standard deviation of the one-day forecast error, estimated from the mean absolute error
+     */
+    synchronized double errorStdDev() {
+        return 1.25 * meanAbsoluteError;
+    }
+
+    synchronized int getObservedDays() {
+        return observedDays;
+    }
+
+    private void close(long epochDay, double demand) {
+        int weekday = dayOfWeek(epochDay);
+        if (observedDays == 0) {
+            level = demand;
+        } else {
+            double error = demand - (level + seasonal[weekday]);
+            meanAbsoluteError = alpha * Math.abs(error) + (1 - alpha) * meanAbsoluteError;
+            double newLevel = alpha * (demand - seasonal[weekday]) + (1 - alpha) * level;
+            seasonal[weekday] = gamma * (demand - newLevel) + (1 - gamma) * seasonal[weekday];
+            level = newLevel;
+        }
+        observedDays++;
+    }
+
+    private static int dayOfWeek(long epochDay) {
+        // Epoch day 0 was a Thursday; 0 = Monday
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+}
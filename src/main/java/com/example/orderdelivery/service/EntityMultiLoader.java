@@ -0,0 +1,57 @@
+package com.example.orderdelivery.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads several entities by ID at once. Hibernate's multi-load serves what it can from the
+ * persistence context and the second-level cache and reads the rest with a single IN query.
+ */
+@Component
+public class EntityMultiLoader {
+    private final EntityManager entityManager;
+    private final int maxIds;
+
+    public EntityMultiLoader(EntityManager entityManager, @Value("${api.multi-get.max-ids:200}") int maxIds) {
+        this.entityManager = entityManager;
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * @param type The entity class
+     * @param ids The IDs, duplicates allowed
+     * @return Each distinct ID in input order, mapped to its entity or to null if there is none
+     */
+    @Transactional(readOnly = true)
+    public <T> Map<Long, T> load(Class<T> type, List<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinct.contains(null)) {
+            throw new RuntimeException("Empty ID in ids");
+        }
+        if (distinct.size() > maxIds) {
+            throw new RuntimeException("At most " + maxIds + " IDs can be requested at once");
+        }
+        Map<Long, T> byId = new LinkedHashMap<>();
+        if (distinct.isEmpty()) {
+            return byId;
+        }
+        List<T> loaded = entityManager.unwrap(Session.class)
+                .byMultipleIds(type)
+                .enableOrderedReturn(true)
+                .withBatchSize(distinct.size())
+                .multiLoad(distinct);
+        for (int i = 0; i < distinct.size(); i++) {
+            byId.put(distinct.get(i), loaded.get(i));
+        }
+        return byId;
+    }
+}
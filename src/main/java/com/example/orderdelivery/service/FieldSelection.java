@@ -0,0 +1,99 @@
+package com.example.orderdelivery.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parts of a resource a client asked for with ?fields= and ?include=.
+ * fields lists top-level properties; naming a relation (customer) includes it whole and a dotted
+ * name (customer.name) includes it with only those properties. include adds relations on top of
+ * the fields, or of every top-level property when fields is absent. The ID is always returned.
+ */
+public final class FieldSelection {
+    private static final FieldSelection NONE = new FieldSelection(null, Map.of());
+
+    // null means every top-level property
+    private final Set<String> fields;
+    // Relation -> its requested properties; an empty set means all of them
+    private final Map<String, Set<String>> includes;
+
+    private FieldSelection(Set<String> fields, Map<String, Set<String>> includes) {
+        this.fields = fields;
+        this.includes = includes;
+    }
+
+    /**
+     * @param fields The fields parameter, or null
+     * @param include The include parameter, or null
+     * @return The selection; {@link #isEmpty()} if neither parameter was given
+     */
+    public static FieldSelection parse(String fields, String include) {
+        if (isBlank(fields) && isBlank(include)) {
+            return NONE;
+        }
+        Set<String> topLevel = isBlank(fields) ? null : new LinkedHashSet<>();
+        Map<String, Set<String>> relations = new LinkedHashMap<>();
+        if (!isBlank(include)) {
+            for (String name : split(include)) {
+                relations.computeIfAbsent(name, key -> new LinkedHashSet<>());
+            }
+        }
+        if (topLevel != null) {
+            for (String name : split(fields)) {
+                int dot = name.indexOf('.');
+                if (dot < 0) {
+                    topLevel.add(name);
+                } else {
+                    relations.computeIfAbsent(name.substring(0, dot), key -> new LinkedHashSet<>())
+                            .add(name.substring(dot + 1));
+                }
+            }
+        }
+        return new FieldSelection(topLevel, relations);
+    }
+
+    public boolean isEmpty() {
+        return this == NONE;
+    }
+
+    /**
+     * @return The requested top-level properties, or null for all of them
+     */
+    Set<String> getFields() {
+        return fields != null ? Collections.unmodifiableSet(fields) : null;
+    }
+
+    Map<String, Set<String>> getIncludes() {
+        return Collections.unmodifiableMap(includes);
+    }
+
+    /**
+     * Derive the entity tag of this representation from the tag of the full resource
+     * @param etag The quoted entity tag of the full resource
+     * @return A quoted tag that differs per selection
+     */
+    public String etag(String etag) {
+        if (isEmpty()) {
+            return etag;
+        }
+        String selection = (fields != null ? String.join(",", fields) : "*") + "|" + includes;
+        return etag.substring(0, etag.length() - 1) + "-" + Integer.toHexString(selection.hashCode()) + "\"";
+    }
+
+    private static Set<String> split(String value) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : value.split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
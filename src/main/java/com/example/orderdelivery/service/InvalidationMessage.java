@@ -0,0 +1,11 @@
+package com.example.orderdelivery.service;
+
+/**
+ * One entity change broadcast on the {@link CacheInvalidationBus}.
+ * @param region The cache region, e.g. "products"
+ * @param key The changed entity's ID, or null when the whole region changed
+ * @param originNode The node that made the change
+ * @param ageMillis How long ago the change was committed, as measured by the transport; 0 when published
+ */
+public record InvalidationMessage(String region, String key, String originNode, long ageMillis) {
+}
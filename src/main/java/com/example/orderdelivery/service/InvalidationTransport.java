@@ -0,0 +1,26 @@
+package com.example.orderdelivery.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link InvalidationMessage}s between application instances for the
+ * {@link CacheInvalidationBus}. Delivery is at-least-once and unordered; messages from the
+ * local node are delivered back too and filtered by the bus.
+ */
+public interface InvalidationTransport {
+    String getName();
+
+    /**
+     * Send messages to every node. Called inside the writing transaction when there is one,
+     * so a transport that writes to the application database commits with the change.
+     * @param messages The messages to send
+     */
+    void publish(List<InvalidationMessage> messages);
+
+    /**
+     * Start delivering messages published from now on
+     * @param receiver Called with each batch of received messages
+     */
+    void start(Consumer<List<InvalidationMessage>> receiver);
+}
@@ -0,0 +1,65 @@
+package com.example.orderdelivery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A product's daily stock movement over a date range, as JSON.
+ * Parameters: productId, startDate, endDate.
+ */
+@Component
+public class InventoryMovementReport implements ReportGenerator {
+    private final InventoryService inventoryService;
+    private final ObjectMapper objectMapper;
+
+    public InventoryMovementReport(InventoryService inventoryService, ObjectMapper objectMapper) {
+        this.inventoryService = inventoryService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ReportType getType() {
+        return ReportType.INVENTORY_MOVEMENT;
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/json";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "json";
+    }
+
+    @Override
+    public void validate(Map<String, String> params) {
+        ReportGenerator.longParam(params, "productId");
+        ReportGenerator.validateRange(ReportGenerator.dateParam(params, "startDate"),
+                ReportGenerator.dateParam(params, "endDate"));
+    }
+
+    @Override
+    public void generate(Map<String, String> params, OutputStream out, ReportProgress progress) throws IOException {
+        Long productId = ReportGenerator.longParam(params, "productId");
+        LocalDate startDate = ReportGenerator.dateParam(params, "startDate");
+        LocalDate endDate = ReportGenerator.dateParam(params, "endDate");
+        progress.setTotal(1);
+        Map<LocalDate, Integer> movement = new TreeMap<>(inventoryService.getProductMovement(productId, startDate, endDate));
+        progress.advance(1);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("productId", productId);
+        report.put("startDate", startDate);
+        report.put("endDate", endDate);
+        report.put("movement", movement);
+        objectMapper.writeValue(out, report);
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.orderdelivery.service;
 
+import com.example.orderdelivery.config.RetryOnOptimisticLock;
+import com.example.orderdelivery.dto.OrderDTO;
+import com.example.orderdelivery.dto.OrderLineDTO;
 import com.example.orderdelivery.entity.Order;
 import com.example.orderdelivery.entity.OrderLine;
+import com.example.orderdelivery.entity.OrderStatus;
 import com.example.orderdelivery.entity.Product;
 import com.example.orderdelivery.repository.OrderRepository;
 import com.example.orderdelivery.repository.ProductRepository;
@@ -12,6 +16,7 @@ import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -21,10 +26,22 @@ import java.util.stream.Collectors;
 public class InventoryService {
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
+    private final ResourceVersionTracker resourceVersionTracker;
+    private final OrderArchiveService orderArchiveService;
+    private final StockLevelService stockLevelService;
+    private final ChangeLogService changeLogService;
 
-    public InventoryService(ProductRepository productRepository, OrderRepository orderRepository) {
+    public InventoryService(ProductRepository productRepository, OrderRepository orderRepository,
+                            ResourceVersionTracker resourceVersionTracker,
+                            OrderArchiveService orderArchiveService,
+                            StockLevelService stockLevelService,
+                            ChangeLogService changeLogService) {
         this.productRepository = productRepository;
         this.orderRepository = orderRepository;
+        this.resourceVersionTracker = resourceVersionTracker;
+        this.orderArchiveService = orderArchiveService;
+        this.stockLevelService = stockLevelService;
+        this.changeLogService = changeLogService;
     }
 
     /**
@@ -36,14 +53,13 @@ public class InventoryService {
     }
 
     /**
-     * Get products with low stock (below threshold)
+     * Get products with low stock (below threshold), lowest stock first.
+     * Candidates come from the stock index, so only the matching products are loaded.
      * @param threshold The minimum stock level
      * @return List of products with stock below threshold
      */
     public List<Product> getProductsWithLowStock(int threshold) {
-        return productRepository.findAll().stream()
-                .filter(product -> product.getStock() < threshold)
-                .collect(Collectors.toList());
+        return loadBelow(threshold);
     }
 
     /**
@@ -51,8 +67,28 @@ public class InventoryService {
      * @return List of products with zero stock
      */
     public List<Product> getOutOfStockProducts() {
-        return productRepository.findAll().stream()
-                .filter(product -> product.getStock() <= 0)
+        return loadBelow(1);
+    }
+
+    /**
+     * Get the most recent reorder-point crossings
+     * @return Crossings, newest first
+     */
+    public List<StockThresholdCrossing> getRecentStockAlerts() {
+        return stockLevelService.getRecentCrossings();
+    }
+
+    private List<Product> loadBelow(int threshold) {
+        List<Long> ids = stockLevelService.findProductIdsBelow(threshold);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        // Keep the index order; re-check stock in case a change committed after the index was read
+        return ids.stream()
+                .map(products::get)
+                .filter(product -> product != null && product.getStock() != null && product.getStock() < threshold)
                 .collect(Collectors.toList());
     }
 
@@ -104,6 +140,16 @@ public class InventoryService {
             }
         }
 
+        // Closed orders older than the archive horizon live in the partitioned archive tier
+        for (OrderDTO order : orderArchiveService.getArchivedOrdersBetween(startDate, endDate)) {
+            for (OrderLineDTO line : order.getOrderLines()) {
+                if (productId.equals(line.getProductId())) {
+                    int quantity = order.getStatus() == OrderStatus.CANCELLED ? line.getQuantity() : -line.getQuantity();
+                    movement.merge(order.getDate(), quantity, Integer::sum);
+                }
+            }
+        }
+
         return movement;
     }
 
@@ -113,6 +159,7 @@ public class InventoryService {
      * @param newStock The new stock level
      * @return The updated product
      */
+    @RetryOnOptimisticLock
     @Transactional
     public Product updateProductStock(Long productId, int newStock) {
         if (newStock < 0) {
@@ -123,6 +170,9 @@ public class InventoryService {
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         
         product.setStock(newStock);
+        resourceVersionTracker.markChanged(ResourceVersionTracker.PRODUCTS, productId);
+        stockLevelService.stockChanged(product);
+        changeLogService.record(ChangeEntityType.PRODUCT, productId, ChangeOperation.UPDATED);
         return productRepository.save(product);
     }
 }
@@ -0,0 +1,168 @@
+package com.example.orderdelivery.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Default {@link InvalidationTransport}: messages are rows in cache_invalidation, written in
+ * the publishing transaction, and every node polls the table with an ID cursor.
+ * Auto-increment IDs are handed out at insert time but become visible at commit, so a lower ID
+ * can appear after the cursor has passed it. Skipped IDs are therefore re-queried for
+ * cache.invalidation.gap-timeout-ms before being given up as rolled back.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcInvalidationTransport implements InvalidationTransport {
+    private static final Logger log = LoggerFactory.getLogger(JdbcInvalidationTransport.class);
+    private static final String COLUMNS =
+            "SELECT id, region, entity_key, origin_node, TIMESTAMPDIFF(MICROSECOND, created_at, NOW(3)) AS age_us " +
+                    "FROM cache_invalidation ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final long gapTimeoutMs;
+    private final int maxPendingGaps;
+    private final int retentionMinutes;
+
+    private volatile Consumer<List<InvalidationMessage>> receiver;
+    private volatile long cursor = -1;
+    // Skipped ID -> when it was first seen missing; only touched by the poll thread
+    private final Map<Long, Long> pendingGaps = new LinkedHashMap<>();
+
+    public JdbcInvalidationTransport(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${cache.invalidation.batch-size:1000}") int batchSize,
+            @Value("${cache.invalidation.gap-timeout-ms:10000}") long gapTimeoutMs,
+            @Value("${cache.invalidation.max-pending-gaps:1000}") int maxPendingGaps,
+            @Value("${cache.invalidation.retention-minutes:60}") int retentionMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.maxPendingGaps = maxPendingGaps;
+        this.retentionMinutes = retentionMinutes;
+        Gauge.builder("cache.invalidation.cursor", this, transport -> transport.cursor).register(meterRegistry);
+        Gauge.builder("cache.invalidation.pending_gaps", pendingGaps, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return "jdbc";
+    }
+
+    @Override
+    public void publish(List<InvalidationMessage> messages) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO cache_invalidation (region, entity_key, origin_node) VALUES (?, ?, ?)",
+                messages, messages.size(), (ps, message) -> {
+                    ps.setString(1, message.region());
+                    ps.setString(2, message.key());
+                    ps.setString(3, message.originNode());
+                });
+    }
+
+    @Override
+    public void start(Consumer<List<InvalidationMessage>> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.poll-interval-ms:500}",
+            initialDelayString = "${cache.invalidation.initial-delay-ms:5000}")
+    public void poll() {
+        Consumer<List<InvalidationMessage>> target = receiver;
+        if (target == null) {
+            return;
+        }
+        try {
+            if (cursor < 0) {
+                // Start from the current end: caches are empty at startup, so older changes do not matter
+                cursor = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_invalidation", Long.class);
+            }
+            int fetched;
+            do {
+                List<Row> rows = jdbcTemplate.query(COLUMNS + "WHERE id > ? ORDER BY id LIMIT ?",
+                        ROW_MAPPER, cursor, batchSize);
+                fetched = rows.size();
+                List<Row> received = new ArrayList<>(rows.size());
+                received.addAll(fillGaps());
+                trackGaps(rows);
+                received.addAll(rows);
+                if (!received.isEmpty()) {
+                    target.accept(received.stream().map(Row::message).collect(Collectors.toList()));
+                }
+            } while (fetched == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Cache invalidation poll failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.cleanup-interval-ms:600000}", initialDelay = 60000)
+    public void deleteExpired() {
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(
+                        "DELETE FROM cache_invalidation WHERE created_at < NOW(3) - INTERVAL ? MINUTE LIMIT 10000",
+                        retentionMinutes);
+            } while (deleted == 10000);
+        } catch (RuntimeException e) {
+            log.warn("Cache invalidation cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    private List<Row> fillGaps() {
+        if (pendingGaps.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = String.join(",", Collections.nCopies(pendingGaps.size(), "?"));
+        List<Row> late = jdbcTemplate.query(COLUMNS + "WHERE id IN (" + placeholders + ")",
+                ROW_MAPPER, pendingGaps.keySet().toArray());
+        late.forEach(row -> pendingGaps.remove(row.id()));
+
+        long expiredBefore = System.currentTimeMillis() - gapTimeoutMs;
+        pendingGaps.values().removeIf(firstSeen -> firstSeen < expiredBefore);
+        return late;
+    }
+
+    private void trackGaps(List<Row> rows) {
+        long now = System.currentTimeMillis();
+        for (Row row : rows) {
+            for (long missing = cursor + 1; missing < row.id() && pendingGaps.size() < maxPendingGaps; missing++) {
+                pendingGaps.put(missing, now);
+            }
+            cursor = row.id();
+        }
+        if (pendingGaps.size() >= maxPendingGaps) {
+            // Oldest first: drop the ones that have had the longest time to commit
+            Iterator<Long> oldest = pendingGaps.keySet().iterator();
+            while (pendingGaps.size() > maxPendingGaps / 2 && oldest.hasNext()) {
+                oldest.next();
+                oldest.remove();
+            }
+        }
+    }
+
+    private record Row(long id, InvalidationMessage message) {
+    }
+
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(rs.getLong("id"),
+            new InvalidationMessage(rs.getString("region"), rs.getString("entity_key"),
+                    rs.getString("origin_node"), Math.max(0, rs.getLong("age_us") / 1000)));
+}
@@ -0,0 +1,28 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes outbox events to the application log; useful in development and as a
+ * record of what was sent when no other sink is configured.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.logging.enabled", havingValue = "true", matchIfMissing = true)
+public class LoggingOutboxSink implements OutboxEventSink {
+    private static final Logger log = LoggerFactory.getLogger(LoggingOutboxSink.class);
+
+    @Override
+    public String getName() {
+        return "logging";
+    }
+
+    @Override
+    public void deliver(OutboxEvent event) {
+        log.info("Outbox event {} {} for {} {}: {}", event.getId(), event.getEventType(),
+                event.getAggregateType(), event.getAggregateId(), event.getPayload());
+    }
+}
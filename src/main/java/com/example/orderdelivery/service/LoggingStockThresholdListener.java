@@ -0,0 +1,26 @@
+package com.example.orderdelivery.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes reorder-point crossings to the application log.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.alerts.logging.enabled", havingValue = "true", matchIfMissing = true)
+public class LoggingStockThresholdListener implements StockThresholdListener {
+    private static final Logger log = LoggerFactory.getLogger(LoggingStockThresholdListener.class);
+
+    @Override
+    public void onCrossing(StockThresholdCrossing crossing) {
+        if (crossing.belowReorderPoint()) {
+            log.warn("Product {} ({}) fell below its reorder point {}: stock {}", crossing.productId(),
+                    crossing.productName(), crossing.reorderPoint(), crossing.stock());
+        } else {
+            log.info("Product {} ({}) is back at or above its reorder point {}: stock {}", crossing.productId(),
+                    crossing.productName(), crossing.reorderPoint(), crossing.stock());
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.dto.CarrierDTO;
+import com.example.orderdelivery.dto.CustomerDTO;
+import com.example.orderdelivery.dto.DeliveryDTO;
+import com.example.orderdelivery.dto.DtoMapper;
+import com.example.orderdelivery.dto.OrderDTO;
+import com.example.orderdelivery.dto.OrderTrackingDTO;
+import com.example.orderdelivery.entity.ArchivedOrder;
+import com.example.orderdelivery.entity.Order;
+import com.example.orderdelivery.entity.OrderStatus;
+import com.example.orderdelivery.repository.ArchivedOrderRepository;
+import com.example.orderdelivery.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Hot/cold split for orders. Closed orders older than orders.archive.after-days move from
+ * orders/order_line (and their delivery and payment rows) into order_archive, which is
+ * range-partitioned by month. This service keeps monthly partitions created ahead of time
+ * and serves archived orders to the read paths that must work across both tiers.
+ */
+@Service
+public class OrderArchiveService {
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+    private static final List<OrderStatus> CLOSED_STATUSES = List.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED);
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final StatusCounterService statusCounterService;
+    private final ChangeLogService changeLogService;
+
+    private final int afterDays;
+    private final int batchSize;
+    private final int monthsAhead;
+
+    public OrderArchiveService(
+            OrderRepository orderRepository,
+            ArchivedOrderRepository archivedOrderRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            StatusCounterService statusCounterService,
+            ChangeLogService changeLogService,
+            @Value("${orders.archive.after-days:365}") int afterDays,
+            @Value("${orders.archive.batch-size:200}") int batchSize,
+            @Value("${orders.archive.partitions-ahead-months:3}") int monthsAhead) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.statusCounterService = statusCounterService;
+        this.changeLogService = changeLogService;
+        this.afterDays = afterDays;
+        this.batchSize = batchSize;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Look up an archived order
+     * @param id The order ID
+     * @return The order as it was when archived
+     */
+    public Optional<OrderDTO> getArchivedOrder(Long id) {
+        return archivedOrderRepository.findFirstById(id).map(this::toOrderDto);
+    }
+
+    /**
+     * Tracking summary of an archived order, built from the snapshot taken when it was archived
+     * @param id The order ID
+     * @return The tracking summary, if the order is archived
+     */
+    public Optional<OrderTrackingDTO> getArchivedTrackingInfo(Long id) {
+        return archivedOrderRepository.findFirstById(id).map(archivedOrder -> {
+            OrderDTO order = toOrderDto(archivedOrder);
+            DeliveryDTO delivery = archivedOrder.getDeliveryJson() != null
+                    ? fromJson(archivedOrder.getDeliveryJson(), DeliveryDTO.class, archivedOrder.getId())
+                    : null;
+            CustomerDTO customer = order.getCustomer();
+            CarrierDTO carrier = delivery != null ? delivery.getCarrier() : null;
+            return new OrderTrackingDTO(
+                    order.getId(),
+                    order.getStatus(),
+                    order.getDate(),
+                    order.getTotalAmount(),
+                    delivery != null ? delivery.getId() : null,
+                    delivery != null ? delivery.getStatus() : null,
+                    delivery != null ? delivery.getDeliveryDate() : null,
+                    carrier != null ? carrier.getName() : null,
+                    carrier != null ? carrier.getPhone() : null,
+                    customer != null ? customer.getName() : null,
+                    customer != null ? customer.getAddress() : null);
+        });
+    }
+
+    /**
+     * Get archived orders within a date range; reads only the partitions covering the range
+     * @param startDate The start date (inclusive)
+     * @param endDate The end date (inclusive)
+     * @return Archived orders within the range
+     */
+    public List<OrderDTO> getArchivedOrdersBetween(LocalDate startDate, LocalDate endDate) {
+        return archivedOrderRepository.findByDateBetween(startDate, endDate).stream()
+                .map(this::toOrderDto)
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 0 4 * * *}")
+    public void archiveClosedOrders() {
+        try {
+            ensurePartitions();
+            LocalDate cutoff = LocalDate.now().minusDays(afterDays);
+            int archived = 0;
+            int batch;
+            do {
+                batch = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                archived += batch;
+            } while (batch == batchSize);
+            if (archived > 0) {
+                log.info("Moved {} closed orders to the archive tier", archived);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Order archival failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Split p_future so that every month up to partitions-ahead-months from now has its own partition
+     */
+    public void ensurePartitions() {
+        List<String> boundaries = jdbcTemplate.queryForList(
+                "SELECT PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'order_archive' " +
+                        "AND PARTITION_NAME IS NOT NULL", String.class);
+        LocalDate lastBoundary = boundaries.stream()
+                .filter(boundary -> !"MAXVALUE".equalsIgnoreCase(boundary))
+                .map(boundary -> LocalDate.parse(boundary.replace("'", "")))
+                .max(LocalDate::compareTo)
+                .orElseThrow(() -> new IllegalStateException("order_archive is not partitioned"));
+
+        LocalDate target = LocalDate.now().withDayOfMonth(1).plusMonths(monthsAhead + 1);
+        List<String> partitions = new ArrayList<>();
+        for (LocalDate month = lastBoundary; month.isBefore(target); month = month.plusMonths(1)) {
+            partitions.add("PARTITION " + month.format(PARTITION_NAME)
+                    + " VALUES LESS THAN ('" + month.plusMonths(1) + "')");
+        }
+        if (partitions.isEmpty()) {
+            return;
+        }
+        partitions.add("PARTITION p_future VALUES LESS THAN (MAXVALUE)");
+        jdbcTemplate.execute("ALTER TABLE order_archive REORGANIZE PARTITION p_future INTO ("
+                + String.join(", ", partitions) + ")");
+        log.info("Added {} monthly partitions to order_archive", partitions.size() - 1);
+    }
+
+    private int archiveBatch(LocalDate cutoff) {
+        List<Long> orderIds = orderRepository.findArchivableOrderIds(
+                CLOSED_STATUSES, cutoff, PageRequest.of(0, batchSize));
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Order> orders = orderRepository.findAllById(orderIds);
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedOrder> archived = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            archived.add(ArchivedOrder.builder()
+                    .id(order.getId())
+                    .date(order.getDate())
+                    .customerId(order.getCustomer() != null ? order.getCustomer().getId() : null)
+                    .status(order.getStatus())
+                    .totalAmount(order.getTotalAmount())
+                    .orderJson(toJson(DtoMapper.toDto(order)))
+                    .deliveryJson(order.getDelivery() != null ? toJson(DtoMapper.toDto(order.getDelivery())) : null)
+                    .paymentJson(order.getPayment() != null ? toJson(DtoMapper.toDto(order.getPayment())) : null)
+                    .archivedAt(now)
+                    .build());
+        }
+        archivedOrderRepository.saveAll(archived);
+
+        // Cascades to order lines, delivery and payment
+        orderRepository.deleteAll(orders);
+        for (Order order : orders) {
+            statusCounterService.orderStatusChanged(order.getStatus(), null);
+            changeLogService.record(ChangeEntityType.ORDER, order.getId(), ChangeOperation.ARCHIVED);
+            if (order.getDelivery() != null) {
+                statusCounterService.deliveryStatusChanged(order.getDelivery().getStatus(), null);
+                changeLogService.record(ChangeEntityType.DELIVERY, order.getDelivery().getId(), ChangeOperation.ARCHIVED);
+            }
+        }
+        return orders.size();
+    }
+
+    private OrderDTO toOrderDto(ArchivedOrder archivedOrder) {
+        return fromJson(archivedOrder.getOrderJson(), OrderDTO.class, archivedOrder.getId());
+    }
+
+    private <T> T fromJson(String json, Class<T> type, Long orderId) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Corrupt archived order " + orderId, e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize order for archive", e);
+        }
+    }
+}
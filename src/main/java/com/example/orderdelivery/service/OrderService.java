@@ -1,26 +1,46 @@
 package com.example.orderdelivery.service;
 
+import com.example.orderdelivery.config.RetryOnOptimisticLock;
+import com.example.orderdelivery.entity.DeliveryStatus;
 import com.example.orderdelivery.entity.Order;
 import com.example.orderdelivery.entity.OrderLine;
 import com.example.orderdelivery.entity.Product;
 import com.example.orderdelivery.entity.OrderStatus;
+import com.example.orderdelivery.exception.StaleVersionException;
 import com.example.orderdelivery.repository.OrderRepository;
 import com.example.orderdelivery.repository.ProductRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class OrderService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final ResourceVersionTracker resourceVersionTracker;
+    private final DeliverySlotService deliverySlotService;
+    private final StockLevelService stockLevelService;
+    private final DemandForecastService demandForecastService;
+    private final StatusCounterService statusCounterService;
+    private final ChangeLogService changeLogService;
 
-    public OrderService(OrderRepository orderRepository, ProductRepository productRepository) {
+    public OrderService(OrderRepository orderRepository, ProductRepository productRepository,
+                        ResourceVersionTracker resourceVersionTracker, DeliverySlotService deliverySlotService,
+                        StockLevelService stockLevelService, DemandForecastService demandForecastService,
+                        StatusCounterService statusCounterService, ChangeLogService changeLogService) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
+        this.resourceVersionTracker = resourceVersionTracker;
+        this.deliverySlotService = deliverySlotService;
+        this.stockLevelService = stockLevelService;
+        this.demandForecastService = demandForecastService;
+        this.statusCounterService = statusCounterService;
+        this.changeLogService = changeLogService;
     }
 
     public List<Order> getAllOrders() {
@@ -31,28 +51,51 @@ public class OrderService {
         return orderRepository.findById(id);
     }
 
+    @RetryOnOptimisticLock
     @Transactional
     public Order createOrder(Order order) {
+        prepareNewOrder(order);
+        Order savedOrder = orderRepository.save(order);
+        changeLogService.record(ChangeEntityType.ORDER, savedOrder.getId(), ChangeOperation.CREATED);
+        return savedOrder;
+    }
+
+    /**
+     * Validates, prices and reserves stock for a new order without saving it.
+     * Must run inside a transaction; the batched write path calls it once per order
+     * so that stock changes to the same product accumulate on one managed entity.
+     * @param order The order to prepare
+     */
+    void prepareNewOrder(Order order) {
+        // A retried attempt must not reuse identifiers assigned by the rolled-back one
+        clearGeneratedState(order);
+
         // Validate order
         validateOrder(order);
         
         // Set initial values
         order.setDate(LocalDate.now());
         order.setStatus(OrderStatus.PENDING);
+        statusCounterService.orderStatusChanged(null, OrderStatus.PENDING);
         
         // Calculate total amount
         calculateTotalAmount(order);
         
         // Update product stock
         updateProductStock(order);
-        
-        return orderRepository.save(order);
     }
 
+    /**
+     * Apply the client's edit of an order, provided it edited the current version
+     * @param expectedVersion The version the client's copy was read at
+     * @throws StaleVersionException If the order has changed since
+     */
+    @RetryOnOptimisticLock
     @Transactional
-    public Order updateOrder(Long id, Order order) {
+    public Order updateOrder(Long id, Order order, Long expectedVersion) {
         Order existingOrder = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        StaleVersionException.check("Order", id, expectedVersion, existingOrder.getVersion());
         
         // If order status is changing to CANCELLED, restore stock
         if (order.getStatus() == OrderStatus.CANCELLED && existingOrder.getStatus() != OrderStatus.CANCELLED) {
@@ -60,6 +103,7 @@ public class OrderService {
         }
         
         // Update existing order with new values
+        statusCounterService.orderStatusChanged(existingOrder.getStatus(), order.getStatus());
         existingOrder.setCustomer(order.getCustomer());
         existingOrder.setDate(order.getDate());
         existingOrder.setStatus(order.getStatus());
@@ -72,6 +116,7 @@ public class OrderService {
             }
             
             // Update order lines
+            order.getOrderLines().forEach(line -> line.setOrder(existingOrder));
             existingOrder.setOrderLines(order.getOrderLines());
             
             // Validate updated order
@@ -86,14 +131,24 @@ public class OrderService {
             }
         }
         
-        existingOrder.setDelivery(order.getDelivery());
-        existingOrder.setPayment(order.getPayment());
+        // Delivery and payment are versioned through their own endpoints; merging the
+        // client's copies here would overwrite them without a version check
+        changeLogService.record(ChangeEntityType.ORDER, id, ChangeOperation.UPDATED);
         
         return orderRepository.save(existingOrder);
     }
 
+    @Transactional
     public void deleteOrder(Long id) {
-        orderRepository.deleteById(id);
+        orderRepository.findById(id).ifPresent(order -> {
+            orderRepository.delete(order);
+            statusCounterService.orderStatusChanged(order.getStatus(), null);
+            changeLogService.record(ChangeEntityType.ORDER, id, ChangeOperation.DELETED);
+            if (order.getDelivery() != null) {
+                statusCounterService.deliveryStatusChanged(order.getDelivery().getStatus(), null);
+                changeLogService.record(ChangeEntityType.DELIVERY, order.getDelivery().getId(), ChangeOperation.DELETED);
+            }
+        });
     }
     
     /**
@@ -101,6 +156,7 @@ public class OrderService {
      * @param id The order ID to cancel
      * @return The canceled order
      */
+    @RetryOnOptimisticLock
     @Transactional
     public Order cancelOrder(Long id) {
         Order order = orderRepository.findById(id)
@@ -113,13 +169,31 @@ public class OrderService {
         
         // Restore product stock
         restoreProductStock(order);
+
+        // Free the carrier slot if the delivery has not been picked up yet
+        if (order.getDelivery() != null && order.getDelivery().getStatus() == DeliveryStatus.ASSIGNED) {
+            deliverySlotService.release(order.getDelivery());
+        }
         
         // Update order status
+        statusCounterService.orderStatusChanged(order.getStatus(), OrderStatus.CANCELLED);
         order.setStatus(OrderStatus.CANCELLED);
+        changeLogService.record(ChangeEntityType.ORDER, id, ChangeOperation.UPDATED);
         
         return orderRepository.save(order);
     }
 
+    private void clearGeneratedState(Order order) {
+        order.setId(null);
+        order.setVersion(null);
+        if (order.getOrderLines() != null) {
+            order.getOrderLines().forEach(line -> {
+                line.setId(null);
+                line.setOrder(order);
+            });
+        }
+    }
+
     private void validateOrder(Order order) {
         if (order.getCustomer() == null) {
             throw new RuntimeException("Customer is required");
@@ -129,7 +203,9 @@ public class OrderService {
             throw new RuntimeException("Order must have at least one order line");
         }
         
-        // Validate each order line
+        // Validate each order line, summing quantities so that several lines for the
+        // same product are checked against its stock together
+        Map<Long, Integer> requested = new HashMap<>();
         for (OrderLine line : order.getOrderLines()) {
             if (line.getProduct() == null) {
                 throw new RuntimeException("Product is required for each order line");
@@ -143,7 +219,8 @@ public class OrderService {
             Product product = productRepository.findById(line.getProduct().getId())
                     .orElseThrow(() -> new RuntimeException("Product not found"));
             
-            if (product.getStock() < line.getQuantity()) {
+            int quantity = requested.merge(product.getId(), line.getQuantity(), Integer::sum);
+            if (product.getStock() < quantity) {
                 throw new RuntimeException("Insufficient stock for product: " + product.getName());
             }
         }
@@ -173,7 +250,11 @@ public class OrderService {
             
             product.setStock(newStock);
             productRepository.save(product);
+            resourceVersionTracker.markChanged(ResourceVersionTracker.PRODUCTS, product.getId());
+            stockLevelService.stockChanged(product);
+            changeLogService.record(ChangeEntityType.PRODUCT, product.getId(), ChangeOperation.UPDATED);
         }
+        demandForecastService.orderPlaced(order);
     }
     
     /**
@@ -194,7 +275,11 @@ public class OrderService {
                 int restoredStock = product.getStock() + line.getQuantity();
                 product.setStock(restoredStock);
                 productRepository.save(product);
+                resourceVersionTracker.markChanged(ResourceVersionTracker.PRODUCTS, product.getId());
+                stockLevelService.stockChanged(product);
+                changeLogService.record(ChangeEntityType.PRODUCT, product.getId(), ChangeOperation.UPDATED);
             }
         }
+        demandForecastService.orderCancelled(order);
     }
 } 
\ No newline at end of file
@@ -1,38 +1,86 @@
 package com.example.orderdelivery.service;
 
+import com.example.orderdelivery.config.RetryOnOptimisticLock;
 import com.example.orderdelivery.entity.*;
 import com.example.orderdelivery.repository.*;
+import com.example.orderdelivery.dto.DtoMapper;
 import com.example.orderdelivery.dto.OrderTrackingDTO;
+import com.example.orderdelivery.dto.TrackingHistoryDTO;
+import com.example.orderdelivery.dto.TrackingViewDTO;
+import com.example.orderdelivery.dto.SlotDTO;
 import com.example.orderdelivery.exception.ResourceNotFoundException;
+import com.example.orderdelivery.exception.SlotUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class OrderTrackingService {
+    private static final List<OrderStatus> CLOSED_STATUSES = List.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED);
+
     private final OrderRepository orderRepository;
     private final DeliveryRepository deliveryRepository;
+    private final CarrierRepository carrierRepository;
     private final TrackingHistoryRepository trackingHistoryRepository;
+    private final TrackingHistoryArchiveRepository trackingHistoryArchiveRepository;
+    private final OutboxService outboxService;
+    private final DeliverySlotService deliverySlotService;
+    private final DeliveryQuoteService deliveryQuoteService;
+    private final StatusCounterService statusCounterService;
+    private final ChangeLogService changeLogService;
+    private final CarrierPingService carrierPingService;
+    private final OrderArchiveService orderArchiveService;
+    private final int maxViewHistory;
 
     public OrderTrackingService(
             OrderRepository orderRepository,
             DeliveryRepository deliveryRepository,
-            TrackingHistoryRepository trackingHistoryRepository) {
+            CarrierRepository carrierRepository,
+            TrackingHistoryRepository trackingHistoryRepository,
+            TrackingHistoryArchiveRepository trackingHistoryArchiveRepository,
+            OutboxService outboxService,
+            DeliverySlotService deliverySlotService,
+            DeliveryQuoteService deliveryQuoteService,
+            StatusCounterService statusCounterService,
+            ChangeLogService changeLogService,
+            CarrierPingService carrierPingService,
+            OrderArchiveService orderArchiveService,
+            @Value("${tracking.view.max-history:100}") int maxViewHistory) {
         this.orderRepository = orderRepository;
         this.deliveryRepository = deliveryRepository;
+        this.carrierRepository = carrierRepository;
         this.trackingHistoryRepository = trackingHistoryRepository;
+        this.trackingHistoryArchiveRepository = trackingHistoryArchiveRepository;
+        this.outboxService = outboxService;
+        this.deliverySlotService = deliverySlotService;
+        this.deliveryQuoteService = deliveryQuoteService;
+        this.statusCounterService = statusCounterService;
+        this.changeLogService = changeLogService;
+        this.carrierPingService = carrierPingService;
+        this.orderArchiveService = orderArchiveService;
+        this.maxViewHistory = maxViewHistory;
     }
 
+    @RetryOnOptimisticLock
     @Transactional
     public Order updateOrderStatus(Long orderId, OrderStatus newStatus) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
-        validateOrderStatusTransition(order.getStatus(), newStatus);
+        OrderStatus previousStatus = order.getStatus();
+        validateOrderStatusTransition(previousStatus, newStatus);
         order.setStatus(newStatus);
+        statusCounterService.orderStatusChanged(previousStatus, newStatus);
 
         // Create tracking history entry
         TrackingHistory history = new TrackingHistory();
@@ -41,20 +89,35 @@ public class OrderTrackingService {
         history.setTimestamp(LocalDateTime.now());
         history.setDescription("Order status updated to " + newStatus);
         trackingHistoryRepository.save(history);
+        outboxService.record("Order", orderId, "OrderStatusChanged",
+                statusPayload(orderId, previousStatus, newStatus, history.getTimestamp()));
+        changeLogService.record(ChangeEntityType.ORDER, orderId, ChangeOperation.UPDATED);
 
-        // If order is ready for delivery, create delivery record if it doesn't exist
+        // If order is ready for delivery, create delivery record if it doesn't exist.
+        // The date is only the earliest wanted day; the slot is fixed when a carrier is assigned.
         if (newStatus == OrderStatus.READY_FOR_DELIVERY && order.getDelivery() == null) {
             Delivery delivery = Delivery.builder()
                     .order(order)
                     .status(DeliveryStatus.PENDING)
                     .deliveryDate(LocalDate.now())
+                    .cost(deliveryQuoteService.quoteOrder(order, null).getCost())
                     .build();
-            order.setDelivery(delivery);
+            // Saved directly rather than through the order's cascade so its ID is known here
+            order.setDelivery(deliveryRepository.save(delivery));
+            statusCounterService.deliveryStatusChanged(null, DeliveryStatus.PENDING);
+            changeLogService.record(ChangeEntityType.DELIVERY, order.getDelivery().getId(), ChangeOperation.CREATED);
+        }
+
+        // A cancelled order gives back a carrier slot that has not been picked up yet
+        if (newStatus == OrderStatus.CANCELLED && order.getDelivery() != null
+                && order.getDelivery().getStatus() == DeliveryStatus.ASSIGNED) {
+            deliverySlotService.release(order.getDelivery());
         }
 
         return orderRepository.save(order);
     }
 
+    @RetryOnOptimisticLock
     @Transactional
     public Delivery assignCarrier(Long deliveryId, Long carrierId) {
         Delivery delivery = deliveryRepository.findById(deliveryId)
@@ -64,21 +127,54 @@ public class OrderTrackingService {
             throw new RuntimeException("Can only assign carrier to pending deliveries");
         }
 
-        Carrier carrier = new Carrier();
-        carrier.setId(carrierId);
+        // Served from the second-level cache, and rejects unknown carriers up front
+        Carrier carrier = carrierRepository.findById(carrierId)
+                .orElseThrow(() -> new RuntimeException("Carrier not found"));
+
+        // Take the requested slot if one was set, otherwise the carrier's earliest free slot.
+        // The reservation is undone if this transaction rolls back.
+        if (delivery.getTimeWindow() == null || delivery.getDeliveryDate() == null
+                || !deliverySlotService.reserve(carrierId, delivery.getDeliveryDate(), delivery.getTimeWindow())) {
+            SlotDTO slot = deliverySlotService.reserveNextAvailable(carrierId, delivery.getDeliveryDate())
+                    .orElseThrow(() -> new SlotUnavailableException("Carrier has no free delivery slot"));
+            delivery.setDeliveryDate(slot.getDate());
+            delivery.setTimeWindow(slot.getWindow());
+        }
         delivery.setCarrier(carrier);
         delivery.setStatus(DeliveryStatus.ASSIGNED);
+        statusCounterService.deliveryStatusChanged(DeliveryStatus.PENDING, DeliveryStatus.ASSIGNED);
+
+        // Re-price now that the carrier's surcharge is known
+        if (delivery.getOrder() != null) {
+            Double cost = deliveryQuoteService.quoteOrder(delivery.getOrder(), carrier).getCost();
+            if (cost != null) {
+                delivery.setCost(cost);
+            }
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("deliveryId", deliveryId);
+        payload.put("orderId", delivery.getOrder() != null ? delivery.getOrder().getId() : null);
+        payload.put("carrierId", carrierId);
+        payload.put("deliveryDate", delivery.getDeliveryDate());
+        payload.put("timeWindow", delivery.getTimeWindow());
+        payload.put("timestamp", LocalDateTime.now());
+        outboxService.record("Delivery", deliveryId, "CarrierAssigned", payload);
+        changeLogService.record(ChangeEntityType.DELIVERY, deliveryId, ChangeOperation.UPDATED);
 
         return deliveryRepository.save(delivery);
     }
 
+    @RetryOnOptimisticLock
     @Transactional
     public Delivery updateDeliveryStatus(Long deliveryId, DeliveryStatus newStatus) {
         Delivery delivery = deliveryRepository.findById(deliveryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Delivery not found"));
 
-        validateDeliveryStatusTransition(delivery.getStatus(), newStatus);
+        DeliveryStatus previousStatus = delivery.getStatus();
+        validateDeliveryStatusTransition(previousStatus, newStatus);
         delivery.setStatus(newStatus);
+        statusCounterService.deliveryStatusChanged(previousStatus, newStatus);
 
         // Create tracking history entry
         TrackingHistory history = new TrackingHistory();
@@ -88,56 +184,117 @@ public class OrderTrackingService {
         history.setDescription("Delivery status updated to " + newStatus);
         trackingHistoryRepository.save(history);
 
+        Map<String, Object> payload = statusPayload(deliveryId, previousStatus, newStatus, history.getTimestamp());
+        payload.put("orderId", delivery.getOrder() != null ? delivery.getOrder().getId() : null);
+        outboxService.record("Delivery", deliveryId, "DeliveryStatusChanged", payload);
+        changeLogService.record(ChangeEntityType.DELIVERY, deliveryId, ChangeOperation.UPDATED);
+        carrierPingService.deliveryChanged(deliveryId);
+
+        if (newStatus == DeliveryStatus.FAILED) {
+            deliverySlotService.release(delivery);
+        }
+
         // Update order status based on delivery status
         Order order = delivery.getOrder();
         if (newStatus == DeliveryStatus.DELIVERED) {
+            statusCounterService.orderStatusChanged(order.getStatus(), OrderStatus.DELIVERED);
             order.setStatus(OrderStatus.DELIVERED);
             orderRepository.save(order);
+            changeLogService.record(ChangeEntityType.ORDER, order.getId(), ChangeOperation.UPDATED);
         } else if (newStatus == DeliveryStatus.IN_TRANSIT) {
+            statusCounterService.orderStatusChanged(order.getStatus(), OrderStatus.IN_DELIVERY);
             order.setStatus(OrderStatus.IN_DELIVERY);
             orderRepository.save(order);
+            changeLogService.record(ChangeEntityType.ORDER, order.getId(), ChangeOperation.UPDATED);
         }
 
         return deliveryRepository.save(delivery);
     }
 
+    /**
+     * Tracking summary of an order in either tier; an archived order is served from its snapshot
+     * @param orderId The order ID
+     * @return The tracking summary
+     */
     @Transactional(readOnly = true)
     public OrderTrackingDTO getOrderTrackingInfo(Long orderId) {
-        Order order = orderRepository.findById(orderId)
+        return orderRepository.findTrackingSummary(orderId)
+                .or(() -> orderArchiveService.getArchivedTrackingInfo(orderId))
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+    }
 
-        OrderTrackingDTO trackingInfo = new OrderTrackingDTO();
-        trackingInfo.setOrderId(order.getId());
-        trackingInfo.setOrderStatus(order.getStatus());
-        trackingInfo.setOrderDate(order.getDate());
-        trackingInfo.setTotalAmount(order.getTotalAmount());
-        
-        if (order.getCustomer() != null) {
-            trackingInfo.setCustomerName(order.getCustomer().getName());
-            trackingInfo.setCustomerAddress(order.getCustomer().getAddress());
+    /**
+     * Everything a tracking page shows: the tracking summary from one join query and the latest
+     * history entries from one index range read. The compressed archive is only read for a
+     * closed order whose live history does not fill the page.
+     * @param orderId The order ID
+     * @param historyLimit The maximum number of history entries
+     * @return The summary and the latest history entries, newest first
+     */
+    @Transactional(readOnly = true)
+    public TrackingViewDTO getOrderTrackingView(Long orderId, int historyLimit) {
+        if (historyLimit < 1 || historyLimit > maxViewHistory) {
+            throw new RuntimeException("History limit must be between 1 and " + maxViewHistory);
         }
+        OrderTrackingDTO trackingInfo = getOrderTrackingInfo(orderId);
+        // One extra entry tells whether there is more history than the page shows
+        List<TrackingHistoryDTO> history = new ArrayList<>(
+                trackingHistoryRepository.findLatestByOrderId(orderId, PageRequest.of(0, historyLimit + 1)));
 
-        if (order.getDelivery() != null) {
-            Delivery delivery = order.getDelivery();
-            trackingInfo.setDeliveryId(delivery.getId());
-            trackingInfo.setDeliveryStatus(delivery.getStatus());
-            trackingInfo.setDeliveryDate(delivery.getDeliveryDate());
-            
-            if (delivery.getCarrier() != null) {
-                trackingInfo.setCarrierName(delivery.getCarrier().getName());
-                trackingInfo.setCarrierPhone(delivery.getCarrier().getPhone());
-            }
+        if (history.size() <= historyLimit && CLOSED_STATUSES.contains(trackingInfo.getOrderStatus())) {
+            trackingHistoryArchiveRepository.findByOrderId(orderId).ifPresent(archive -> {
+                for (TrackingHistory entry : TrackingHistoryCodec.decode(archive.getData(), orderReference(orderId))) {
+                    history.add(DtoMapper.toDto(entry));
+                }
+                history.sort(Comparator.comparing(TrackingHistoryDTO::getTimestamp,
+                        Comparator.nullsLast(Comparator.reverseOrder())));
+            });
         }
 
-        return trackingInfo;
+        boolean hasMore = history.size() > historyLimit;
+        return TrackingViewDTO.builder()
+                .tracking(trackingInfo)
+                .history(hasMore ? new ArrayList<>(history.subList(0, historyLimit)) : history)
+                .hasMoreHistory(hasMore)
+                .build();
     }
 
     @Transactional(readOnly = true)
     public List<TrackingHistory> getOrderTrackingHistory(Long orderId) {
-        if (!orderRepository.existsById(orderId)) {
+        if (!orderRepository.existsById(orderId) && orderArchiveService.getArchivedOrder(orderId).isEmpty()) {
             throw new ResourceNotFoundException("Order not found");
         }
-        return trackingHistoryRepository.findByOrderIdOrderByTimestampDesc(orderId);
+        List<TrackingHistory> history = trackingHistoryRepository.findByOrderIdOrderByTimestampDesc(orderId);
+
+        // Closed orders may have part or all of their history in the compressed archive
+        Optional<TrackingHistoryArchive> archive = trackingHistoryArchiveRepository.findByOrderId(orderId);
+        if (archive.isEmpty()) {
+            return history;
+        }
+        List<TrackingHistory> merged = new ArrayList<>(history);
+        merged.addAll(TrackingHistoryCodec.decode(archive.get().getData(), orderReference(orderId)));
+        merged.sort(Comparator.comparing(TrackingHistory::getTimestamp,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return merged;
+    }
+
+    /**
+     * Order that decoded archive entries point at. Built rather than loaded, since an archived
+     * order no longer has a row in orders; callers only read its ID.
+     */
+    private static Order orderReference(Long orderId) {
+        Order order = new Order();
+        order.setId(orderId);
+        return order;
+    }
+
+    private Map<String, Object> statusPayload(Long id, Enum<?> previousStatus, Enum<?> newStatus, LocalDateTime timestamp) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", id);
+        payload.put("previousStatus", previousStatus);
+        payload.put("newStatus", newStatus);
+        payload.put("timestamp", timestamp);
+        return payload;
     }
 
     private void validateOrderStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
@@ -0,0 +1,293 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.Order;
+import com.example.orderdelivery.entity.OrderLine;
+import com.example.orderdelivery.entity.Product;
+import com.example.orderdelivery.repository.OrderRepository;
+import com.example.orderdelivery.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional group-commit path for order creation.
+ * Concurrent createOrder calls are queued and a single writer thread applies up to
+ * orders.batching.max-batch-size of them in one transaction, waiting at most
+ * orders.batching.max-wait-ms for a batch to fill. Larger batches and longer waits
+ * trade per-request latency for fewer commits; the orders.batch.* metrics show the effect.
+ */
+@Service
+public class OrderWritePipeline {
+    private static final Logger log = LoggerFactory.getLogger(OrderWritePipeline.class);
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeLogService changeLogService;
+
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final long callerTimeoutMs;
+    private final BlockingQueue<PendingOrder> queue;
+
+    private final DistributionSummary batchSize;
+    private final Timer batchCommit;
+    private final Counter batchFallbacks;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public OrderWritePipeline(
+            OrderService orderService,
+            OrderRepository orderRepository,
+            ProductRepository productRepository,
+            TransactionTemplate transactionTemplate,
+            ChangeLogService changeLogService,
+            MeterRegistry meterRegistry,
+            @Value("${orders.batching.enabled:false}") boolean enabled,
+            @Value("${orders.batching.max-batch-size:64}") int maxBatchSize,
+            @Value("${orders.batching.max-wait-ms:1}") long maxWaitMs,
+            @Value("${orders.batching.queue-capacity:1024}") int queueCapacity,
+            @Value("${orders.batching.caller-timeout-ms:5000}") long callerTimeoutMs) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.changeLogService = changeLogService;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.callerTimeoutMs = callerTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = DistributionSummary.builder("orders.batch.size").register(meterRegistry);
+        this.batchCommit = Timer.builder("orders.batch.commit").register(meterRegistry);
+        this.batchFallbacks = Counter.builder("orders.batch.fallbacks").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "order-batch-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Creates an order, through the batched writer when enabled.
+     * Falls back to a direct write when batching is disabled or the queue is full.
+     * @param order The order to create
+     * @return The created order
+     */
+    public Order submit(Order order) {
+        if (!running) {
+            return orderService.createOrder(order);
+        }
+
+        PendingOrder pending = new PendingOrder(order);
+        if (!queue.offer(pending)) {
+            return orderService.createOrder(order);
+        }
+
+        try {
+            return pending.result.get(callerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (pending.cancel()) {
+                throw new RuntimeException("Timed out waiting for order to be written; it was not created");
+            }
+            // The writer already took the order; its transaction completes the result either way
+            return await(pending);
+        } catch (ExecutionException e) {
+            throw failure(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.cancel()) {
+                throw new RuntimeException("Interrupted while waiting for order to be written; it was not created");
+            }
+            throw new RuntimeException("Interrupted while the order was being written");
+        }
+    }
+
+    private Order await(PendingOrder pending) {
+        try {
+            return pending.result.get();
+        } catch (ExecutionException e) {
+            throw failure(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while the order was being written");
+        }
+    }
+
+    private static RuntimeException failure(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new RuntimeException("Order creation failed", e.getCause());
+    }
+
+    private void drainLoop() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Hold the batch open for at most max-wait so a lone request is not delayed further
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown: flush whatever is queued before exiting
+                queue.drainTo(batch);
+            }
+
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingOrder> batch) {
+        batchSize.record(batch.size());
+        try {
+            List<PendingOrder> accepted = batchCommit.record(() -> transactionTemplate.execute(status -> applyBatch(batch)));
+            accepted.forEach(pending -> pending.result.complete(pending.order));
+        } catch (RuntimeException e) {
+            // The shared transaction rolled back, typically because a concurrent stock edit won
+            // a product version race. Each order is retried on its own so one conflict does not
+            // fail every caller in the batch.
+            log.debug("Order batch of {} rolled back, writing orders individually", batch.size(), e);
+            batchFallbacks.increment();
+            for (PendingOrder pending : batch) {
+                if (pending.result.isDone() || !pending.claim()) {
+                    continue;
+                }
+                try {
+                    pending.result.complete(orderService.createOrder(pending.order));
+                } catch (RuntimeException ex) {
+                    pending.result.completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies every order in the batch inside the current transaction and returns the
+     * ones that were accepted. Rejected orders are completed immediately with their error;
+     * validation runs before any stock is reserved, so a rejection leaves no partial changes.
+     * Orders whose caller gave up are skipped; the others are claimed so they can no longer
+     * be cancelled.
+     */
+    private List<PendingOrder> applyBatch(List<PendingOrder> batch) {
+        List<PendingOrder> claimed = batch.stream().filter(PendingOrder::claim).toList();
+
+        // Load every referenced product with one IN query; later lookups hit the persistence context
+        Set<Long> productIds = new HashSet<>();
+        for (PendingOrder pending : claimed) {
+            if (pending.order.getOrderLines() != null) {
+                pending.order.getOrderLines().stream()
+                        .map(OrderLine::getProduct)
+                        .filter(Objects::nonNull)
+                        .map(Product::getId)
+                        .filter(Objects::nonNull)
+                        .forEach(productIds::add);
+            }
+        }
+        productRepository.findAllById(productIds);
+
+        List<PendingOrder> accepted = new ArrayList<>(claimed.size());
+        for (PendingOrder pending : claimed) {
+            try {
+                orderService.prepareNewOrder(pending.order);
+                accepted.add(pending);
+            } catch (RuntimeException e) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+
+        // Stock deltas for the whole batch are flushed as one update per product at commit
+        orderRepository.saveAll(accepted.stream().map(pending -> pending.order).toList());
+        changeLogService.recordAll(ChangeEntityType.ORDER,
+                accepted.stream().map(pending -> pending.order.getId()).toList(), ChangeOperation.CREATED);
+        return accepted;
+    }
+
+    private static final class PendingOrder {
+        private static final int QUEUED = 0;
+        private static final int CLAIMED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Order order;
+        private final CompletableFuture<Order> result = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private PendingOrder(Order order) {
+            this.order = order;
+        }
+
+        /**
+         * Take the order for writing
+         * @return false if the caller has already given up on it
+         */
+        private boolean claim() {
+            return state.compareAndSet(QUEUED, CLAIMED) || state.get() == CLAIMED;
+        }
+
+        /**
+         * Give up on the order before the writer takes it
+         * @return false if the writer has already taken it
+         */
+        private boolean cancel() {
+            if (!state.compareAndSet(QUEUED, CANCELLED)) {
+                return false;
+            }
+            result.cancel(false);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.OutboxEvent;
+import com.example.orderdelivery.entity.OutboxStatus;
+import com.example.orderdelivery.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background delivery of outbox events.
+ * Each cycle claims up to outbox.dispatch.batch-size due events with SKIP LOCKED (so several
+ * instances can dispatch side by side), delivers them to every {@link OutboxEventSink} outside
+ * any transaction, then records the outcome. Failed events are retried with exponential backoff
+ * until outbox.dispatch.max-attempts is reached.
+ * A claim is only held for outbox.dispatch.claim-lease-ms, after which another instance may take
+ * the event. No delivery is started once half the lease has passed; the rest of the batch goes
+ * back to PENDING untouched, so slow sinks cannot push a batch past its lease.
+ * Delivered events are purged after outbox.retention-hours; FAILED ones are kept for
+ * outbox.failed-retention-hours so they can still be inspected and replayed.
+ */
+@Service
+public class OutboxDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final int PURGE_CHUNK = 10000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBaseDelayMs;
+    private final long retryMaxDelayMs;
+    private final long claimLeaseMs;
+    private final int retentionHours;
+    private final int failedRetentionHours;
+
+    private final Timer dispatchLag;
+    private final Counter dispatched;
+    private final Counter retried;
+    private final Counter failed;
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong oldestPendingAgeMs = new AtomicLong();
+
+    public OutboxDispatcher(
+            OutboxEventRepository outboxEventRepository,
+            List<OutboxEventSink> sinks,
+            TransactionTemplate transactionTemplate,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.dispatch.batch-size:100}") int batchSize,
+            @Value("${outbox.dispatch.max-attempts:10}") int maxAttempts,
+            @Value("${outbox.dispatch.retry-base-delay-ms:1000}") long retryBaseDelayMs,
+            @Value("${outbox.dispatch.retry-max-delay-ms:300000}") long retryMaxDelayMs,
+            @Value("${outbox.dispatch.claim-lease-ms:60000}") long claimLeaseMs,
+            @Value("${outbox.retention-hours:72}") int retentionHours,
+            @Value("${outbox.failed-retention-hours:720}") int failedRetentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseDelayMs = retryBaseDelayMs;
+        this.retryMaxDelayMs = retryMaxDelayMs;
+        this.claimLeaseMs = claimLeaseMs;
+        this.retentionHours = retentionHours;
+        this.failedRetentionHours = failedRetentionHours;
+        this.dispatchLag = Timer.builder("outbox.dispatch.lag")
+                .description("Time from event creation to successful delivery")
+                .register(meterRegistry);
+        this.dispatched = Counter.builder("outbox.events.dispatched").register(meterRegistry);
+        this.retried = Counter.builder("outbox.events.retried").register(meterRegistry);
+        this.failed = Counter.builder("outbox.events.failed").register(meterRegistry);
+        Gauge.builder("outbox.events.pending", pendingEvents, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("outbox.events.oldest_pending_age_ms", oldestPendingAgeMs, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.dispatch.interval-ms:500}",
+            initialDelayString = "${outbox.dispatch.initial-delay-ms:5000}")
+    public void dispatchPending() {
+        try {
+            // Drain full batches back to back; stop once a batch comes back short
+            int claimed;
+            do {
+                claimed = dispatchBatch();
+            } while (claimed == batchSize);
+            refreshLagGauges();
+        } catch (RuntimeException e) {
+            log.warn("Outbox dispatch cycle failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delete DISPATCHED events older than outbox.retention-hours and FAILED events whose last
+     * attempt is older than outbox.failed-retention-hours
+     */
+    @Scheduled(fixedDelayString = "${outbox.purge-interval-ms:3600000}", initialDelay = 60000)
+    public void purge() {
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(
+                        "DELETE FROM outbox_event WHERE status = 'DISPATCHED' " +
+                                "AND dispatched_at < NOW() - INTERVAL ? HOUR LIMIT " + PURGE_CHUNK,
+                        retentionHours);
+            } while (deleted == PURGE_CHUNK);
+            do {
+                deleted = jdbcTemplate.update(
+                        "DELETE FROM outbox_event WHERE status = 'FAILED' " +
+                                "AND claimed_at < NOW() - INTERVAL ? HOUR LIMIT " + PURGE_CHUNK,
+                        failedRetentionHours);
+            } while (deleted == PURGE_CHUNK);
+        } catch (RuntimeException e) {
+            log.warn("Outbox purge failed: {}", e.getMessage());
+        }
+    }
+
+    private int dispatchBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        long deliverUntil = System.nanoTime() + Duration.ofMillis(claimLeaseMs / 2).toNanos();
+        for (OutboxEvent event : batch) {
+            if (System.nanoTime() - deliverUntil < 0) {
+                deliver(event);
+            } else {
+                release(event);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.saveAll(batch));
+        return batch.size();
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> due = outboxEventRepository.lockDueEvents(
+                now, now.minus(Duration.ofMillis(claimLeaseMs)), batchSize);
+        for (OutboxEvent event : due) {
+            event.setStatus(OutboxStatus.IN_FLIGHT);
+            event.setClaimedAt(now);
+        }
+        return outboxEventRepository.saveAll(due);
+    }
+
+    private void deliver(OutboxEvent event) {
+        event.setAttempts(event.getAttempts() == null ? 1 : event.getAttempts() + 1);
+        try {
+            for (OutboxEventSink sink : sinks) {
+                sink.deliver(event);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            event.setStatus(OutboxStatus.DISPATCHED);
+            event.setDispatchedAt(now);
+            event.setLastError(null);
+            dispatched.increment();
+            if (event.getCreatedAt() != null) {
+                dispatchLag.record(Duration.between(event.getCreatedAt(), now));
+            }
+        } catch (Exception e) {
+            event.setLastError(truncate(e.getClass().getSimpleName() + ": " + e.getMessage()));
+            if (event.getAttempts() >= maxAttempts) {
+                event.setStatus(OutboxStatus.FAILED);
+                failed.increment();
+                log.warn("Outbox event {} failed after {} attempts: {}", event.getId(), event.getAttempts(), e.getMessage());
+            } else {
+                event.setStatus(OutboxStatus.PENDING);
+                event.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoff(event.getAttempts()))));
+                retried.increment();
+            }
+        }
+    }
+
+    /**
+     * Hand an event that was claimed but not attempted back for the next claim
+     */
+    private void release(OutboxEvent event) {
+        event.setStatus(OutboxStatus.PENDING);
+        event.setClaimedAt(null);
+        event.setNextAttemptAt(LocalDateTime.now());
+    }
+
+    private long backoff(int attempts) {
+        long delay = retryBaseDelayMs << Math.min(attempts - 1, 20);
+        return Math.min(delay, retryMaxDelayMs);
+    }
+
+    private void refreshLagGauges() {
+        pendingEvents.set(outboxEventRepository.countByStatus(OutboxStatus.PENDING));
+        oldestPendingAgeMs.set(outboxEventRepository.findFirstByStatusOrderByIdAsc(OutboxStatus.PENDING)
+                .map(event -> Duration.between(event.getCreatedAt(), LocalDateTime.now()).toMillis())
+                .orElse(0L));
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.OutboxEvent;
+
+/**
+ * A downstream destination for outbox events (SMS gateway, partner webhook, ...).
+ * Delivery is at-least-once, so implementations should treat the event ID as an
+ * idempotency key.
+ */
+public interface OutboxEventSink {
+    String getName();
+
+    /**
+     * Deliver one event; throwing schedules the event for another attempt
+     * @param event The event to deliver
+     */
+    void deliver(OutboxEvent event) throws Exception;
+}
@@ -0,0 +1,61 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.OutboxEvent;
+import com.example.orderdelivery.entity.OutboxStatus;
+import com.example.orderdelivery.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Records domain events in the outbox table as part of the caller's transaction.
+ * Delivery to downstream systems happens later in {@link OutboxDispatcher}, so the
+ * request path only pays for one insert.
+ */
+@Service
+public class OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Add an event to the outbox; must be called inside the transaction making the change
+     * @param aggregateType The kind of entity the event is about (e.g. "Order")
+     * @param aggregateId The entity ID
+     * @param eventType The event name (e.g. "OrderStatusChanged")
+     * @param payload The event body, serialized as JSON
+     * @return The stored event
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent record(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent event = OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(toJson(payload))
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+        return outboxEventRepository.save(event);
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize outbox payload", e);
+        }
+    }
+}
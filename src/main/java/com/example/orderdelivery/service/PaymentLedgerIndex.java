@@ -0,0 +1,178 @@
+package com.example.orderdelivery.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Compact in-memory view of orders and their payments for reconciliation.
+ * Each order/payment pair is one row in parallel primitive arrays, reachable through
+ * open-addressing hash indexes on order ID and payment ID, so the footprint is a few dozen
+ * bytes per order and no boxed keys are allocated.
+ */
+final class PaymentLedgerIndex {
+    private static final int NOT_FOUND = -1;
+
+    private long[] orderIds = new long[1024];
+    private long[] paymentIds = new long[1024];
+    private double[] orderTotals = new double[1024];
+    private double[] paymentAmounts = new double[1024];
+    private int size;
+
+    private final LongIntHashMap byOrderId = new LongIntHashMap();
+    private final LongIntHashMap byPaymentId = new LongIntHashMap();
+    private BitSet seen;
+
+    /**
+     * Add one row of the keyed pass; an order without a payment has paymentId 0
+     */
+    void add(long orderId, double orderTotal, long paymentId, double paymentAmount) {
+        if (size == orderIds.length) {
+            int capacity = size * 2;
+            orderIds = Arrays.copyOf(orderIds, capacity);
+            paymentIds = Arrays.copyOf(paymentIds, capacity);
+            orderTotals = Arrays.copyOf(orderTotals, capacity);
+            paymentAmounts = Arrays.copyOf(paymentAmounts, capacity);
+        }
+        orderIds[size] = orderId;
+        paymentIds[size] = paymentId;
+        orderTotals[size] = orderTotal;
+        paymentAmounts[size] = paymentAmount;
+        byOrderId.putIfAbsent(orderId, size);
+        if (paymentId != 0) {
+            byPaymentId.putIfAbsent(paymentId, size);
+        }
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return The row of the payment, or not found for an unknown or non-positive ID
+     */
+    int findByPaymentId(long paymentId) {
+        return paymentId > 0 ? byPaymentId.get(paymentId) : NOT_FOUND;
+    }
+
+    /**
+     * @return The first row of the order, or not found for an unknown or non-positive ID
+     */
+    int findByOrderId(long orderId) {
+        return orderId > 0 ? byOrderId.get(orderId) : NOT_FOUND;
+    }
+
+    long orderId(int row) {
+        return orderIds[row];
+    }
+
+    long paymentId(int row) {
+        return paymentIds[row];
+    }
+
+    /**
+     * The amount a statement line for this row should carry: the recorded payment amount,
+     * or the order total if the payment has no amount or does not exist yet
+     */
+    double expectedAmount(int row) {
+        return Double.isNaN(paymentAmounts[row]) ? orderTotals[row] : paymentAmounts[row];
+    }
+
+    double orderTotal(int row) {
+        return orderTotals[row];
+    }
+
+    double paymentAmount(int row) {
+        return paymentAmounts[row];
+    }
+
+    /**
+     * Whether the recorded payment covers the order total within the tolerance. A row without
+     * a payment amount or without an order total has nothing to compare and passes.
+     */
+    boolean paymentMatchesOrderTotal(int row, double tolerance) {
+        double amount = paymentAmounts[row];
+        double total = orderTotals[row];
+        return Double.isNaN(amount) || Double.isNaN(total) || Math.abs(amount - total) <= tolerance;
+    }
+
+    /**
+     * Mark a row as matched by a statement line
+     * @return false if an earlier line already matched the same row
+     */
+    boolean markSeen(int row) {
+        if (seen == null) {
+            seen = new BitSet(size);
+        }
+        if (seen.get(row)) {
+            return false;
+        }
+        seen.set(row);
+        return true;
+    }
+
+    static boolean isFound(int row) {
+        return row != NOT_FOUND;
+    }
+
+    /**
+     * Open-addressing hash map from positive long keys to int values, linear probing.
+     * Key 0 marks an empty slot, so it is never stored and never found.
+     */
+    static final class LongIntHashMap {
+        private long[] keys = new long[2048];
+        private int[] values = new int[2048];
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == 0) {
+                    return NOT_FOUND;
+                }
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+        }
+
+        void putIfAbsent(long key, int value) {
+            if (key <= 0) {
+                throw new IllegalArgumentException("Key must be positive: " + key);
+            }
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return;
+                }
+                if (keys[slot] == 0) {
+                    keys[slot] = key;
+                    values[slot] = value;
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    putIfAbsent(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
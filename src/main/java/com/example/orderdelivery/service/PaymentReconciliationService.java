@@ -0,0 +1,368 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.ReconciliationResult;
+import com.example.orderdelivery.entity.ReconciliationRun;
+import com.example.orderdelivery.entity.ReconciliationStatus;
+import com.example.orderdelivery.repository.ReconciliationResultRepository;
+import com.example.orderdelivery.repository.ReconciliationRunRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reconciles bank and cash-on-delivery statements against recorded payments and order totals.
+ * Orders and payments are first read in one streamed keyed pass into a {@link PaymentLedgerIndex};
+ * the statement is then read line by line and every outcome is written to reconciliation_result
+ * in JDBC batches, so memory grows with the number of indexed orders, never with the file.
+ * <p>
+ * A statement is a CSV (comma or semicolon separated) with a header naming its columns:
+ * amount plus payment_id and/or order_id are required, reference is optional.
+ * <p>
+ * A line that agrees with its payment is only MATCHED if the payment also covers the order
+ * total; an underpaid or overpaid order is reported as AMOUNT_MISMATCH with its own message.
+ */
+@Service
+public class PaymentReconciliationService {
+    private static final Logger log = LoggerFactory.getLogger(PaymentReconciliationService.class);
+
+    private static final String INSERT_RESULT =
+            "INSERT INTO reconciliation_result (run_id, line_number, order_id, payment_id, reference, " +
+                    "statement_amount, expected_amount, order_total, payment_amount, status, message) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationResultRepository resultRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final Map<ReconciliationStatus, Counter> lineCounters = new EnumMap<>(ReconciliationStatus.class);
+    private final double tolerance;
+    private final int batchSize;
+
+    public PaymentReconciliationService(
+            ReconciliationRunRepository runRepository,
+            ReconciliationResultRepository resultRepository,
+            JdbcTemplate jdbcTemplate,
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${reconciliation.amount-tolerance:0.005}") double tolerance,
+            @Value("${reconciliation.batch-size:1000}") int batchSize) {
+        this.runRepository = runRepository;
+        this.resultRepository = resultRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        for (ReconciliationStatus status : ReconciliationStatus.values()) {
+            lineCounters.put(status, Counter.builder("reconciliation.lines")
+                    .tag("status", status.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        this.tolerance = tolerance;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reconcile a statement
+     * @param fileName The statement name, for the run record
+     * @param statement The statement content; it is read once, sequentially
+     * @param from If set, only orders from this date on are indexed
+     * @param to If set, only orders up to this date are indexed
+     * @return The finished run with its counts and throughput
+     * @throws IOException If the statement cannot be read or has no usable header
+     */
+    public ReconciliationRun reconcile(String fileName, InputStream statement, LocalDate from, LocalDate to)
+            throws IOException {
+        ReconciliationRun run = runRepository.save(ReconciliationRun.builder()
+                .fileName(fileName)
+                .startedAt(LocalDateTime.now())
+                .build());
+
+        long indexStart = System.nanoTime();
+        PaymentLedgerIndex index = buildIndex(from, to);
+        long indexBuildMs = (System.nanoTime() - indexStart) / 1_000_000;
+
+        long matchStart = System.nanoTime();
+        long[] counts = new long[ReconciliationStatus.values().length];
+        long lines = 0;
+        List<ReconciliationResult> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(statement, StandardCharsets.UTF_8))) {
+            StatementLayout layout = StatementLayout.parse(reader.readLine());
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                lines++;
+                ReconciliationResult result = match(run.getId(), lines, layout, line, index);
+                counts[result.getStatus().ordinal()]++;
+                batch.add(result);
+                if (batch.size() == batchSize) {
+                    writeResults(batch);
+                }
+            }
+        }
+        writeResults(batch);
+
+        long matchNanos = System.nanoTime() - matchStart;
+        for (ReconciliationStatus status : ReconciliationStatus.values()) {
+            lineCounters.get(status).increment(counts[status.ordinal()]);
+        }
+        run.setFinishedAt(LocalDateTime.now());
+        run.setTotalLines(lines);
+        run.setMatched(counts[ReconciliationStatus.MATCHED.ordinal()]);
+        run.setMismatched(counts[ReconciliationStatus.AMOUNT_MISMATCH.ordinal()]);
+        run.setDuplicates(counts[ReconciliationStatus.DUPLICATE.ordinal()]);
+        run.setUnmatched(counts[ReconciliationStatus.UNMATCHED.ordinal()]);
+        run.setInvalid(counts[ReconciliationStatus.INVALID.ordinal()]);
+        run.setIndexedOrders((long) index.size());
+        run.setIndexBuildMs(indexBuildMs);
+        run.setDurationMs(indexBuildMs + matchNanos / 1_000_000);
+        run.setLinesPerSecond(matchNanos > 0 ? Math.round(lines * 1e9 / matchNanos * 10) / 10.0 : 0.0);
+        log.info("Reconciled {} statement lines of {} against {} orders in {} ms ({} lines/s)",
+                lines, fileName, index.size(), run.getDurationMs(), run.getLinesPerSecond());
+        return runRepository.save(run);
+    }
+
+    public Optional<ReconciliationRun> getRun(Long runId) {
+        return runRepository.findById(runId);
+    }
+
+    /**
+     * Get one page of a run's results
+     * @param runId The run ID
+     * @param status Only results with this status, or all if null
+     * @param page The zero-based page
+     * @param size The page size
+     * @return Results in statement line order
+     */
+    public List<ReconciliationResult> getResults(Long runId, ReconciliationStatus status, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, size);
+        return status == null
+                ? resultRepository.findByRunIdOrderByLineNumberAsc(runId, pageable)
+                : resultRepository.findByRunIdAndStatusOrderByLineNumberAsc(runId, status, pageable);
+    }
+
+    private PaymentLedgerIndex buildIndex(LocalDate from, LocalDate to) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT o.id, o.total_amount, p.id, p.amount FROM orders o LEFT JOIN payment p ON p.order_id = o.id");
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(args.isEmpty() ? " WHERE" : " AND").append(" o.date >= ?");
+            args.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(args.isEmpty() ? " WHERE" : " AND").append(" o.date <= ?");
+            args.add(Date.valueOf(to));
+        }
+
+        PaymentLedgerIndex index = new PaymentLedgerIndex();
+        streamingJdbcTemplate.query(sql.toString(), resultSet -> {
+            double total = resultSet.getDouble(2);
+            if (resultSet.wasNull()) {
+                total = Double.NaN;
+            }
+            long paymentId = resultSet.getLong(3);
+            double amount = resultSet.getDouble(4);
+            if (resultSet.wasNull()) {
+                amount = Double.NaN;
+            }
+            index.add(resultSet.getLong(1), total, paymentId, amount);
+        }, args.toArray());
+        return index;
+    }
+
+    private ReconciliationResult match(Long runId, long lineNumber, StatementLayout layout, String line,
+                                       PaymentLedgerIndex index) {
+        ReconciliationResult result = ReconciliationResult.builder().runId(runId).lineNumber(lineNumber).build();
+        try {
+            String[] fields = layout.split(line);
+            Long paymentId = layout.longField(fields, layout.paymentIdColumn);
+            Long orderId = layout.longField(fields, layout.orderIdColumn);
+            result.setOrderId(orderId);
+            result.setPaymentId(paymentId);
+            result.setReference(truncate(layout.field(fields, layout.referenceColumn)));
+            double amount = layout.amount(fields);
+            result.setStatementAmount(amount);
+
+            int row = paymentId != null ? index.findByPaymentId(paymentId) : -1;
+            if (!PaymentLedgerIndex.isFound(row) && orderId != null) {
+                row = index.findByOrderId(orderId);
+            }
+            if (!PaymentLedgerIndex.isFound(row)) {
+                result.setStatus(ReconciliationStatus.UNMATCHED);
+                result.setMessage("No matching payment or order");
+                return result;
+            }
+
+            result.setOrderId(index.orderId(row));
+            result.setPaymentId(index.paymentId(row) != 0 ? index.paymentId(row) : null);
+            double expected = index.expectedAmount(row);
+            result.setExpectedAmount(Double.isNaN(expected) ? null : expected);
+            result.setOrderTotal(nullIfNaN(index.orderTotal(row)));
+            result.setPaymentAmount(nullIfNaN(index.paymentAmount(row)));
+            if (!index.markSeen(row)) {
+                result.setStatus(ReconciliationStatus.DUPLICATE);
+                result.setMessage("Payment already matched by an earlier line");
+            } else if (Double.isNaN(expected) || Math.abs(expected - amount) > tolerance) {
+                result.setStatus(ReconciliationStatus.AMOUNT_MISMATCH);
+                result.setMessage("Statement amount differs from the recorded amount");
+            } else if (!index.paymentMatchesOrderTotal(row, tolerance)) {
+                result.setStatus(ReconciliationStatus.AMOUNT_MISMATCH);
+                result.setMessage("Recorded payment amount differs from the order total");
+            } else {
+                result.setStatus(ReconciliationStatus.MATCHED);
+            }
+        } catch (RuntimeException e) {
+            result.setStatus(ReconciliationStatus.INVALID);
+            result.setMessage(truncate("Unreadable line: " + e.getMessage()));
+        }
+        return result;
+    }
+
+    private void writeResults(List<ReconciliationResult> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_RESULT, batch, batch.size(), (statement, result) -> {
+            statement.setLong(1, result.getRunId());
+            statement.setLong(2, result.getLineNumber());
+            statement.setObject(3, result.getOrderId());
+            statement.setObject(4, result.getPaymentId());
+            statement.setString(5, result.getReference());
+            statement.setObject(6, result.getStatementAmount());
+            statement.setObject(7, result.getExpectedAmount());
+            statement.setObject(8, result.getOrderTotal());
+            statement.setObject(9, result.getPaymentAmount());
+            statement.setString(10, result.getStatus().name());
+            statement.setString(11, result.getMessage());
+        });
+        batch.clear();
+    }
+
+    private static Double nullIfNaN(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > 255 ? value.substring(0, 255) : value;
+    }
+
+    /**
+     * Column positions and separator of a statement, taken from its header line
+     */
+    private static final class StatementLayout {
+        private final char separator;
+        private final int amountColumn;
+        private final int paymentIdColumn;
+        private final int orderIdColumn;
+        private final int referenceColumn;
+
+        private StatementLayout(char separator, int amountColumn, int paymentIdColumn,
+                                int orderIdColumn, int referenceColumn) {
+            this.separator = separator;
+            this.amountColumn = amountColumn;
+            this.paymentIdColumn = paymentIdColumn;
+            this.orderIdColumn = orderIdColumn;
+            this.referenceColumn = referenceColumn;
+        }
+
+        static StatementLayout parse(String header) throws IOException {
+            if (header == null) {
+                throw new IOException("Statement is empty");
+            }
+            char separator = header.indexOf(';') >= 0 ? ';' : ',';
+            int amount = -1;
+            int paymentId = -1;
+            int orderId = -1;
+            int reference = -1;
+            String[] columns = splitLine(header.replace("\uFEFF", ""), separator);
+            for (int i = 0; i < columns.length; i++) {
+                switch (columns[i].trim().toLowerCase(Locale.ROOT).replace(" ", "_")) {
+                    case "amount" -> amount = i;
+                    case "payment_id", "paymentid" -> paymentId = i;
+                    case "order_id", "orderid" -> orderId = i;
+                    case "reference", "ref" -> reference = i;
+                    default -> {
+                        // Other columns are carried by the bank but not needed for matching
+                    }
+                }
+            }
+            if (amount < 0 || (paymentId < 0 && orderId < 0)) {
+                throw new IOException("Statement header must name amount and payment_id or order_id");
+            }
+            return new StatementLayout(separator, amount, paymentId, orderId, reference);
+        }
+
+        String[] split(String line) {
+            return splitLine(line, separator);
+        }
+
+        String field(String[] fields, int column) {
+            if (column < 0 || column >= fields.length) {
+                return null;
+            }
+            String value = fields[column].trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        Long longField(String[] fields, int column) {
+            String value = field(fields, column);
+            return value != null ? Long.valueOf(value) : null;
+        }
+
+        double amount(String[] fields) {
+            String value = field(fields, amountColumn);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing amount");
+            }
+            // Semicolon-separated statements use a decimal comma
+            return Double.parseDouble(separator == ';' ? value.replace(',', '.') : value);
+        }
+
+        private static String[] splitLine(String line, char separator) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = !quoted;
+                    }
+                } else if (c == separator && !quoted) {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            fields.add(current.toString());
+            return fields.toArray(new String[0]);
+        }
+    }
+}
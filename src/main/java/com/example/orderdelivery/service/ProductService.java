@@ -1,18 +1,32 @@
 package com.example.orderdelivery.service;
 
+import com.example.orderdelivery.config.RetryOnOptimisticLock;
 import com.example.orderdelivery.entity.Product;
+import com.example.orderdelivery.exception.StaleVersionException;
 import com.example.orderdelivery.repository.ProductRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class ProductService {
     private final ProductRepository productRepository;
+    private final ResourceVersionTracker resourceVersionTracker;
+    private final StockLevelService stockLevelService;
+    private final ChangeLogService changeLogService;
+    private final EntityMultiLoader entityMultiLoader;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ResourceVersionTracker resourceVersionTracker,
+                          StockLevelService stockLevelService, ChangeLogService changeLogService,
+                          EntityMultiLoader entityMultiLoader) {
         this.productRepository = productRepository;
+        this.resourceVersionTracker = resourceVersionTracker;
+        this.stockLevelService = stockLevelService;
+        this.changeLogService = changeLogService;
+        this.entityMultiLoader = entityMultiLoader;
     }
 
     public List<Product> getAllProducts() {
@@ -23,11 +37,56 @@ public class ProductService {
         return productRepository.findById(id);
     }
 
+    /**
+     * @param ids The product IDs
+     * @return Each distinct ID in order, mapped to its product or to null if it does not exist
+     */
+    public Map<Long, Product> getProductsByIds(List<Long> ids) {
+        return entityMultiLoader.load(Product.class, ids);
+    }
+
+    @Transactional
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        boolean created = product.getId() == null;
+        Product savedProduct = productRepository.save(product);
+        resourceVersionTracker.markChanged(ResourceVersionTracker.PRODUCTS, savedProduct.getId());
+        stockLevelService.stockChanged(savedProduct);
+        changeLogService.record(ChangeEntityType.PRODUCT, savedProduct.getId(),
+                created ? ChangeOperation.CREATED : ChangeOperation.UPDATED);
+        return savedProduct;
+    }
+
+    /**
+     * Copies editable fields onto the stored product, provided the client edited its current
+     * version; a write that races in after the check is retried against it
+     * @param expectedVersion The version the client's copy was read at
+     * @throws StaleVersionException If the product has changed since
+     */
+    @RetryOnOptimisticLock
+    @Transactional
+    public Optional<Product> updateProduct(Long id, Product product, Long expectedVersion) {
+        return productRepository.findById(id).map(existingProduct -> {
+            StaleVersionException.check("Product", id, expectedVersion, existingProduct.getVersion());
+            existingProduct.setName(product.getName());
+            existingProduct.setDescription(product.getDescription());
+            existingProduct.setPrice(product.getPrice());
+            existingProduct.setStock(product.getStock());
+            existingProduct.setCategory(product.getCategory());
+            existingProduct.setWeight(product.getWeight());
+            existingProduct.setVolume(product.getVolume());
+            existingProduct.setReorderPoint(product.getReorderPoint());
+            resourceVersionTracker.markChanged(ResourceVersionTracker.PRODUCTS, id);
+            stockLevelService.stockChanged(existingProduct);
+            changeLogService.record(ChangeEntityType.PRODUCT, id, ChangeOperation.UPDATED);
+            return productRepository.save(existingProduct);
+        });
     }
 
+    @Transactional
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        resourceVersionTracker.markChanged(ResourceVersionTracker.PRODUCTS, id);
+        stockLevelService.productRemoved(id);
+        changeLogService.record(ChangeEntityType.PRODUCT, id, ChangeOperation.DELETED);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,336 @@
+package com.example.orderdelivery.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads orders, products, deliveries and tracking views with only the properties and relations
+ * in a {@link FieldSelection}. The selection becomes the SELECT list, only the joins the chosen
+ * columns and to-one relations need are added, and order lines are read with one extra IN query
+ * for all the orders read, so asking for less reads less.
+ */
+@Service
+public class ProjectionService {
+    // Parent IDs per IN query when loading to-many relations
+    private static final int IN_CHUNK = 1000;
+
+    private static final ProjectionSpec PRODUCTS = ProjectionSpec.from("product p", "id")
+            .column("id", "p.id", Long.class)
+            .column("name", "p.name", String.class)
+            .column("description", "p.description", String.class)
+            .column("price", "p.price", Double.class)
+            .column("stock", "p.stock", Integer.class)
+            .column("category", "p.category", String.class)
+            .column("weight", "p.weight", Double.class)
+            .column("volume", "p.volume", Double.class)
+            .column("reorderPoint", "p.reorder_point", Integer.class)
+            .column("version", "p.version", Long.class);
+
+    private static final ProjectionSpec ORDER_LINES = ProjectionSpec.from("order_line ol", "id")
+            .join("product", "LEFT JOIN product p ON p.id = ol.product_id")
+            .column("id", "ol.id", Long.class)
+            .column("orderId", "ol.order_id", Long.class)
+            .column("productId", "ol.product_id", Long.class)
+            .column("productName", "p.name", String.class, "product")
+            .column("quantity", "ol.quantity", Integer.class)
+            .column("unitPrice", "ol.unit_price", Double.class);
+
+    private static final ProjectionSpec ORDERS = ProjectionSpec.from("orders o", "id")
+            .join("customer", "LEFT JOIN customer c ON c.id = o.customer_id")
+            .join("delivery", "LEFT JOIN delivery d ON d.order_id = o.id")
+            .join("payment", "LEFT JOIN payment pay ON pay.order_id = o.id")
+            .column("id", "o.id", Long.class)
+            .column("date", "o.date", LocalDate.class)
+            .column("status", "o.status", String.class)
+            .column("totalAmount", "o.total_amount", Double.class)
+            .column("version", "o.version", Long.class)
+            .column("customerId", "o.customer_id", Long.class)
+            .column("deliveryId", "d.id", Long.class, "delivery")
+            .column("deliveryStatus", "d.status", String.class, "delivery")
+            .column("paymentId", "pay.id", Long.class, "payment")
+            .column("paymentStatus", "pay.status", String.class, "payment")
+            .toOne("customer", "customer", ProjectionSpec.nested()
+                    .column("id", "c.id", Long.class)
+                    .column("name", "c.name", String.class)
+                    .column("email", "c.email", String.class)
+                    .column("address", "c.address", String.class)
+                    .column("latitude", "c.latitude", Double.class)
+                    .column("longitude", "c.longitude", Double.class))
+            .toOne("delivery", "delivery", ProjectionSpec.nested()
+                    .column("id", "d.id", Long.class)
+                    .column("carrierId", "d.carrier_id", Long.class)
+                    .column("deliveryDate", "d.delivery_date", LocalDate.class)
+                    .column("timeWindow", "d.time_window", String.class)
+                    .column("cost", "d.cost", Double.class)
+                    .column("status", "d.status", String.class)
+                    .column("version", "d.version", Long.class))
+            .toOne("payment", "payment", ProjectionSpec.nested()
+                    .column("id", "pay.id", Long.class)
+                    .column("amount", "pay.amount", Double.class)
+                    .column("date", "pay.payment_date", LocalDate.class)
+                    .column("status", "pay.status", String.class)
+                    .column("method", "pay.payment_method", String.class))
+            .toMany("orderLines", ORDER_LINES, "ol.order_id");
+
+    private static final ProjectionSpec DELIVERIES = ProjectionSpec.from("delivery d", "id")
+            .join("carrier", "LEFT JOIN carrier car ON car.id = d.carrier_id")
+            .join("order", "LEFT JOIN orders o ON o.id = d.order_id")
+            .column("id", "d.id", Long.class)
+            .column("orderId", "d.order_id", Long.class)
+            .column("carrierId", "d.carrier_id", Long.class)
+            .column("deliveryDate", "d.delivery_date", LocalDate.class)
+            .column("timeWindow", "d.time_window", String.class)
+            .column("cost", "d.cost", Double.class)
+            .column("status", "d.status", String.class)
+            .column("version", "d.version", Long.class)
+            .toOne("carrier", "carrier", ProjectionSpec.nested()
+                    .column("id", "car.id", Long.class)
+                    .column("name", "car.name", String.class)
+                    .column("phone", "car.phone", String.class)
+                    .column("note", "car.note", String.class)
+                    .column("surchargeRate", "car.surcharge_rate", Double.class)
+                    .column("surchargeAmount", "car.surcharge_amount", Double.class))
+            .toOne("order", "order", ProjectionSpec.nested()
+                    .column("id", "o.id", Long.class)
+                    .column("date", "o.date", LocalDate.class)
+                    .column("status", "o.status", String.class)
+                    .column("totalAmount", "o.total_amount", Double.class));
+
+    private static final ProjectionSpec TRACKING = ProjectionSpec.from("orders o", "orderId")
+            .join("customer", "LEFT JOIN customer c ON c.id = o.customer_id")
+            .join("delivery", "LEFT JOIN delivery d ON d.order_id = o.id")
+            .join("carrier", "LEFT JOIN carrier car ON car.id = d.carrier_id", "delivery")
+            .column("orderId", "o.id", Long.class)
+            .column("orderStatus", "o.status", String.class)
+            .column("orderDate", "o.date", LocalDate.class)
+            .column("totalAmount", "o.total_amount", Double.class)
+            .column("deliveryId", "d.id", Long.class, "delivery")
+            .column("deliveryStatus", "d.status", String.class, "delivery")
+            .column("deliveryDate", "d.delivery_date", LocalDate.class, "delivery")
+            .column("carrierName", "car.name", String.class, "carrier")
+            .column("carrierPhone", "car.phone", String.class, "carrier")
+            .column("customerName", "c.name", String.class, "customer")
+            .column("customerAddress", "c.address", String.class, "customer");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProjectionService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Map<String, Object>> findOrders(FieldSelection selection) {
+        return query("orders", ORDERS, selection, null);
+    }
+
+    public Optional<Map<String, Object>> findOrder(Long id, FieldSelection selection) {
+        return first(query("orders", ORDERS, selection, id));
+    }
+
+    public List<Map<String, Object>> findProducts(FieldSelection selection) {
+        return query("products", PRODUCTS, selection, null);
+    }
+
+    public Optional<Map<String, Object>> findProduct(Long id, FieldSelection selection) {
+        return first(query("products", PRODUCTS, selection, id));
+    }
+
+    public List<Map<String, Object>> findDeliveries(FieldSelection selection) {
+        return query("deliveries", DELIVERIES, selection, null);
+    }
+
+    public Optional<Map<String, Object>> findDelivery(Long id, FieldSelection selection) {
+        return first(query("deliveries", DELIVERIES, selection, id));
+    }
+
+    public Optional<Map<String, Object>> findOrderTracking(Long orderId, FieldSelection selection) {
+        return first(query("tracking", TRACKING, selection, orderId));
+    }
+
+    /**
+     * Read one resource, or all of them in key order when id is null
+     */
+    private List<Map<String, Object>> query(String resource, ProjectionSpec spec, FieldSelection selection, Long id) {
+        Map<String, Set<String>> relations = new LinkedHashMap<>();
+        selection.getIncludes().forEach((name, fields) -> relations.put(name, new LinkedHashSet<>(fields)));
+        List<String> properties = new ArrayList<>();
+        properties.add(spec.key);
+        Set<String> fields = selection.getFields();
+        for (String field : fields != null ? fields : spec.columns.keySet()) {
+            if (spec.columns.containsKey(field)) {
+                if (!properties.contains(field)) {
+                    properties.add(field);
+                }
+            } else if (spec.toOne.containsKey(field) || spec.toMany.containsKey(field)) {
+                relations.putIfAbsent(field, new LinkedHashSet<>());
+            } else {
+                throw new RuntimeException("Unknown field for " + resource + ": " + field);
+            }
+        }
+
+        SelectList select = new SelectList();
+        List<Selected> columns = new ArrayList<>();
+        for (String property : properties) {
+            columns.add(select.add(property, spec.columns.get(property)));
+        }
+        Map<String, List<Selected>> toOneColumns = new LinkedHashMap<>();
+        Map<String, Set<String>> toManyFields = new LinkedHashMap<>();
+        relations.forEach((relation, relationFields) -> {
+            ProjectionSpec.ToOne toOne = spec.toOne.get(relation);
+            if (toOne != null) {
+                select.joins.add(toOne.join());
+                List<Selected> nested = new ArrayList<>();
+                for (String property : propertiesOf(resource + "." + relation, toOne.columns(), relationFields)) {
+                    nested.add(select.add(property, toOne.columns().columns.get(property)));
+                }
+                toOneColumns.put(relation, nested);
+            } else if (spec.toMany.containsKey(relation)) {
+                // Checked here so an unknown child field fails before any query runs
+                propertiesOf(resource + "." + relation, spec.toMany.get(relation).child(), relationFields);
+                toManyFields.put(relation, relationFields);
+            } else {
+                throw new RuntimeException("Unknown relation for " + resource + ": " + relation);
+            }
+        });
+
+        String keySql = spec.columns.get(spec.key).sql();
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", select.expressions))
+                .append(" FROM ").append(spec.from);
+        appendJoins(sql, spec, select.joins);
+        List<Map<String, Object>> rows;
+        if (id != null) {
+            sql.append(" WHERE ").append(keySql).append(" = ?");
+            rows = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> mapRow(rs, columns, toOneColumns), id);
+        } else {
+            sql.append(" ORDER BY ").append(keySql);
+            rows = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> mapRow(rs, columns, toOneColumns));
+        }
+
+        toManyFields.forEach((relation, relationFields) ->
+                loadToMany(resource + "." + relation, spec.key, rows, relation, spec.toMany.get(relation), relationFields));
+        return rows;
+    }
+
+    private void loadToMany(String resource, String parentKey, List<Map<String, Object>> parents, String relation,
+                            ProjectionSpec.ToMany toMany, Set<String> fields) {
+        ProjectionSpec child = toMany.child();
+        SelectList select = new SelectList();
+        List<Selected> columns = new ArrayList<>();
+        for (String property : propertiesOf(resource, child, fields)) {
+            columns.add(select.add(property, child.columns.get(property)));
+        }
+        select.expressions.add(toMany.parentKey() + " AS parent_key");
+
+        Map<Long, List<Map<String, Object>>> byParent = new HashMap<>();
+        List<Long> parentIds = new ArrayList<>();
+        for (Map<String, Object> parent : parents) {
+            Long id = (Long) parent.get(parentKey);
+            parentIds.add(id);
+            byParent.put(id, new ArrayList<>());
+        }
+        for (int from = 0; from < parentIds.size(); from += IN_CHUNK) {
+            List<Long> chunk = parentIds.subList(from, Math.min(from + IN_CHUNK, parentIds.size()));
+            StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", select.expressions))
+                    .append(" FROM ").append(child.from);
+            appendJoins(sql, child, select.joins);
+            sql.append(" WHERE ").append(toMany.parentKey()).append(" IN (")
+                    .append(String.join(", ", Collections.nCopies(chunk.size(), "?"))).append(")")
+                    .append(" ORDER BY ").append(child.columns.get(child.key).sql());
+            jdbcTemplate.query(sql.toString(), rs -> {
+                byParent.get(rs.getLong("parent_key")).add(mapRow(rs, columns, Map.of()));
+            }, chunk.toArray());
+        }
+        for (Map<String, Object> parent : parents) {
+            parent.put(relation, byParent.get((Long) parent.get(parentKey)));
+        }
+    }
+
+    /**
+     * @return The key followed by the requested properties, or all properties if none were named
+     */
+    private static List<String> propertiesOf(String resource, ProjectionSpec spec, Set<String> fields) {
+        List<String> properties = new ArrayList<>();
+        properties.add(spec.key);
+        for (String field : fields.isEmpty() ? spec.columns.keySet() : fields) {
+            if (!spec.columns.containsKey(field)) {
+                throw new RuntimeException("Unknown field for " + resource + ": " + field);
+            }
+            if (!properties.contains(field)) {
+                properties.add(field);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Append the needed joins and the joins they depend on, in declaration order
+     */
+    private static void appendJoins(StringBuilder sql, ProjectionSpec spec, Set<String> needed) {
+        Set<String> closure = new LinkedHashSet<>();
+        List<String> pending = new ArrayList<>(needed);
+        while (!pending.isEmpty()) {
+            String name = pending.remove(pending.size() - 1);
+            if (closure.add(name)) {
+                pending.addAll(spec.joins.get(name).requires());
+            }
+        }
+        spec.joins.forEach((name, join) -> {
+            if (closure.contains(name)) {
+                sql.append(' ').append(join.sql());
+            }
+        });
+    }
+
+    private static Map<String, Object> mapRow(ResultSet rs, List<Selected> columns,
+                                              Map<String, List<Selected>> toOneColumns) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (Selected column : columns) {
+            row.put(column.property(), rs.getObject(column.label(), column.type()));
+        }
+        for (Map.Entry<String, List<Selected>> relation : toOneColumns.entrySet()) {
+            Map<String, Object> nested = new LinkedHashMap<>();
+            for (Selected column : relation.getValue()) {
+                nested.put(column.property(), rs.getObject(column.label(), column.type()));
+            }
+            // The key is selected first; null means the outer join found nothing
+            row.put(relation.getKey(), nested.values().iterator().next() != null ? nested : null);
+        }
+        return row;
+    }
+
+    private static Optional<Map<String, Object>> first(List<Map<String, Object>> rows) {
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    private record Selected(String property, String label, Class<?> type) {
+    }
+
+    /**
+     * SELECT expressions with generated labels, and the joins they need
+     */
+    private static final class SelectList {
+        private final List<String> expressions = new ArrayList<>();
+        private final Set<String> joins = new LinkedHashSet<>();
+
+        Selected add(String property, ProjectionSpec.Column column) {
+            String label = "c" + expressions.size();
+            expressions.add(column.sql() + " AS " + label);
+            if (column.join() != null) {
+                joins.add(column.join());
+            }
+            return new Selected(property, label, column.type());
+        }
+    }
+}
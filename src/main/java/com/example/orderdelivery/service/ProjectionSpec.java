@@ -0,0 +1,76 @@
+package com.example.orderdelivery.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes how a resource's properties map onto SQL for {@link ProjectionService}: the base
+ * table, the columns behind each property, the joins a column or relation needs, to-one
+ * relations read through a join and to-many relations read with a second IN query.
+ */
+final class ProjectionSpec {
+
+    record Column(String sql, Class<?> type, String join) {
+    }
+
+    record Join(String sql, List<String> requires) {
+    }
+
+    record ToOne(String join, ProjectionSpec columns) {
+    }
+
+    record ToMany(ProjectionSpec child, String parentKey) {
+    }
+
+    final String from;
+    final String key;
+    final Map<String, Column> columns = new LinkedHashMap<>();
+    final Map<String, Join> joins = new LinkedHashMap<>();
+    final Map<String, ToOne> toOne = new LinkedHashMap<>();
+    final Map<String, ToMany> toMany = new LinkedHashMap<>();
+
+    private ProjectionSpec(String from, String key) {
+        this.from = from;
+        this.key = key;
+    }
+
+    /**
+     * @param from The table and alias, e.g. "orders o"
+     * @param key The identifying property, always selected
+     */
+    static ProjectionSpec from(String from, String key) {
+        return new ProjectionSpec(from, key);
+    }
+
+    /**
+     * The properties of a to-one relation, read from its join
+     */
+    static ProjectionSpec nested() {
+        return new ProjectionSpec(null, "id");
+    }
+
+    ProjectionSpec join(String name, String sql, String... requires) {
+        joins.put(name, new Join(sql, List.of(requires)));
+        return this;
+    }
+
+    ProjectionSpec column(String property, String sql, Class<?> type) {
+        return column(property, sql, type, null);
+    }
+
+    ProjectionSpec column(String property, String sql, Class<?> type, String join) {
+        columns.put(property, new Column(sql, type, join));
+        return this;
+    }
+
+    ProjectionSpec toOne(String property, String join, ProjectionSpec columns) {
+        toOne.put(property, new ToOne(join, columns));
+        return this;
+    }
+
+    ProjectionSpec toMany(String property, ProjectionSpec child, String parentKey) {
+        toMany.put(property, new ToMany(child, parentKey));
+        return this;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.orderdelivery.service;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, array-backed form of the delivery rate card (see quote/rate-card.csv).
+ * Region-to-region rates are expanded into a flat governorate-by-governorate matrix at load
+ * time, so pricing a parcel is one array read for the route and a binary search per band table.
+ */
+final class RateCard {
+    private final Map<String, Integer> zoneIndex;
+    private final int zoneCount;
+    private final double[] baseRates;
+    private final double[] weightLimits;
+    private final double[] weightSurcharges;
+    private final double[] sizeLimits;
+    private final double[] sizeSurcharges;
+
+    private RateCard(Map<String, Integer> zoneIndex, double[] baseRates,
+                     double[][] weightBands, double[][] sizeBands) {
+        this.zoneIndex = zoneIndex;
+        this.zoneCount = zoneIndex.size();
+        this.baseRates = baseRates;
+        this.weightLimits = weightBands[0];
+        this.weightSurcharges = weightBands[1];
+        this.sizeLimits = sizeBands[0];
+        this.sizeSurcharges = sizeBands[1];
+    }
+
+    static RateCard load(String resource) {
+        Map<String, String> regionOf = new LinkedHashMap<>();
+        Map<String, Double> regionRates = new HashMap<>();
+        Double localRate = null;
+        List<double[]> weightBands = new ArrayList<>();
+        List<double[]> sizeBands = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(resource).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                switch (fields[0]) {
+                    case "region" -> regionOf.put(fields[1], fields[2]);
+                    case "rate" -> {
+                        double rate = Double.parseDouble(fields[3]);
+                        regionRates.put(fields[1] + "|" + fields[2], rate);
+                        regionRates.put(fields[2] + "|" + fields[1], rate);
+                    }
+                    case "local" -> localRate = Double.parseDouble(fields[1]);
+                    case "weight" -> weightBands.add(band(fields));
+                    case "size" -> sizeBands.add(band(fields));
+                    default -> throw new IllegalStateException("Unknown rate card entry: " + line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load " + resource, e);
+        }
+
+        Map<String, Integer> zoneIndex = new HashMap<>();
+        List<String> zones = new ArrayList<>(regionOf.keySet());
+        for (int i = 0; i < zones.size(); i++) {
+            zoneIndex.put(zones.get(i), i);
+        }
+        double[] baseRates = new double[zones.size() * zones.size()];
+        for (int origin = 0; origin < zones.size(); origin++) {
+            for (int destination = 0; destination < zones.size(); destination++) {
+                String route = regionOf.get(zones.get(origin)) + "|" + regionOf.get(zones.get(destination));
+                Double rate = origin == destination && localRate != null ? localRate : regionRates.get(route);
+                if (rate == null) {
+                    throw new IllegalStateException("Rate card has no rate for " + route);
+                }
+                baseRates[origin * zones.size() + destination] = rate;
+            }
+        }
+        return new RateCard(zoneIndex, baseRates, bands(weightBands), bands(sizeBands));
+    }
+
+    /**
+     * @param governorate The governorate name
+     * @return The zone index, or -1 if the governorate is not on the rate card
+     */
+    int zone(String governorate) {
+        return governorate == null ? -1 : zoneIndex.getOrDefault(governorate, -1);
+    }
+
+    double baseRate(int origin, int destination) {
+        return baseRates[origin * zoneCount + destination];
+    }
+
+    double weightSurcharge(double weightKg) {
+        return bandValue(weightLimits, weightSurcharges, weightKg);
+    }
+
+    double sizeSurcharge(double volumeLiters) {
+        return bandValue(sizeLimits, sizeSurcharges, volumeLiters);
+    }
+
+    private static double bandValue(double[] limits, double[] values, double amount) {
+        int index = Arrays.binarySearch(limits, amount);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return values[Math.min(index, values.length - 1)];
+    }
+
+    private static double[] band(String[] fields) {
+        double limit = "*".equals(fields[1]) ? Double.POSITIVE_INFINITY : Double.parseDouble(fields[1]);
+        return new double[]{limit, Double.parseDouble(fields[2])};
+    }
+
+    private static double[][] bands(List<double[]> bands) {
+        bands.sort((a, b) -> Double.compare(a[0], b[0]));
+        double[][] columns = new double[2][bands.size()];
+        for (int i = 0; i < bands.size(); i++) {
+            columns[0][i] = bands.get(i)[0];
+            columns[1][i] = bands.get(i)[1];
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.orderdelivery.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Writes one type of report for the {@link ReportJobService}. Generators run on the report
+ * worker pool and write to a spool file, so they may stream as much data as the report needs.
+ */
+public interface ReportGenerator {
+    ReportType getType();
+
+    String getContentType();
+
+    String getFileExtension();
+
+    /**
+     * Check the parameters when the job is submitted
+     * @param params The job parameters
+     * @throws RuntimeException If a parameter is missing or invalid
+     */
+    void validate(Map<String, String> params);
+
+    /**
+     * Write the report
+     * @param params The job parameters, already validated
+     * @param out The spool file
+     * @param progress Progress to advance while writing
+     */
+    void generate(Map<String, String> params, OutputStream out, ReportProgress progress) throws IOException;
+
+    static String requireParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new RuntimeException("Missing report parameter: " + name);
+        }
+        return value.trim();
+    }
+
+    static LocalDate dateParam(Map<String, String> params, String name) {
+        try {
+            return LocalDate.parse(requireParam(params, name));
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Report parameter " + name + " must be an ISO date");
+        }
+    }
+
+    static Long longParam(Map<String, String> params, String name) {
+        try {
+            return Long.parseLong(requireParam(params, name));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Report parameter " + name + " must be a number");
+        }
+    }
+
+    static void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("Report endDate must not be before startDate");
+        }
+    }
+}
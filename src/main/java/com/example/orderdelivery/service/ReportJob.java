@@ -0,0 +1,36 @@
+package com.example.orderdelivery.service;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * State of one submitted report; owned by the {@link ReportJobService}
+ */
+final class ReportJob {
+    final String id;
+    final ReportType type;
+    final Map<String, String> params;
+    final ReportProgress progress = new ReportProgress();
+    final LocalDateTime submittedAt = LocalDateTime.now();
+
+    volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+    volatile LocalDateTime startedAt;
+    volatile LocalDateTime finishedAt;
+    volatile LocalDateTime expiresAt;
+    volatile Path result;
+    volatile long resultSize;
+    volatile String error;
+    volatile Future<?> future;
+
+    ReportJob(String id, ReportType type, Map<String, String> params) {
+        this.id = id;
+        this.type = type;
+        this.params = params;
+    }
+
+    boolean isFinished() {
+        return status != ReportJobStatus.QUEUED && status != ReportJobStatus.RUNNING;
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.dto.ReportJobDTO;
+import com.example.orderdelivery.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs reports as background jobs so they never hold a request thread. Submitted jobs wait in a
+ * FIFO queue of at most reports.queue-capacity and are started on a pool of reports.workers
+ * threads; a job only starts when its type is also below its limit in reports.concurrency-limits
+ * (Type:n pairs), so one kind of heavy report cannot take every worker. Results are spooled to
+ * files under reports.spool-dir and deleted, with the job, reports.result-ttl-minutes after it
+ * finishes. Jobs are held in memory by the instance that accepted them.
+ */
+@Service
+public class ReportJobService {
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final Map<ReportType, ReportGenerator> generators = new EnumMap<>(ReportType.class);
+    private final Map<ReportType, Integer> concurrencyLimits = new EnumMap<>(ReportType.class);
+    private final Map<ReportType, Integer> runningByType = new EnumMap<>(ReportType.class);
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Deque<ReportJob> queue = new ArrayDeque<>();
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+    private final Path spoolDir;
+    private final int workers;
+    private final int queueCapacity;
+    private final Duration resultTtl;
+    private int running;
+
+    public ReportJobService(
+            List<ReportGenerator> generators,
+            MeterRegistry meterRegistry,
+            @Value("${reports.workers:2}") int workers,
+            @Value("${reports.queue-capacity:50}") int queueCapacity,
+            @Value("${reports.concurrency-limits:}") List<String> concurrencyLimits,
+            @Value("${reports.spool-dir:${java.io.tmpdir}/order-delivery-reports}") String spoolDir,
+            @Value("${reports.result-ttl-minutes:60}") long resultTtlMinutes) {
+        for (ReportGenerator generator : generators) {
+            this.generators.put(generator.getType(), generator);
+        }
+        for (String entry : concurrencyLimits) {
+            int separator = entry.lastIndexOf(':');
+            if (separator > 0) {
+                this.concurrencyLimits.put(ReportType.valueOf(entry.substring(0, separator).trim()),
+                        Integer.parseInt(entry.substring(separator + 1).trim()));
+            }
+        }
+        this.meterRegistry = meterRegistry;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.spoolDir = Paths.get(spoolDir);
+        this.resultTtl = Duration.ofMinutes(resultTtlMinutes);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+
+        Gauge.builder("reports.queued", this, service -> service.countQueued()).register(meterRegistry);
+        Gauge.builder("reports.running", this, service -> service.countRunning()).register(meterRegistry);
+    }
+
+    /**
+     * Queue a report
+     * @param type The report type
+     * @param params The report parameters
+     * @return The queued job
+     * @throws RejectedExecutionException If the queue is full
+     */
+    public ReportJobDTO submit(ReportType type, Map<String, String> params) {
+        ReportGenerator generator = type != null ? generators.get(type) : null;
+        if (generator == null) {
+            throw new RuntimeException("Unknown report type: " + type);
+        }
+        Map<String, String> copy = params != null ? Map.copyOf(params) : Map.of();
+        generator.validate(copy);
+
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), type, copy);
+        synchronized (this) {
+            if (queue.size() >= queueCapacity) {
+                throw new RejectedExecutionException("Report queue is full");
+            }
+            jobs.put(job.id, job);
+            queue.addLast(job);
+            dispatch();
+        }
+        return toDto(job);
+    }
+
+    public Optional<ReportJobDTO> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(this::toDto);
+    }
+
+    /**
+     * @return Every job this instance still holds, newest first
+     */
+    public List<ReportJobDTO> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((ReportJob job) -> job.submittedAt).reversed())
+                .map(this::toDto)
+                .toList();
+    }
+
+    /**
+     * @param id The job ID
+     * @return The spooled result
+     * @throws ResourceNotFoundException If the job is unknown or expired
+     * @throws IllegalStateException If the job has not completed
+     */
+    public ReportResult getResult(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Report job not found with id: " + id);
+        }
+        if (job.status != ReportJobStatus.COMPLETED) {
+            throw new IllegalStateException("Report job " + id + " is " + job.status);
+        }
+        ReportGenerator generator = generators.get(job.type);
+        String fileName = job.type.name().toLowerCase(Locale.ROOT).replace('_', '-') + "-" + job.id + "." + generator.getFileExtension();
+        return new ReportResult(job.result, generator.getContentType(), fileName, job.resultSize);
+    }
+
+    /**
+     * Cancel a queued or running job, or discard a finished job's result
+     * @param id The job ID
+     * @return false if the job is unknown
+     */
+    public boolean cancel(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+        synchronized (this) {
+            if (queue.remove(job)) {
+                finish(job, ReportJobStatus.CANCELLED, null);
+            } else if (job.status == ReportJobStatus.RUNNING) {
+                job.progress.cancel();
+                if (job.future != null) {
+                    job.future.cancel(true);
+                }
+                // The worker records the cancellation and removes its partial file
+                return true;
+            }
+        }
+        discard(job);
+        return true;
+    }
+
+    /**
+     * Forget jobs whose results have expired and delete spool files no job owns, such as
+     * those left by a previous run
+     */
+    @Scheduled(fixedDelayString = "${reports.cleanup-interval-ms:60000}", initialDelay = 5000)
+    public void cleanup() {
+        LocalDateTime now = LocalDateTime.now();
+        for (ReportJob job : jobs.values()) {
+            if (job.isFinished() && job.expiresAt != null && job.expiresAt.isBefore(now)) {
+                discard(job);
+            }
+        }
+        if (!Files.isDirectory(spoolDir)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - resultTtl.toMillis();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int dot = name.indexOf('.');
+                String jobId = dot > 0 ? name.substring(0, dot) : name;
+                if (!jobs.containsKey(jobId) && Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Report spool cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start queued jobs, oldest first, while workers are free. A job whose type is at its
+     * limit is skipped so later jobs of other types can start.
+     */
+    private synchronized void dispatch() {
+        Iterator<ReportJob> pending = queue.iterator();
+        while (running < workers && pending.hasNext()) {
+            ReportJob job = pending.next();
+            int runningOfType = runningByType.getOrDefault(job.type, 0);
+            if (runningOfType >= concurrencyLimits.getOrDefault(job.type, workers)) {
+                continue;
+            }
+            pending.remove();
+            runningByType.put(job.type, runningOfType + 1);
+            running++;
+            job.status = ReportJobStatus.RUNNING;
+            job.startedAt = LocalDateTime.now();
+            job.future = executor.submit(() -> run(job));
+        }
+    }
+
+    private void run(ReportJob job) {
+        long start = System.nanoTime();
+        ReportJobStatus outcome = ReportJobStatus.FAILED;
+        Path partial = spoolDir.resolve(job.id + PARTIAL_SUFFIX);
+        try {
+            Files.createDirectories(spoolDir);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                generators.get(job.type).generate(job.params, out, job.progress);
+            }
+            job.progress.checkCancelled();
+            Path result = spoolDir.resolve(job.id + "." + generators.get(job.type).getFileExtension());
+            Files.move(partial, result, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.result = result;
+            job.resultSize = Files.size(result);
+            outcome = ReportJobStatus.COMPLETED;
+        } catch (CancellationException | InterruptedIOException e) {
+            outcome = ReportJobStatus.CANCELLED;
+        } catch (Exception e) {
+            if (job.progress.isCancelled()) {
+                // Cancelling interrupts the worker, which can surface as any I/O or database error
+                outcome = ReportJobStatus.CANCELLED;
+                return;
+            }
+            log.warn("Report job {} ({}) failed: {}", job.id, job.type, e.getMessage());
+            job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } finally {
+            if (outcome != ReportJobStatus.COMPLETED) {
+                deleteQuietly(partial);
+            }
+            Timer.builder("reports.duration")
+                    .tag("type", job.type.name())
+                    .tag("outcome", outcome.name())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            synchronized (this) {
+                runningByType.merge(job.type, -1, Integer::sum);
+                running--;
+                finish(job, outcome, job.error);
+                dispatch();
+            }
+        }
+    }
+
+    private void finish(ReportJob job, ReportJobStatus status, String error) {
+        job.error = error;
+        job.finishedAt = LocalDateTime.now();
+        job.expiresAt = job.finishedAt.plus(resultTtl);
+        job.status = status;
+    }
+
+    private void discard(ReportJob job) {
+        jobs.remove(job.id);
+        if (job.result != null) {
+            deleteQuietly(job.result);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete report file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private synchronized int countQueued() {
+        return queue.size();
+    }
+
+    private synchronized int countRunning() {
+        return running;
+    }
+
+    private ReportJobDTO toDto(ReportJob job) {
+        long processed = job.progress.getProcessed();
+        long total = job.progress.getTotal();
+        Double progress = null;
+        if (job.status == ReportJobStatus.COMPLETED) {
+            progress = 1.0;
+        } else if (total > 0) {
+            progress = Math.min(1.0, (double) processed / total);
+        } else if (total == 0) {
+            progress = 0.0;
+        }
+        return ReportJobDTO.builder()
+                .id(job.id)
+                .type(job.type)
+                .status(job.status)
+                .params(job.params)
+                .processed(processed)
+                .total(total)
+                .progress(progress)
+                .submittedAt(job.submittedAt)
+                .startedAt(job.startedAt)
+                .finishedAt(job.finishedAt)
+                .expiresAt(job.expiresAt)
+                .resultSize(job.status == ReportJobStatus.COMPLETED ? job.resultSize : null)
+                .error(job.error)
+                .build();
+    }
+}
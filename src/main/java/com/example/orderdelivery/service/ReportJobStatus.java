@@ -0,0 +1,9 @@
+package com.example.orderdelivery.service;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,55 @@
+package com.example.orderdelivery.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one report job. Generators set the total when they know it and advance as they
+ * write; advancing throws CancellationException once the job has been cancelled, which is how
+ * a running report stops.
+ */
+public final class ReportProgress {
+    private final AtomicLong processed = new AtomicLong();
+    private volatile long total = -1;
+    private volatile boolean cancelled;
+
+    /**
+     * @param total The number of units the report will process, e.g. rows
+     */
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * @param count The number of units just processed
+     */
+    public void advance(long count) {
+        checkCancelled();
+        processed.addAndGet(count);
+    }
+
+    public void checkCancelled() {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Report cancelled");
+        }
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    /**
+     * @return The total, or -1 if not known yet
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.orderdelivery.service;
+
+import java.nio.file.Path;
+
+/**
+ * A finished report's spool file
+ */
+public record ReportResult(Path path, String contentType, String fileName, long size) {
+}
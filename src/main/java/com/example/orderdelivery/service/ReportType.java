@@ -0,0 +1,7 @@
+package com.example.orderdelivery.service;
+
+public enum ReportType {
+    INVENTORY_MOVEMENT,
+    SUPPLIER_REVENUE,
+    SALES_EXPORT
+}
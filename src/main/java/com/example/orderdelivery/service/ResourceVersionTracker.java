@@ -0,0 +1,76 @@
+package com.example.orderdelivery.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version counters per aggregate (products, suppliers, ...) used to build
+ * strong ETags for read endpoints without querying the database.
+ * Counters are bumped after the writing transaction commits, so a reader can never pair
+ * pre-commit data with a post-commit tag. The per-process epoch keeps tags from an
+ * earlier run from matching after a restart. Changes are also published on the
+ * {@link CacheInvalidationBus}, and changes made on other nodes bump the local counters.
+ */
+@Service
+public class ResourceVersionTracker {
+    public static final String PRODUCTS = "products";
+    public static final String SUPPLIERS = "suppliers";
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final CacheInvalidationBus invalidationBus;
+
+    public ResourceVersionTracker(CacheInvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+        for (String aggregate : new String[]{PRODUCTS, SUPPLIERS}) {
+            invalidationBus.subscribe(aggregate, key -> counter(aggregate).incrementAndGet());
+        }
+    }
+
+    /**
+     * Build the current ETag for an aggregate; read it before loading the data it describes
+     * @param aggregate The aggregate name
+     * @return A quoted strong ETag
+     */
+    public String etag(String aggregate) {
+        return "\"" + aggregate + "-" + epoch + "-" + counter(aggregate).get() + "\"";
+    }
+
+    /**
+     * Record that an aggregate changed. Inside a transaction the bump is deferred until commit
+     * and skipped on rollback; outside one it happens immediately.
+     * @param aggregate The aggregate name
+     */
+    public void markChanged(String aggregate) {
+        markChanged(aggregate, null);
+    }
+
+    /**
+     * Record that one entity of an aggregate changed
+     * @param aggregate The aggregate name
+     * @param id The changed entity's ID, or null if several changed
+     */
+    public void markChanged(String aggregate, Object id) {
+        invalidationBus.publish(aggregate, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counter(aggregate).incrementAndGet();
+                }
+            });
+        } else {
+            counter(aggregate).incrementAndGet();
+        }
+    }
+
+    private AtomicLong counter(String aggregate) {
+        return versions.computeIfAbsent(aggregate, key -> new AtomicLong());
+    }
+}
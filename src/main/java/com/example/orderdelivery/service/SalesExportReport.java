@@ -0,0 +1,129 @@
+package com.example.orderdelivery.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Every order line in a date range as CSV, one row per line in date order.
+ * Parameters: startDate, endDate. Rows are streamed from the database straight to the spool
+ * file, so the range is not limited by memory. Orders moved to order_archive are included: their
+ * lines are unpacked from the archived order JSON with JSON_TABLE in the same query, and only
+ * the monthly partitions covering the range are read.
+ */
+@Component
+public class SalesExportReport implements ReportGenerator {
+    private static final String HEADER =
+            "order_id,date,status,customer_id,product_id,product_name,quantity,unit_price,line_total\n";
+    private static final String ARCHIVED_LINES =
+            "JSON_TABLE(a.order_json, '$.orderLines[*]' COLUMNS (" +
+                    "line_id BIGINT PATH '$.id', " +
+                    "product_id BIGINT PATH '$.productId', " +
+                    "product_name VARCHAR(255) PATH '$.productName', " +
+                    "quantity INT PATH '$.quantity', " +
+                    "unit_price DOUBLE PATH '$.unitPrice')) l";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public SalesExportReport(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Override
+    public ReportType getType() {
+        return ReportType.SALES_EXPORT;
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/csv";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "csv";
+    }
+
+    @Override
+    public void validate(Map<String, String> params) {
+        ReportGenerator.validateRange(ReportGenerator.dateParam(params, "startDate"),
+                ReportGenerator.dateParam(params, "endDate"));
+    }
+
+    @Override
+    public void generate(Map<String, String> params, OutputStream out, ReportProgress progress) throws IOException {
+        Date startDate = Date.valueOf(ReportGenerator.dateParam(params, "startDate"));
+        Date endDate = Date.valueOf(ReportGenerator.dateParam(params, "endDate"));
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM orders o JOIN order_line ol ON ol.order_id = o.id " +
+                        "WHERE o.date BETWEEN ? AND ?) + " +
+                        "(SELECT COALESCE(SUM(JSON_LENGTH(a.order_json, '$.orderLines')), 0) FROM order_archive a " +
+                        "WHERE a.date BETWEEN ? AND ?)",
+                Long.class, startDate, endDate, startDate, endDate);
+        progress.setTotal(total != null ? total : 0);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+        try {
+            streamingJdbcTemplate.query(
+                    "SELECT o.id AS order_id, o.date AS order_date, o.status, o.customer_id, ol.product_id, " +
+                            "p.name, ol.quantity, ol.unit_price, ol.id AS line_id " +
+                            "FROM orders o JOIN order_line ol ON ol.order_id = o.id " +
+                            "LEFT JOIN product p ON p.id = ol.product_id " +
+                            "WHERE o.date BETWEEN ? AND ? " +
+                            "UNION ALL " +
+                            "SELECT a.id, a.date, a.status, a.customer_id, l.product_id, " +
+                            "COALESCE(p.name, l.product_name), l.quantity, l.unit_price, l.line_id " +
+                            "FROM order_archive a CROSS JOIN " + ARCHIVED_LINES + " " +
+                            "LEFT JOIN product p ON p.id = l.product_id " +
+                            "WHERE a.date BETWEEN ? AND ? " +
+                            "ORDER BY order_date, order_id, line_id",
+                    rs -> {
+                        int quantity = rs.getInt(7);
+                        double unitPrice = rs.getDouble(8);
+                        try {
+                            writer.write(rs.getLong(1) + "," + rs.getDate(2).toLocalDate() + ","
+                                    + csv(rs.getString(3)) + "," + nullable(rs.getObject(4)) + ","
+                                    + nullable(rs.getObject(5)) + "," + csv(rs.getString(6)) + ","
+                                    + quantity + "," + unitPrice + "," + quantity * unitPrice + "\n");
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        progress.advance(1);
+                    },
+                    startDate, endDate, startDate, endDate);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static String nullable(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
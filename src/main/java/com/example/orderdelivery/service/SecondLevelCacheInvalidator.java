@@ -0,0 +1,45 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.Carrier;
+import com.example.orderdelivery.entity.Customer;
+import com.example.orderdelivery.entity.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts second-level cache entries for Product, Customer and Carrier changed on other nodes.
+ * Hibernate keeps the local cache consistent with local writes only; without this a node would
+ * serve another node's stale copy until the region TTL in ehcache.xml expires.
+ */
+@Component
+public class SecondLevelCacheInvalidator {
+    private final CacheInvalidationBus invalidationBus;
+    private final Cache cache;
+
+    public SecondLevelCacheInvalidator(CacheInvalidationBus invalidationBus, EntityManagerFactory entityManagerFactory) {
+        this.invalidationBus = invalidationBus;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(CacheInvalidationBus.PRODUCTS, key -> {
+            evict(Product.class, key);
+            // Cached findByCategory results may list the product; the query cache only sees local writes
+            cache.evictDefaultQueryRegion();
+        });
+        invalidationBus.subscribe(CacheInvalidationBus.CUSTOMERS, key -> evict(Customer.class, key));
+        invalidationBus.subscribe(CacheInvalidationBus.CARRIERS, key -> evict(Carrier.class, key));
+    }
+
+    private void evict(Class<?> entityClass, String key) {
+        if (key == null) {
+            cache.evictEntityData(entityClass);
+        } else {
+            cache.evictEntityData(entityClass, Long.valueOf(key));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.dto.StatusSummaryDTO;
+import com.example.orderdelivery.entity.DeliveryStatus;
+import com.example.orderdelivery.entity.OrderStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Number of orders and deliveries in each status, kept in LongAdders so the dashboard summary
+ * is a few memory reads. Writers report each transition and the counters move when the
+ * transaction commits. The counts are reconciled against the database every
+ * status-counters.reconcile-interval-ms, and sooner (at most every min-reconcile-interval-ms)
+ * after another node reports a transition through the {@link CacheInvalidationBus} or a write
+ * path could not say which status it replaced.
+ */
+@Service
+public class StatusCounterService {
+    private static final Logger log = LoggerFactory.getLogger(StatusCounterService.class);
+    private static final String REGION = "order-status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final long reconcileIntervalMs;
+    private final long minReconcileIntervalMs;
+
+    private final Map<OrderStatus, LongAdder> orderCounts = new EnumMap<>(OrderStatus.class);
+    private final Map<DeliveryStatus, LongAdder> deliveryCounts = new EnumMap<>(DeliveryStatus.class);
+    private volatile boolean stale = true;
+    private volatile long lastReconcileMillis;
+    private volatile LocalDateTime reconciledAt;
+
+    public StatusCounterService(
+            JdbcTemplate jdbcTemplate,
+            CacheInvalidationBus invalidationBus,
+            MeterRegistry meterRegistry,
+            @Value("${status-counters.reconcile-interval-ms:60000}") long reconcileIntervalMs,
+            @Value("${status-counters.min-reconcile-interval-ms:5000}") long minReconcileIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBus = invalidationBus;
+        this.reconcileIntervalMs = reconcileIntervalMs;
+        this.minReconcileIntervalMs = minReconcileIntervalMs;
+        for (OrderStatus status : OrderStatus.values()) {
+            LongAdder count = new LongAdder();
+            orderCounts.put(status, count);
+            Gauge.builder("orders.status.count", count, LongAdder::sum).tag("status", status.name())
+                    .register(meterRegistry);
+        }
+        for (DeliveryStatus status : DeliveryStatus.values()) {
+            LongAdder count = new LongAdder();
+            deliveryCounts.put(status, count);
+            Gauge.builder("deliveries.status.count", count, LongAdder::sum).tag("status", status.name())
+                    .register(meterRegistry);
+        }
+        invalidationBus.subscribe(REGION, key -> stale = true);
+    }
+
+    /**
+     * Record an order status transition
+     * @param from The previous status, or null for a new order
+     * @param to The new status, or null for a deleted order
+     */
+    public void orderStatusChanged(OrderStatus from, OrderStatus to) {
+        if (from != to) {
+            transition(orderCounts.get(from), orderCounts.get(to));
+        }
+    }
+
+    /**
+     * Record a delivery status transition
+     * @param from The previous status, or null for a new delivery
+     * @param to The new status, or null for a deleted delivery
+     */
+    public void deliveryStatusChanged(DeliveryStatus from, DeliveryStatus to) {
+        if (from != to) {
+            transition(deliveryCounts.get(from), deliveryCounts.get(to));
+        }
+    }
+
+    /**
+     * Record a change whose previous status is unknown; the counts are reconciled soon after
+     */
+    public void markStale() {
+        stale = true;
+        invalidationBus.publish(REGION, null);
+    }
+
+    public StatusSummaryDTO getSummary() {
+        Map<OrderStatus, Long> orders = new EnumMap<>(OrderStatus.class);
+        orderCounts.forEach((status, count) -> orders.put(status, count.sum()));
+        Map<DeliveryStatus, Long> deliveries = new EnumMap<>(DeliveryStatus.class);
+        deliveryCounts.forEach((status, count) -> deliveries.put(status, count.sum()));
+        return StatusSummaryDTO.builder()
+                .orders(orders)
+                .deliveries(deliveries)
+                .reconciledAt(reconciledAt)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${status-counters.check-interval-ms:1000}", initialDelay = 5000)
+    public void reconcileIfDue() {
+        long sinceLast = System.currentTimeMillis() - lastReconcileMillis;
+        if (sinceLast < reconcileIntervalMs && !(stale && sinceLast >= minReconcileIntervalMs)) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Status counter reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private void reconcile() {
+        lastReconcileMillis = System.currentTimeMillis();
+        stale = false;
+        boolean settled = reconcile(orderCounts, "orders", OrderStatus::valueOf)
+                & reconcile(deliveryCounts, "delivery", DeliveryStatus::valueOf);
+        if (!settled) {
+            // Some counts moved while they were being checked; look again at the next chance
+            stale = true;
+        }
+        reconciledAt = LocalDateTime.now();
+    }
+
+    /**
+     * Correct each counter to the database count, skipping counters that moved while the
+     * database was read since their transition may or may not be in the count
+     * @return true if every counter was checked
+     */
+    private <S extends Enum<S>> boolean reconcile(Map<S, LongAdder> counts, String table,
+                                                  Function<String, S> parse) {
+        Map<S, Long> before = snapshot(counts);
+        Map<S, Long> actual = new HashMap<>();
+        // Status values come from the enum; the table name is one of two constants
+        jdbcTemplate.query("SELECT status, COUNT(*) AS total FROM " + table + " WHERE status IS NOT NULL GROUP BY status",
+                rs -> {
+                    try {
+                        actual.put(parse.apply(rs.getString("status")), rs.getLong("total"));
+                    } catch (IllegalArgumentException e) {
+                        // Unknown status value in the table; not counted
+                    }
+                });
+        Map<S, Long> after = snapshot(counts);
+        boolean settled = true;
+        for (Map.Entry<S, LongAdder> entry : counts.entrySet()) {
+            S status = entry.getKey();
+            if (!before.get(status).equals(after.get(status))) {
+                settled = false;
+                continue;
+            }
+            long drift = actual.getOrDefault(status, 0L) - after.get(status);
+            if (drift != 0) {
+                entry.getValue().add(drift);
+            }
+        }
+        return settled;
+    }
+
+    private static <S extends Enum<S>> Map<S, Long> snapshot(Map<S, LongAdder> counts) {
+        Map<S, Long> values = new HashMap<>();
+        counts.forEach((status, count) -> values.put(status, count.sum()));
+        return values;
+    }
+
+    private void transition(LongAdder from, LongAdder to) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(from, to);
+                }
+            });
+        } else {
+            apply(from, to);
+        }
+        invalidationBus.publish(REGION, null);
+    }
+
+    private static void apply(LongAdder from, LongAdder to) {
+        if (from != null) {
+            from.decrement();
+        }
+        if (to != null) {
+            to.increment();
+        }
+    }
+}
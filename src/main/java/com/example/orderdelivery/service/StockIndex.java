@@ -0,0 +1,85 @@
+package com.example.orderdelivery.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Products ordered by stock level. A skip list keyed by (stock, product ID) answers
+ * "stock below t" as a head set in O(log n + k); a hash map finds a product's current entry
+ * so an update is one remove and one insert. Writers are serialized, readers never block.
+ * Entries carry the product's version, and an update older than the indexed entry is ignored,
+ * so the index does not depend on the order in which commits report their changes.
+ */
+final class StockIndex {
+
+    record Entry(long productId, int stock, int reorderPoint, long version) {
+        boolean belowReorderPoint() {
+            return stock < reorderPoint;
+        }
+    }
+
+    private static final Comparator<Entry> BY_STOCK =
+            Comparator.comparingInt(Entry::stock).thenComparingLong(Entry::productId);
+
+    private final NavigableSet<Entry> byStock = new ConcurrentSkipListSet<>(BY_STOCK);
+    private final Map<Long, Entry> byProduct = new ConcurrentHashMap<>();
+
+    /**
+     * Set a product's stock level and reorder point as of a product version
+     * @return The entry before the call, or null if the product was not indexed. If its version
+     *         is newer than the given one, the update was ignored and it is still current.
+     */
+    synchronized Entry update(long productId, int stock, int reorderPoint, long version) {
+        Entry previous = byProduct.get(productId);
+        if (previous != null) {
+            if (previous.version() > version) {
+                return previous;
+            }
+            byStock.remove(previous);
+        }
+        Entry entry = new Entry(productId, stock, reorderPoint, version);
+        byProduct.put(productId, entry);
+        byStock.add(entry);
+        return previous;
+    }
+
+    synchronized void remove(long productId) {
+        Entry previous = byProduct.remove(productId);
+        if (previous != null) {
+            byStock.remove(previous);
+        }
+    }
+
+    synchronized void retainOnly(Set<Long> productIds) {
+        byProduct.values().removeIf(entry -> {
+            if (productIds.contains(entry.productId())) {
+                return false;
+            }
+            byStock.remove(entry);
+            return true;
+        });
+    }
+
+    /**
+     * @param threshold Exclusive upper bound on stock
+     * @return IDs of products with stock below the threshold, lowest stock first
+     */
+    List<Long> below(int threshold) {
+        NavigableSet<Entry> head = byStock.headSet(new Entry(Long.MIN_VALUE, threshold, 0, 0), false);
+        List<Long> ids = new ArrayList<>();
+        for (Entry entry : head) {
+            ids.add(entry.productId());
+        }
+        return ids;
+    }
+
+    int size() {
+        return byProduct.size();
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps every product's stock level in a {@link StockIndex} and reports reorder-point crossings.
+ * Stock writers call {@link #stockChanged} and the index is updated when their transaction
+ * commits; a crossing is raised only there, on the node that made the change. Changes made on
+ * other nodes arrive through the {@link CacheInvalidationBus} and are applied without alerts.
+ * Every update carries the product's @Version, so commits reported out of order and reloads
+ * that raced with a newer commit cannot put an older stock level back.
+ * A product's reorder point is its own reorder_point, else inventory.reorder-points.categories
+ * for its category, else inventory.reorder-points.default.
+ */
+@Service
+public class StockLevelService {
+    private static final Logger log = LoggerFactory.getLogger(StockLevelService.class);
+    private static final String STOCK_COLUMNS = "SELECT id, COALESCE(stock, 0) AS stock, category, reorder_point, version FROM product";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<StockThresholdListener> listeners;
+    private final StockIndex index = new StockIndex();
+    private final int defaultReorderPoint;
+    private final Map<String, Integer> categoryReorderPoints = new HashMap<>();
+    private final int historySize;
+    private final Deque<StockThresholdCrossing> recentCrossings = new ArrayDeque<>();
+    private final Counter fellBelow;
+    private final Counter recovered;
+    private volatile boolean loaded;
+
+    public StockLevelService(
+            JdbcTemplate jdbcTemplate,
+            List<StockThresholdListener> listeners,
+            CacheInvalidationBus invalidationBus,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.reorder-points.default:5}") int defaultReorderPoint,
+            @Value("${inventory.reorder-points.categories:}") List<String> categoryReorderPoints,
+            @Value("${inventory.alerts.history-size:200}") int historySize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.listeners = new CopyOnWriteArrayList<>(listeners);
+        this.defaultReorderPoint = defaultReorderPoint;
+        for (String entry : categoryReorderPoints) {
+            int separator = entry.lastIndexOf(':');
+            if (separator > 0) {
+                this.categoryReorderPoints.put(entry.substring(0, separator).trim(),
+                        Integer.parseInt(entry.substring(separator + 1).trim()));
+            }
+        }
+        this.historySize = historySize;
+        this.fellBelow = Counter.builder("inventory.reorder_point.crossings").tag("direction", "below")
+                .register(meterRegistry);
+        this.recovered = Counter.builder("inventory.reorder_point.crossings").tag("direction", "recovered")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stock_index.size", index, StockIndex::size).register(meterRegistry);
+        invalidationBus.subscribe(CacheInvalidationBus.PRODUCTS, this::reloadFromDatabase);
+    }
+
+    /**
+     * Register a listener in addition to the StockThresholdListener beans
+     * @param listener The listener
+     */
+    public void subscribe(StockThresholdListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Record a product's new stock level. Inside a transaction it is applied after commit
+     * and dropped on rollback; outside one it is applied immediately.
+     * @param product The product as written
+     */
+    public void stockChanged(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+        long productId = product.getId();
+        int stock = product.getStock() != null ? product.getStock() : 0;
+        int reorderPoint = reorderPoint(product.getReorderPoint(), product.getCategory());
+        String name = product.getName();
+        String category = product.getCategory();
+        afterCommit(() -> {
+            try {
+                // Read after commit: the version is only incremented when the change is flushed
+                long version = product.getVersion() != null ? product.getVersion() : 0;
+                apply(productId, stock, reorderPoint, name, category, version);
+            } catch (RuntimeException e) {
+                // The stock change itself has committed; the next resync picks it up
+                log.warn("Updating the stock index for product {} failed: {}", productId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Remove a deleted product from the index once the deletion commits
+     * @param productId The product ID
+     */
+    public void productRemoved(Long productId) {
+        afterCommit(() -> index.remove(productId));
+    }
+
+    /**
+     * @param threshold Exclusive upper bound on stock
+     * @return IDs of products with stock below the threshold, lowest stock first
+     */
+    public List<Long> findProductIdsBelow(int threshold) {
+        ensureLoaded();
+        return index.below(threshold);
+    }
+
+    /**
+     * @return The most recent reorder-point crossings, newest first
+     */
+    public List<StockThresholdCrossing> getRecentCrossings() {
+        synchronized (recentCrossings) {
+            return new ArrayList<>(recentCrossings);
+        }
+    }
+
+    /**
+     * Rebuild the index from the product table, picking up changes made outside the application
+     */
+    @Scheduled(fixedDelayString = "${inventory.stock-index.resync-interval-ms:600000}", initialDelay = 5000)
+    public void resync() {
+        try {
+            reloadAll();
+        } catch (RuntimeException e) {
+            log.warn("Stock index resync failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(long productId, int stock, int reorderPoint, String name, String category, long version) {
+        ensureLoaded();
+        StockIndex.Entry previous = index.update(productId, stock, reorderPoint, version);
+        if (previous != null && previous.version() > version) {
+            // A newer version is already indexed
+            return;
+        }
+        boolean wasBelow = previous != null && previous.belowReorderPoint();
+        boolean isBelow = stock < reorderPoint;
+        if (wasBelow == isBelow) {
+            return;
+        }
+        StockThresholdCrossing crossing = new StockThresholdCrossing(productId, name, category,
+                previous != null ? previous.stock() : null, stock, reorderPoint, isBelow, LocalDateTime.now());
+        (isBelow ? fellBelow : recovered).increment();
+        synchronized (recentCrossings) {
+            recentCrossings.addFirst(crossing);
+            while (recentCrossings.size() > historySize) {
+                recentCrossings.removeLast();
+            }
+        }
+        for (StockThresholdListener listener : listeners) {
+            try {
+                listener.onCrossing(crossing);
+            } catch (RuntimeException e) {
+                log.warn("Stock threshold listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void reloadAll() {
+        Set<Long> seen = new HashSet<>();
+        jdbcTemplate.query(STOCK_COLUMNS, rs -> {
+            long id = rs.getLong("id");
+            index.update(id, rs.getInt("stock"),
+                    reorderPoint((Integer) rs.getObject("reorder_point"), rs.getString("category")),
+                    rs.getLong("version"));
+            seen.add(id);
+        });
+        if (!loaded) {
+            loaded = true;
+            log.info("Loaded {} products into the stock index", seen.size());
+        } else if (index.size() > seen.size()) {
+            // Products deleted outside the application
+            index.retainOnly(seen);
+        }
+    }
+
+    private void reloadFromDatabase(String productId) {
+        if (!loaded) {
+            // Not built yet; it will read the current table when first used
+            return;
+        }
+        if (productId == null) {
+            reloadAll();
+            return;
+        }
+        long id = Long.parseLong(productId);
+        List<Boolean> found = jdbcTemplate.query(STOCK_COLUMNS + " WHERE id = ?", (rs, rowNum) -> {
+            index.update(id, rs.getInt("stock"),
+                    reorderPoint((Integer) rs.getObject("reorder_point"), rs.getString("category")),
+                    rs.getLong("version"));
+            return true;
+        }, id);
+        if (found.isEmpty()) {
+            index.remove(id);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                reloadAll();
+            }
+        }
+    }
+
+    private int reorderPoint(Integer productReorderPoint, String category) {
+        if (productReorderPoint != null) {
+            return productReorderPoint;
+        }
+        return category != null ? categoryReorderPoints.getOrDefault(category, defaultReorderPoint) : defaultReorderPoint;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
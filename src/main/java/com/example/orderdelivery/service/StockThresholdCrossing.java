@@ -0,0 +1,19 @@
+package com.example.orderdelivery.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product's stock crossed its reorder point.
+ * @param productId The product ID
+ * @param productName The product name
+ * @param category The product category
+ * @param previousStock Stock before the change, or null for a new product
+ * @param stock Stock after the change
+ * @param reorderPoint The reorder point in effect
+ * @param belowReorderPoint true when stock fell below the reorder point, false when it recovered
+ * @param timestamp When the change was committed
+ */
+public record StockThresholdCrossing(Long productId, String productName, String category, Integer previousStock,
+                                     int stock, int reorderPoint, boolean belowReorderPoint,
+                                     LocalDateTime timestamp) {
+}
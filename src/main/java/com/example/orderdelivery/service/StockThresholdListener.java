@@ -0,0 +1,10 @@
+package com.example.orderdelivery.service;
+
+/**
+ * Receives reorder-point crossings from {@link StockLevelService} (purchasing notifications,
+ * dashboards, ...). Called on the committing thread after the stock change commits, so
+ * implementations should hand slow work off rather than do it inline.
+ */
+public interface StockThresholdListener {
+    void onCrossing(StockThresholdCrossing crossing);
+}
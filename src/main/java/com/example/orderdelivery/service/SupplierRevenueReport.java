@@ -0,0 +1,62 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.Supplier;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Total revenue of every supplier, as a JSON array. No parameters.
+ */
+@Component
+public class SupplierRevenueReport implements ReportGenerator {
+    private final SupplierService supplierService;
+    private final ObjectMapper objectMapper;
+
+    public SupplierRevenueReport(SupplierService supplierService, ObjectMapper objectMapper) {
+        this.supplierService = supplierService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ReportType getType() {
+        return ReportType.SUPPLIER_REVENUE;
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/json";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "json";
+    }
+
+    @Override
+    public void validate(Map<String, String> params) {
+    }
+
+    @Override
+    public void generate(Map<String, String> params, OutputStream out, ReportProgress progress) throws IOException {
+        List<Supplier> suppliers = supplierService.getAllSuppliers();
+        progress.setTotal(suppliers.size());
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            for (Supplier supplier : suppliers) {
+                json.writeStartObject();
+                json.writeNumberField("supplierId", supplier.getId());
+                json.writeStringField("name", supplier.getName());
+                json.writeNumberField("revenue", supplierService.getTotalRevenueBySupplier(supplier.getId()));
+                json.writeEndObject();
+                progress.advance(1);
+            }
+            json.writeEndArray();
+        }
+    }
+}
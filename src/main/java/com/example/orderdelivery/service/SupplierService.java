@@ -15,11 +15,14 @@ import java.util.List;
 public class SupplierService {
     private final SupplierRepository supplierRepository;
     private final ProductRepository productRepository;
+    private final ResourceVersionTracker resourceVersionTracker;
 
     public SupplierService(SupplierRepository supplierRepository, 
-                          ProductRepository productRepository) {
+                          ProductRepository productRepository,
+                          ResourceVersionTracker resourceVersionTracker) {
         this.supplierRepository = supplierRepository;
         this.productRepository = productRepository;
+        this.resourceVersionTracker = resourceVersionTracker;
     }
 
     /**
@@ -47,6 +50,7 @@ public class SupplierService {
      */
     @Transactional
     public Supplier createSupplier(Supplier supplier) {
+        resourceVersionTracker.markChanged(ResourceVersionTracker.SUPPLIERS);
         return supplierRepository.save(supplier);
     }
 
@@ -67,6 +71,7 @@ public class SupplierService {
         existingSupplier.setAddress(supplier.getAddress());
         existingSupplier.setNotes(supplier.getNotes());
         
+        resourceVersionTracker.markChanged(ResourceVersionTracker.SUPPLIERS, id);
         return supplierRepository.save(existingSupplier);
     }
 
@@ -82,6 +87,7 @@ public class SupplierService {
         // Since supplier-product relationship is not in the database,
         // we can directly delete the supplier
         supplierRepository.deleteById(id);
+        resourceVersionTracker.markChanged(ResourceVersionTracker.SUPPLIERS, id);
     }
 
     /**
@@ -0,0 +1,90 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.DeliveryStatus;
+import com.example.orderdelivery.entity.Order;
+import com.example.orderdelivery.entity.OrderStatus;
+import com.example.orderdelivery.entity.TrackingHistory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact binary encoding of an order's tracking history for the archive tier.
+ * Entries are written as fixed fields in a gzip stream; status names and descriptions
+ * repeat heavily across entries, so they compress to a few bytes each.
+ */
+final class TrackingHistoryCodec {
+    private static final int FORMAT_VERSION = 1;
+
+    private TrackingHistoryCodec() {
+    }
+
+    static byte[] encode(List<TrackingHistory> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(entries.size());
+            for (TrackingHistory entry : entries) {
+                out.writeLong(entry.getId() != null ? entry.getId() : -1L);
+                out.writeUTF(entry.getOrderStatus() != null ? entry.getOrderStatus().name() : "");
+                out.writeUTF(entry.getDeliveryStatus() != null ? entry.getDeliveryStatus().name() : "");
+                LocalDateTime timestamp = entry.getTimestamp();
+                out.writeBoolean(timestamp != null);
+                if (timestamp != null) {
+                    out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(timestamp.getNano());
+                }
+                out.writeUTF(entry.getDescription() != null ? entry.getDescription() : "");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode archived entries; the returned objects are detached and must not be saved
+     * @param data The archived blob
+     * @param order The order the entries belong to
+     * @return The entries in the order they were archived
+     */
+    static List<TrackingHistory> decode(byte[] data, Order order) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported tracking archive format " + version);
+            }
+            int count = in.readInt();
+            List<TrackingHistory> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                TrackingHistory entry = new TrackingHistory();
+                long id = in.readLong();
+                entry.setId(id >= 0 ? id : null);
+                entry.setOrder(order);
+                String orderStatus = in.readUTF();
+                entry.setOrderStatus(orderStatus.isEmpty() ? null : OrderStatus.valueOf(orderStatus));
+                String deliveryStatus = in.readUTF();
+                entry.setDeliveryStatus(deliveryStatus.isEmpty() ? null : DeliveryStatus.valueOf(deliveryStatus));
+                if (in.readBoolean()) {
+                    entry.setTimestamp(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+                }
+                String description = in.readUTF();
+                entry.setDescription(description.isEmpty() ? null : description);
+                entries.add(entry);
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.OrderStatus;
+import com.example.orderdelivery.entity.TrackingHistory;
+import com.example.orderdelivery.entity.TrackingHistoryArchive;
+import com.example.orderdelivery.repository.OrderRepository;
+import com.example.orderdelivery.repository.TrackingHistoryArchiveRepository;
+import com.example.orderdelivery.repository.TrackingHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves the tracking history of orders that were delivered or cancelled more than
+ * tracking.retention.days ago into tracking_history_archive, one compressed row per order.
+ * Work is split into short transactions of tracking.retention.batch-size orders with a pause
+ * in between, so the deletes never hold locks on the hot table for long. Each run walks the
+ * closed orders once by ID, resuming every batch after the last order of the previous one.
+ */
+@Service
+public class TrackingHistoryRetentionService {
+    private static final Logger log = LoggerFactory.getLogger(TrackingHistoryRetentionService.class);
+    private static final List<OrderStatus> CLOSED_STATUSES = List.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED);
+
+    private final TrackingHistoryRepository trackingHistoryRepository;
+    private final TrackingHistoryArchiveRepository archiveRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int retentionDays;
+    private final int batchSize;
+    private final long pauseMs;
+
+    public TrackingHistoryRetentionService(
+            TrackingHistoryRepository trackingHistoryRepository,
+            TrackingHistoryArchiveRepository archiveRepository,
+            OrderRepository orderRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${tracking.retention.days:90}") int retentionDays,
+            @Value("${tracking.retention.batch-size:200}") int batchSize,
+            @Value("${tracking.retention.pause-ms:100}") long pauseMs) {
+        this.trackingHistoryRepository = trackingHistoryRepository;
+        this.archiveRepository = archiveRepository;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(cron = "${tracking.retention.cron:0 30 3 * * *}")
+    public void archiveClosedOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int archived = 0;
+        try {
+            long afterId = 0;
+            List<Long> batch;
+            do {
+                long from = afterId;
+                batch = transactionTemplate.execute(status -> archiveBatch(cutoff, from));
+                archived += batch.size();
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1);
+                    if (pauseMs > 0) {
+                        Thread.sleep(pauseMs);
+                    }
+                }
+            } while (batch.size() == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Tracking history archival stopped after {} orders: {}", archived, e.getMessage());
+        }
+        if (archived > 0) {
+            log.info("Archived tracking history for {} closed orders", archived);
+        }
+    }
+
+    /**
+     * Archive one batch of orders inside the current transaction
+     * @param cutoff Orders with history after this time are kept in the hot table
+     * @param afterId Only orders with a greater ID are considered
+     * @return The IDs of the orders archived, ascending
+     */
+    List<Long> archiveBatch(LocalDateTime cutoff, long afterId) {
+        List<Long> orderIds = trackingHistoryRepository.findArchivableOrderIds(
+                CLOSED_STATUSES, cutoff.toLocalDate(), cutoff, afterId, PageRequest.of(0, batchSize));
+        if (orderIds.isEmpty()) {
+            return orderIds;
+        }
+
+        Map<Long, List<TrackingHistory>> entriesByOrder = trackingHistoryRepository
+                .findByOrderIdInOrderByTimestampAsc(orderIds).stream()
+                .collect(Collectors.groupingBy(entry -> entry.getOrder().getId(), LinkedHashMap::new, Collectors.toList()));
+        Map<Long, TrackingHistoryArchive> existing = archiveRepository.findByOrderIdIn(orderIds).stream()
+                .collect(Collectors.toMap(TrackingHistoryArchive::getOrderId, Function.identity()));
+
+        List<TrackingHistoryArchive> archives = new ArrayList<>(entriesByOrder.size());
+        List<TrackingHistory> archivedEntries = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        entriesByOrder.forEach((orderId, entries) -> {
+            TrackingHistoryArchive archive = existing.getOrDefault(orderId,
+                    TrackingHistoryArchive.builder().orderId(orderId).build());
+            List<TrackingHistory> merged = new ArrayList<>(entries);
+            if (archive.getData() != null) {
+                merged.addAll(TrackingHistoryCodec.decode(archive.getData(), orderRepository.getReferenceById(orderId)));
+                merged.sort(Comparator.comparing(TrackingHistory::getTimestamp,
+                        Comparator.nullsFirst(Comparator.naturalOrder())));
+            }
+            archive.setData(TrackingHistoryCodec.encode(merged));
+            archive.setEntryCount(merged.size());
+            archive.setArchivedAt(now);
+            archives.add(archive);
+            archivedEntries.addAll(entries);
+        });
+
+        archiveRepository.saveAll(archives);
+        trackingHistoryRepository.deleteAllByIdInBatch(
+                archivedEntries.stream().map(TrackingHistory::getId).collect(Collectors.toList()));
+        return orderIds;
+    }
+}
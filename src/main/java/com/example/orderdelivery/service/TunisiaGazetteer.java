@@ -0,0 +1,130 @@
+package com.example.orderdelivery.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves free-text Tunisian addresses to coordinates using the bundled
+ * geo/tunisia-gazetteer.csv (governorates and their main delegations), so no
+ * external geocoding service is needed.
+ */
+@Component
+public class TunisiaGazetteer {
+    private static final String RESOURCE = "geo/tunisia-gazetteer.csv";
+    private static final int MAX_NAME_WORDS = 4;
+
+    private final Map<String, Place> places = new HashMap<>();
+    private final Map<String, GeoPoint> governorateSeats = new HashMap<>();
+
+    private record Place(GeoPoint point, String governorate) {
+    }
+
+    public TunisiaGazetteer() {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(RESOURCE).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                GeoPoint point = new GeoPoint(Double.parseDouble(fields[2]), Double.parseDouble(fields[3]));
+                places.put(normalize(fields[0]), new Place(point, fields[1]));
+                if (fields[0].equals(fields[1])) {
+                    governorateSeats.put(fields[1], point);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load " + RESOURCE, e);
+        }
+    }
+
+    /**
+     * Resolve an address such as "Rue Ibn Khaldoun 23, Nabeul, Tunisia".
+     * Comma-separated parts are tried from last to first, so the town wins over a street
+     * named after another town ("Route de Hammamet, Nabeul"); within a part the longest
+     * known name wins.
+     * @param address The free-text address
+     * @return The coordinates of the matched place, or empty if no known place is mentioned
+     */
+    public Optional<GeoPoint> resolve(String address) {
+        return match(address).map(Place::point);
+    }
+
+    /**
+     * Resolve the governorate an address lies in
+     * @param address The free-text address
+     * @return The governorate name as used in the gazetteer, or empty if no known place is mentioned
+     */
+    public Optional<String> resolveGovernorate(String address) {
+        return match(address).map(Place::governorate);
+    }
+
+    /**
+     * Find the governorate whose seat is closest to a coordinate
+     * @param point The coordinate
+     * @return The governorate name
+     */
+    public String nearestGovernorate(GeoPoint point) {
+        String nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (Map.Entry<String, GeoPoint> seat : governorateSeats.entrySet()) {
+            double distance = point.distanceKm(seat.getValue());
+            if (distance < nearestDistance) {
+                nearest = seat.getKey();
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    private Optional<Place> match(String address) {
+        if (address == null || address.isBlank()) {
+            return Optional.empty();
+        }
+        String[] parts = address.split(",");
+        for (int i = parts.length - 1; i >= 0; i--) {
+            String normalized = normalize(parts[i]);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            Place match = longestMatch(normalized.split(" "));
+            if (match != null) {
+                return Optional.of(match);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Place longestMatch(String[] words) {
+        for (int length = Math.min(MAX_NAME_WORDS, words.length); length > 0; length--) {
+            for (int start = 0; start + length <= words.length; start++) {
+                Place place = places.get(String.join(" ", Arrays.copyOfRange(words, start, start + length)));
+                if (place != null) {
+                    return place;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", " ")
+                .trim();
+    }
+}
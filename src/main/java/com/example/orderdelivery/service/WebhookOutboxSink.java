@@ -0,0 +1,49 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * POSTs each outbox event as JSON to outbox.webhook.url. Any non-2xx response or
+ * I/O error is treated as a failed attempt. Point the URL at a local stub to test.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.webhook.url")
+public class WebhookOutboxSink implements OutboxEventSink {
+    private final RestTemplate restTemplate;
+    private final String url;
+
+    public WebhookOutboxSink(
+            RestTemplateBuilder restTemplateBuilder,
+            @Value("${outbox.webhook.url}") String url,
+            @Value("${outbox.webhook.timeout-ms:2000}") long timeoutMs) {
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(timeoutMs))
+                .setReadTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        this.url = url;
+    }
+
+    @Override
+    public String getName() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(OutboxEvent event) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Event-Id", String.valueOf(event.getId()));
+        headers.set("X-Event-Type", event.getEventType());
+        restTemplate.postForEntity(url, new HttpEntity<>(event.getPayload(), headers), Void.class);
+    }
+}
@@ -18,7 +18,11 @@ CREATE TABLE IF NOT EXISTS product (
     description TEXT,
     price DOUBLE,
     stock INTEGER,
-    category VARCHAR(100)
+    category VARCHAR(100),
+    weight DOUBLE,
+    volume DOUBLE,
+    reorder_point INTEGER,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Create Customer table
@@ -26,7 +30,9 @@ CREATE TABLE IF NOT EXISTS customer (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(255),
-    address VARCHAR(255)
+    address VARCHAR(255),
+    latitude DOUBLE,
+    longitude DOUBLE
 );
 
 -- Create Carrier table
@@ -34,7 +40,9 @@ CREATE TABLE IF NOT EXISTS carrier (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     phone VARCHAR(50),
-    note TEXT
+    note TEXT,
+    surcharge_rate DOUBLE,
+    surcharge_amount DOUBLE
 );
 
 -- Create Orders table
@@ -44,7 +52,12 @@ CREATE TABLE IF NOT EXISTS orders (
     date DATE,
     status VARCHAR(50),
     total_amount DOUBLE,
-    FOREIGN KEY (customer_id) REFERENCES customer(id)
+    version BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (customer_id) REFERENCES customer(id),
+    INDEX idx_orders_date (date),
+    INDEX idx_orders_status (status),
+    -- Covers the customer order history: range read on (customer_id, date, id), summary columns included
+    INDEX idx_orders_customer_date (customer_id, date, id, status, total_amount)
 );
 
 -- Create OrderLine table
@@ -64,10 +77,13 @@ CREATE TABLE IF NOT EXISTS delivery (
     order_id BIGINT,
     carrier_id BIGINT,
     delivery_date DATE,
+    time_window VARCHAR(20),
     cost DOUBLE,
     status VARCHAR(50),
+    version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (order_id) REFERENCES orders(id),
-    FOREIGN KEY (carrier_id) REFERENCES carrier(id)
+    FOREIGN KEY (carrier_id) REFERENCES carrier(id),
+    INDEX idx_delivery_status (status)
 );
 
 -- Create Payment table
@@ -89,5 +105,155 @@ CREATE TABLE IF NOT EXISTS tracking_history (
     delivery_status VARCHAR(50),
     timestamp DATETIME,
     description TEXT,
-    FOREIGN KEY (order_id) REFERENCES orders(id)
+    FOREIGN KEY (order_id) REFERENCES orders(id),
+    INDEX idx_tracking_history_order_timestamp (order_id, timestamp)
+);
+
+-- Create Outbox table for order lifecycle events, written in the same transaction
+-- as the change and delivered asynchronously by the dispatcher
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    aggregate_type VARCHAR(50),
+    aggregate_id BIGINT,
+    event_type VARCHAR(100),
+    payload TEXT,
+    status VARCHAR(20),
+    attempts INTEGER,
+    created_at DATETIME,
+    next_attempt_at DATETIME,
+    claimed_at DATETIME,
+    dispatched_at DATETIME,
+    last_error VARCHAR(500),
+    INDEX idx_outbox_event_due (status, next_attempt_at),
+    INDEX idx_outbox_event_dispatched (status, dispatched_at)
+);
+
+-- Create TrackingHistoryArchive table: one compressed row per closed order whose
+-- history has been moved out of tracking_history by the retention job. No foreign key,
+-- the order itself may later move to order_archive.
+CREATE TABLE IF NOT EXISTS tracking_history_archive (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id BIGINT NOT NULL UNIQUE,
+    entry_count INTEGER,
+    archived_at DATETIME,
+    data MEDIUMBLOB
+);
+
+-- Create OrderArchive table: cold tier for closed orders moved out of orders/order_line.
+-- Range-partitioned by month on date; OrderArchiveService adds monthly partitions by
+-- splitting p_future, so date-bounded queries only touch the matching partitions.
+-- Partitioned tables cannot take part in foreign keys, hence none here.
+CREATE TABLE IF NOT EXISTS order_archive (
+    id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    customer_id BIGINT,
+    status VARCHAR(50),
+    total_amount DOUBLE,
+    order_json TEXT,
+    delivery_json TEXT,
+    payment_json TEXT,
+    archived_at DATETIME,
+    PRIMARY KEY (id, date),
+    INDEX idx_order_archive_customer_date (customer_id, date, id, status, total_amount)
+)
+PARTITION BY RANGE COLUMNS (date) (
+    PARTITION p_start VALUES LESS THAN ('2020-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
+
+-- Create CarrierSlot table: per-carrier, per-day, per-window delivery capacity,
+-- flushed from the in-memory slot engine
+CREATE TABLE IF NOT EXISTS carrier_slot (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    carrier_id BIGINT NOT NULL,
+    slot_date DATE NOT NULL,
+    time_window VARCHAR(20) NOT NULL,
+    capacity INTEGER NOT NULL,
+    reserved INTEGER NOT NULL DEFAULT 0,
+    UNIQUE KEY uk_carrier_slot (carrier_id, slot_date, time_window),
+    INDEX idx_carrier_slot_date (slot_date),
+    FOREIGN KEY (carrier_id) REFERENCES carrier(id)
+);
+
+-- Create CarrierPosition table: last reported position per carrier
+CREATE TABLE IF NOT EXISTS carrier_position (
+    carrier_id BIGINT PRIMARY KEY,
+    latitude DOUBLE NOT NULL,
+    longitude DOUBLE NOT NULL,
+    available BOOLEAN NOT NULL DEFAULT TRUE,
+    updated_at DATETIME,
+    FOREIGN KEY (carrier_id) REFERENCES carrier(id)
+);
+
+-- Create CarrierPing table: GPS trail of carriers, downsampled from the in-memory ping buffers
+-- to one row per carrier per gps.sample-interval-seconds and inserted in batches. A delivery's
+-- trail is its carrier's rows while it was in transit.
+CREATE TABLE IF NOT EXISTS carrier_ping (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    carrier_id BIGINT NOT NULL,
+    latitude DOUBLE NOT NULL,
+    longitude DOUBLE NOT NULL,
+    recorded_at DATETIME(3) NOT NULL,
+    INDEX idx_carrier_ping_carrier_time (carrier_id, recorded_at),
+    INDEX idx_carrier_ping_time (recorded_at),
+    FOREIGN KEY (carrier_id) REFERENCES carrier(id)
+);
+
+-- Create ReconciliationRun table: one row per reconciled payment statement
+CREATE TABLE IF NOT EXISTS reconciliation_run (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    file_name VARCHAR(255),
+    started_at DATETIME,
+    finished_at DATETIME,
+    total_lines BIGINT,
+    matched BIGINT,
+    mismatched BIGINT,
+    duplicates BIGINT,
+    unmatched BIGINT,
+    invalid BIGINT,
+    indexed_orders BIGINT,
+    index_build_ms BIGINT,
+    duration_ms BIGINT,
+    lines_per_second DOUBLE
+);
+
+-- Create ReconciliationResult table: outcome per statement line
+CREATE TABLE IF NOT EXISTS reconciliation_result (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    run_id BIGINT NOT NULL,
+    line_number BIGINT,
+    order_id BIGINT,
+    payment_id BIGINT,
+    reference VARCHAR(255),
+    statement_amount DOUBLE,
+    expected_amount DOUBLE,
+    order_total DOUBLE,
+    payment_amount DOUBLE,
+    status VARCHAR(30),
+    message VARCHAR(255),
+    INDEX idx_reconciliation_result_run_line (run_id, line_number),
+    INDEX idx_reconciliation_result_run_status (run_id, status, line_number),
+    FOREIGN KEY (run_id) REFERENCES reconciliation_run(id)
+);
+
+-- Create CacheInvalidation table: entity changes broadcast between application instances,
+-- polled by every node with an ID cursor and deleted after the retention period
+CREATE TABLE IF NOT EXISTS cache_invalidation (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    region VARCHAR(50) NOT NULL,
+    entity_key VARCHAR(100),
+    origin_node VARCHAR(64) NOT NULL,
+    created_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_cache_invalidation_created (created_at)
+);
+
+-- Create ChangeLog table: one row per order, product or delivery change, written in the
+-- changing transaction and read by GET /api/changes with an ID cursor
+CREATE TABLE IF NOT EXISTS change_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    operation VARCHAR(10) NOT NULL,
+    changed_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_change_log_changed_at (changed_at)
 );
@@ -0,0 +1,41 @@
+package com.example.orderdelivery.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A zero target latency makes every sampled request count as slow
+ */
+class AdmissionControlFilterTests {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(meterRegistry,
+            true, 20, 4, 200, 0, 0.5, 0.5, 1);
+
+    @Test
+    void slowReportsDoNotShrinkTheWriteLimit() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, send("GET", "/api/inventory/value"));
+        }
+        assertEquals(20.0, limit());
+
+        assertEquals(200, send("POST", "/api/orders"));
+        assertEquals(10.0, limit());
+    }
+
+    private int send(String method, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, path), response, (req, res) -> LockSupport.parkNanos(100_000));
+        return response.getStatus();
+    }
+
+    private double limit() {
+        return meterRegistry.get("admission.limit").gauge().value();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.orderdelivery.config;
+
+import com.example.orderdelivery.exception.StaleVersionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RetryOnOptimisticLockTests {
+    private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(TestConfig.class);
+    private final Writer writer = context.getBean(Writer.class);
+    private final MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+
+    @AfterEach
+    void close() {
+        context.close();
+    }
+
+    @Test
+    void racingWriteIsRetried() {
+        writer.failWith(2, () -> new OptimisticLockingFailureException("row was updated by another transaction"));
+
+        assertEquals("written", writer.write());
+        assertEquals(3, writer.attempts());
+        assertEquals(1.0, meterRegistry.counter("orders.optimistic_lock.recovered", "method", label()).count());
+    }
+
+    @Test
+    void staleClientVersionIsNotRetried() {
+        writer.failWith(Integer.MAX_VALUE, () -> new StaleVersionException("Product 1 is at version 4, not 3"));
+
+        assertThrows(StaleVersionException.class, writer::write);
+        assertEquals(1, writer.attempts());
+        assertEquals(0.0, meterRegistry.counter("orders.optimistic_lock.conflicts", "method", label()).count());
+    }
+
+    @Test
+    void exhaustedRetriesSurfaceTheConflict() {
+        writer.failWith(Integer.MAX_VALUE, () -> new OptimisticLockingFailureException("row was updated by another transaction"));
+
+        assertThrows(OptimisticLockingFailureException.class, writer::write);
+        assertEquals(4, writer.attempts());
+        assertEquals(1.0, meterRegistry.counter("orders.optimistic_lock.exhausted", "method", label()).count());
+    }
+
+    private static String label() {
+        return "public java.lang.String " + Writer.class.getName() + ".write()";
+    }
+
+    /**
+     * Proxied by the retry interceptor, so its state is only reached through methods
+     */
+    static class Writer {
+        private final AtomicInteger attempts = new AtomicInteger();
+        private int failures;
+        private Supplier<RuntimeException> failure;
+
+        public void failWith(int failures, Supplier<RuntimeException> failure) {
+            this.failures = failures;
+            this.failure = failure;
+        }
+
+        public int attempts() {
+            return attempts.get();
+        }
+
+        @RetryOnOptimisticLock
+        public String write() {
+            if (attempts.incrementAndGet() <= failures) {
+                throw failure.get();
+            }
+            return "written";
+        }
+    }
+
+    @Configuration
+    @Import(RetryConfig.class)
+    static class TestConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        Writer writer() {
+            return new Writer();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.orderdelivery.controller;
+
+import com.example.orderdelivery.entity.Product;
+import com.example.orderdelivery.exception.GlobalExceptionHandler;
+import com.example.orderdelivery.exception.StaleVersionException;
+import com.example.orderdelivery.service.ProductService;
+import com.example.orderdelivery.service.ProjectionService;
+import com.example.orderdelivery.service.ResourceVersionTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductControllerTests {
+    private final ProductService productService = mock(ProductService.class);
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new ProductController(productService, mock(ResourceVersionTracker.class),
+                    mock(ProjectionService.class)))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void staleIfMatchIsAConflict() throws Exception {
+        when(productService.updateProduct(eq(1L), any(), eq(3L)))
+                .thenThrow(new StaleVersionException("Product 1 is at version 4, not 3; reload it and retry"));
+
+        mockMvc.perform(put("/api/products/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Blue\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Product 1 is at version 4, not 3; reload it and retry"));
+    }
+
+    @Test
+    void bodyVersionIsUsedWithoutIfMatch() throws Exception {
+        Product updated = new Product();
+        updated.setId(1L);
+        updated.setName("Blue");
+        updated.setVersion(4L);
+        when(productService.updateProduct(eq(1L), any(), eq(3L))).thenReturn(Optional.of(updated));
+
+        mockMvc.perform(put("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Blue\",\"version\":3}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void updateWithoutVersionIsRejected() throws Exception {
+        mockMvc.perform(put("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Blue\"}"))
+                .andExpect(status().isBadRequest());
+        verify(productService, never()).updateProduct(anyLong(), any(), any());
+    }
+}
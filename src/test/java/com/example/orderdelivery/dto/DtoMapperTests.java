@@ -0,0 +1,87 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.entity.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The entity graph mirrors what open-in-view lazily loads for one order: the customer's other
+ * orders and each product's order lines. None of it may reach the order response.
+ */
+class DtoMapperTests {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void orderResponseStopsAtOneLevelOfSummaries() {
+        JsonNode json = objectMapper.valueToTree(DtoMapper.toDto(sampleOrderGraph()));
+
+        assertEquals(1L, json.get("id").asLong());
+        assertEquals("Mohamed Aziz", json.get("customer").get("name").asText());
+        assertFalse(json.get("customer").has("orders"));
+
+        assertEquals(3, json.get("orderLines").size());
+        JsonNode line = json.get("orderLines").get(0);
+        assertEquals(1L, line.get("orderId").asLong());
+        assertEquals(1L, line.get("productId").asLong());
+        assertEquals("Extra Virgin Olive Oil 1L", line.get("productName").asText());
+        assertFalse(line.has("product"));
+
+        assertEquals(7L, json.get("deliveryId").asLong());
+        assertEquals("IN_TRANSIT", json.get("deliveryStatus").asText());
+        assertEquals(9L, json.get("paymentId").asLong());
+        assertEquals("PAID", json.get("paymentStatus").asText());
+        assertFalse(json.has("delivery"));
+        assertFalse(json.has("payment"));
+    }
+
+    @Test
+    void orderWithoutRelationsMapsToEmptySummaries() {
+        OrderDTO dto = DtoMapper.toDto(Order.builder().id(2L).status(OrderStatus.PENDING).build());
+
+        assertNull(dto.getCustomer());
+        assertEquals(List.of(), dto.getOrderLines());
+        assertNull(dto.getDeliveryId());
+        assertNull(dto.getPaymentId());
+    }
+
+    private Order sampleOrderGraph() {
+        Customer customer = Customer.builder().id(1L).name("Mohamed Aziz")
+                .email("mohamed@example.com").address("Rue Ibn Khaldoun 23, Nabeul, Tunisia").build();
+
+        List<Order> pastOrders = new ArrayList<>();
+        for (long i = 0; i < 50; i++) {
+            pastOrders.add(Order.builder().id(100 + i).date(LocalDate.now().minusDays(i))
+                    .status(OrderStatus.DELIVERED).totalAmount(42.0).build());
+        }
+        customer.setOrders(pastOrders);
+
+        Order order = Order.builder().id(1L).customer(customer).date(LocalDate.now())
+                .status(OrderStatus.IN_DELIVERY).totalAmount(155.94).build();
+
+        List<OrderLine> lines = new ArrayList<>();
+        for (long p = 1; p <= 3; p++) {
+            List<OrderLine> productHistory = new ArrayList<>();
+            for (long h = 0; h < 100; h++) {
+                productHistory.add(OrderLine.builder().id(1000 * p + h).quantity(2).unitPrice(25.99).build());
+            }
+            Product product = Product.builder().id(p).name("Extra Virgin Olive Oil 1L")
+                    .description("Premium olive oil from Nabeul region").price(25.99).stock(200)
+                    .category("Grocery").orderLines(productHistory).build();
+            lines.add(OrderLine.builder().id(p).order(order).product(product).quantity(2).unitPrice(25.99).build());
+        }
+        order.setOrderLines(lines);
+        order.setDelivery(Delivery.builder().id(7L).order(order).status(DeliveryStatus.IN_TRANSIT).build());
+        order.setPayment(Payment.builder().id(9L).order(order).status("PAID").build());
+        return order;
+    }
+}
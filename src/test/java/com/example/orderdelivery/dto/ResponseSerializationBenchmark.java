@@ -0,0 +1,98 @@
+package com.example.orderdelivery.dto;
+
+import com.example.orderdelivery.entity.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares serialized size and CPU time of an order response before (JPA entity graph)
+ * and after (DTO). The entity graph mirrors what open-in-view lazily loads for one order:
+ * the customer's other orders and each product's order lines. Back-references from those
+ * collections are cut, otherwise serializing the entity would never terminate. The DTO side is
+ * timed including the DtoMapper call and uses the Blackbird module, as the application does.
+ * Not part of the unit tests; run with mvn -Pbenchmark test.
+ */
+class ResponseSerializationBenchmark {
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+
+    @Test
+    void entityGraphAgainstDto() throws Exception {
+        Order order = sampleOrderGraph();
+
+        ObjectMapper entityMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ObjectMapper dtoMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new BlackbirdModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        int entityBytes = entityMapper.writeValueAsBytes(order).length;
+        int dtoBytes = dtoMapper.writeValueAsBytes(DtoMapper.toDto(order)).length;
+
+        long entityCpuNanos = cpuNanosPerRequest(() -> entityMapper.writeValueAsBytes(order));
+        long dtoCpuNanos = cpuNanosPerRequest(() -> dtoMapper.writeValueAsBytes(DtoMapper.toDto(order)));
+
+        System.out.printf("%-14s %10s %14s%n", "order response", "bytes", "CPU us/resp");
+        System.out.printf("%-14s %10d %14.1f%n", "entity graph", entityBytes, entityCpuNanos / 1000.0);
+        System.out.printf("%-14s %10d %14.1f%n", "DTO", dtoBytes, dtoCpuNanos / 1000.0);
+
+        assertTrue(dtoBytes < entityBytes);
+    }
+
+    private long cpuNanosPerRequest(SerializationCall call) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            call.run();
+        }
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.run();
+        }
+        return (threads.getCurrentThreadCpuTime() - start) / ITERATIONS;
+    }
+
+    private Order sampleOrderGraph() {
+        Customer customer = Customer.builder().id(1L).name("Mohamed Aziz")
+                .email("mohamed@example.com").address("Rue Ibn Khaldoun 23, Nabeul, Tunisia").build();
+
+        List<Order> pastOrders = new ArrayList<>();
+        for (long i = 0; i < 50; i++) {
+            pastOrders.add(Order.builder().id(100 + i).date(LocalDate.now().minusDays(i))
+                    .status(OrderStatus.DELIVERED).totalAmount(42.0).build());
+        }
+        customer.setOrders(pastOrders);
+
+        List<OrderLine> lines = new ArrayList<>();
+        for (long p = 1; p <= 3; p++) {
+            List<OrderLine> productHistory = new ArrayList<>();
+            for (long h = 0; h < 100; h++) {
+                productHistory.add(OrderLine.builder().id(1000 * p + h).quantity(2).unitPrice(25.99).build());
+            }
+            Product product = Product.builder().id(p).name("Extra Virgin Olive Oil 1L")
+                    .description("Premium olive oil from Nabeul region").price(25.99).stock(200)
+                    .category("Grocery").orderLines(productHistory).build();
+            lines.add(OrderLine.builder().id(p).product(product).quantity(2).unitPrice(25.99).build());
+        }
+
+        return Order.builder().id(1L).customer(customer).date(LocalDate.now())
+                .status(OrderStatus.PENDING).totalAmount(155.94).orderLines(lines).build();
+    }
+
+    @FunctionalInterface
+    private interface SerializationCall {
+        void run() throws Exception;
+    }
+}
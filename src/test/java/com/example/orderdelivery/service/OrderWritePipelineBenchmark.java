@@ -0,0 +1,146 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.Order;
+import com.example.orderdelivery.repository.OrderRepository;
+import com.example.orderdelivery.repository.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput and latency of POST /api/orders with orders.batching.enabled off and on, for a few
+ * orders.batching.max-wait-ms values and client counts. The database is simulated. Each insert
+ * takes INSERT_MICROS. Each commit holds the redo log for COMMIT_MICROS, so commits are
+ * serialized, much like an fsync-bound MySQL. The benchmark therefore measures what the pipeline
+ * itself trades, not MySQL. Not part of the unit tests; run with mvn -Pbenchmark test.
+ */
+class OrderWritePipelineBenchmark {
+    private static final long COMMIT_MICROS = 2000;
+    private static final long INSERT_MICROS = 100;
+    private static final long WARMUP_MS = 500;
+    private static final long MEASURE_MS = 2000;
+    private static final int[] CLIENTS = {4, 32};
+    private static final long[] MAX_WAIT_MS = {0, 1, 5, 10};
+
+    private final ReentrantLock redoLog = new ReentrantLock();
+
+    @Test
+    void batchingOnAndOff() throws Exception {
+        System.out.printf("%-22s %7s %10s %8s %8s %10s%n", "mode", "clients", "orders/s", "p50 ms", "p99 ms", "avg batch");
+        for (int clients : CLIENTS) {
+            run("batching off", clients, false, 0);
+            for (long maxWaitMs : MAX_WAIT_MS) {
+                run("batching, wait " + maxWaitMs + " ms", clients, true, maxWaitMs);
+            }
+        }
+    }
+
+    private void run(String mode, int clients, boolean batching, long maxWaitMs) throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderWritePipeline pipeline = pipeline(meterRegistry, batching, maxWaitMs);
+        pipeline.start();
+
+        long warmupEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WARMUP_MS);
+        long end = warmupEnd + TimeUnit.MILLISECONDS.toNanos(MEASURE_MS);
+        List<long[]> latencies = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            long[] samples = new long[200_000];
+            latencies.add(samples);
+            Thread thread = new Thread(() -> {
+                int count = 0;
+                while (true) {
+                    long start = System.nanoTime();
+                    if (start >= end) {
+                        break;
+                    }
+                    pipeline.submit(new Order());
+                    if (start >= warmupEnd && count < samples.length - 1) {
+                        samples[++count] = System.nanoTime() - start;
+                    }
+                }
+                samples[0] = count;
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        pipeline.stop();
+
+        long[] all = latencies.stream()
+                .flatMapToLong(samples -> Arrays.stream(samples, 1, (int) samples[0] + 1))
+                .sorted()
+                .toArray();
+        DistributionSummary batchSize = meterRegistry.find("orders.batch.size").summary();
+        System.out.printf("%-22s %7d %10.0f %8.2f %8.2f %10s%n", mode, clients,
+                all.length * 1000.0 / MEASURE_MS,
+                all[all.length / 2] / 1e6,
+                all[(int) (all.length * 0.99)] / 1e6,
+                batching && batchSize != null ? String.format("%.1f", batchSize.mean()) : "-");
+    }
+
+    private OrderWritePipeline pipeline(SimpleMeterRegistry meterRegistry, boolean batching, long maxWaitMs) {
+        OrderService orderService = mock(OrderService.class);
+        // Direct path: one insert and one commit per order
+        when(orderService.createOrder(any())).thenAnswer(invocation -> {
+            work(INSERT_MICROS);
+            commit();
+            return invocation.getArgument(0);
+        });
+        doAnswer(invocation -> {
+            work(INSERT_MICROS);
+            return null;
+        }).when(orderService).prepareNewOrder(any());
+
+        PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                OrderWritePipelineBenchmark.this.commit();
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+        return new OrderWritePipeline(orderService, mock(OrderRepository.class), mock(ProductRepository.class),
+                new TransactionTemplate(transactionManager), mock(ChangeLogService.class), meterRegistry,
+                batching, 64, maxWaitMs, 1024, 5000);
+    }
+
+    private void commit() {
+        redoLog.lock();
+        try {
+            work(COMMIT_MICROS);
+        } finally {
+            redoLog.unlock();
+        }
+    }
+
+    private static void work(long micros) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+}
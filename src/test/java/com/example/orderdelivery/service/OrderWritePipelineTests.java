@@ -0,0 +1,106 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.Order;
+import com.example.orderdelivery.repository.OrderRepository;
+import com.example.orderdelivery.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class OrderWritePipelineTests {
+    private final OrderService orderService = mock(OrderService.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final CountDownLatch inCommit = new CountDownLatch(1);
+    private final CountDownLatch releaseCommit = new CountDownLatch(1);
+    private OrderWritePipeline pipeline;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        releaseCommit.countDown();
+        pipeline.stop();
+    }
+
+    @Test
+    void orderWhoseCallerTimedOutIsNotWritten() throws Exception {
+        pipeline = start(50);
+        Order first = Order.builder().id(1L).build();
+        Order second = Order.builder().id(2L).build();
+
+        CompletableFuture<Order> firstResult = CompletableFuture.supplyAsync(() -> pipeline.submit(first));
+        assertTrue(inCommit.await(5, TimeUnit.SECONDS));
+        // The writer is stuck committing the first order, so the second times out in the queue
+        assertThrows(RuntimeException.class, () -> pipeline.submit(second));
+        releaseCommit.countDown();
+        assertSame(first, firstResult.get(5, TimeUnit.SECONDS));
+        pipeline.stop();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Order>> saved = ArgumentCaptor.forClass(List.class);
+        verify(orderRepository, atLeastOnce()).saveAll(saved.capture());
+        assertTrue(saved.getAllValues().stream().noneMatch(orders -> orders.contains(second)));
+        verify(orderService, never()).prepareNewOrder(second);
+        verify(orderService, never()).createOrder(any());
+    }
+
+    @Test
+    void orderTakenByTheWriterIsAwaitedPastTheTimeout() throws Exception {
+        pipeline = start(50);
+        Order order = Order.builder().id(1L).build();
+
+        CompletableFuture<Order> result = CompletableFuture.supplyAsync(() -> pipeline.submit(order));
+        assertTrue(inCommit.await(5, TimeUnit.SECONDS));
+        // Well past the caller timeout, but the order is already in the writer's transaction
+        Thread.sleep(200);
+        releaseCommit.countDown();
+        assertSame(order, result.get(5, TimeUnit.SECONDS));
+    }
+
+    private OrderWritePipeline start(long callerTimeoutMs) {
+        PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                inCommit.countDown();
+                try {
+                    releaseCommit.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+        OrderWritePipeline started = new OrderWritePipeline(orderService, orderRepository,
+                mock(ProductRepository.class), new TransactionTemplate(transactionManager),
+                mock(ChangeLogService.class), new SimpleMeterRegistry(),
+                true, 1, 0, 16, callerTimeoutMs);
+        started.start();
+        return started;
+    }
+}
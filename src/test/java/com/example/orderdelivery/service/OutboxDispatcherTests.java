@@ -0,0 +1,178 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.OutboxEvent;
+import com.example.orderdelivery.entity.OutboxStatus;
+import com.example.orderdelivery.repository.OutboxEventRepository;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the dispatcher against a local HTTP stub through the real webhook sink
+ */
+class OutboxDispatcherTests {
+    private static final long BASE_DELAY_MS = 1000;
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<String> receivedEventIds = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private volatile long responseDelayMs;
+    private HttpServer server;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/events", exchange -> {
+            try {
+                Thread.sleep(responseDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getRequestBody().readAllBytes();
+            receivedEventIds.add(exchange.getRequestHeaders().getFirst("X-Event-Id"));
+            int status = failuresLeft.getAndDecrement() > 0 ? 503 : 204;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        when(outboxEventRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(outboxEventRepository.findFirstByStatusOrderByIdAsc(any())).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void failedDeliveriesBackOffExponentiallyUntilDelivered() {
+        OutboxDispatcher dispatcher = dispatcher(60_000);
+        OutboxEvent event = event(1L);
+        failuresLeft.set(2);
+
+        dispatchOnce(dispatcher, List.of(event));
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertRetryAfter(event, BASE_DELAY_MS);
+
+        dispatchOnce(dispatcher, List.of(event));
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(2, event.getAttempts());
+        assertRetryAfter(event, 2 * BASE_DELAY_MS);
+        assertTrue(event.getLastError().contains("503"));
+
+        dispatchOnce(dispatcher, List.of(event));
+        assertEquals(OutboxStatus.DISPATCHED, event.getStatus());
+        assertEquals(3, event.getAttempts());
+        assertNull(event.getLastError());
+        assertEquals(List.of("1", "1", "1"), receivedEventIds);
+    }
+
+    @Test
+    void eventsNotStartedWithinHalfTheLeaseAreReleased() {
+        OutboxDispatcher dispatcher = dispatcher(400);
+        responseDelayMs = 150;
+        List<OutboxEvent> batch = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            batch.add(event(id));
+        }
+
+        dispatchOnce(dispatcher, batch);
+
+        // Each delivery takes at least 150 ms, so only the first one or two start within 200 ms
+        int delivered = (int) batch.stream().filter(event -> event.getStatus() == OutboxStatus.DISPATCHED).count();
+        assertTrue(delivered >= 1 && delivered <= 2, delivered + " delivered");
+        assertEquals(delivered, receivedEventIds.size());
+        for (OutboxEvent event : batch.subList(delivered, batch.size())) {
+            assertEquals(OutboxStatus.PENDING, event.getStatus());
+            assertNull(event.getAttempts());
+            assertNull(event.getClaimedAt());
+        }
+    }
+
+    @Test
+    void purgeDeletesDispatchedAndFailedEventsInChunks() {
+        when(jdbcTemplate.update(contains("'DISPATCHED'"), eq(72))).thenReturn(10000, 10000, 3);
+        when(jdbcTemplate.update(contains("'FAILED'"), eq(720))).thenReturn(0);
+
+        dispatcher(60_000).purge();
+
+        verify(jdbcTemplate, times(3)).update(contains("'DISPATCHED'"), eq(72));
+        verify(jdbcTemplate, times(1)).update(contains("'FAILED'"), eq(720));
+    }
+
+    private void dispatchOnce(OutboxDispatcher dispatcher, List<OutboxEvent> due) {
+        when(outboxEventRepository.lockDueEvents(any(), any(), anyInt())).thenReturn(due, List.of());
+        dispatcher.dispatchPending();
+    }
+
+    private static void assertRetryAfter(OutboxEvent event, long delayMs) {
+        LocalDateTime expected = LocalDateTime.now().plus(Duration.ofMillis(delayMs));
+        long skewMs = Math.abs(Duration.between(expected, event.getNextAttemptAt()).toMillis());
+        assertTrue(skewMs < 500, "next attempt " + event.getNextAttemptAt() + ", expected about " + expected);
+    }
+
+    private OutboxDispatcher dispatcher(long claimLeaseMs) {
+        WebhookOutboxSink sink = new WebhookOutboxSink(new RestTemplateBuilder(),
+                "http://localhost:" + server.getAddress().getPort() + "/events", 2000);
+        PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+        return new OutboxDispatcher(outboxEventRepository, List.of(sink), new TransactionTemplate(transactionManager),
+                jdbcTemplate, new SimpleMeterRegistry(), 100, 10, BASE_DELAY_MS, 300_000, claimLeaseMs, 72, 720);
+    }
+
+    private static OutboxEvent event(long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType("Order")
+                .aggregateId(id)
+                .eventType("OrderStatusChanged")
+                .payload("{\"id\":" + id + "}")
+                .status(OutboxStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.orderdelivery.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentLedgerIndexTests {
+
+    @Test
+    void emptyMapFindsNothing() {
+        PaymentLedgerIndex.LongIntHashMap map = new PaymentLedgerIndex.LongIntHashMap();
+
+        assertFalse(PaymentLedgerIndex.isFound(map.get(0)));
+        assertFalse(PaymentLedgerIndex.isFound(map.get(1)));
+    }
+
+    @Test
+    void keyZeroIsNeverFound() {
+        PaymentLedgerIndex.LongIntHashMap map = new PaymentLedgerIndex.LongIntHashMap();
+        map.putIfAbsent(1, 0);
+        map.putIfAbsent(2, 1);
+
+        assertFalse(PaymentLedgerIndex.isFound(map.get(0)));
+    }
+
+    @Test
+    void nonPositiveKeysAreRejected() {
+        PaymentLedgerIndex.LongIntHashMap map = new PaymentLedgerIndex.LongIntHashMap();
+
+        assertThrows(IllegalArgumentException.class, () -> map.putIfAbsent(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> map.putIfAbsent(-5, 1));
+    }
+
+    @Test
+    void firstValueWinsAndSurvivesResize() {
+        PaymentLedgerIndex.LongIntHashMap map = new PaymentLedgerIndex.LongIntHashMap();
+        map.putIfAbsent(42, 7);
+        map.putIfAbsent(42, 8);
+        for (int i = 0; i < 10_000; i++) {
+            map.putIfAbsent(1_000_000L + i * 2048L, i);
+        }
+
+        assertEquals(7, map.get(42));
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, map.get(1_000_000L + i * 2048L));
+        }
+        assertFalse(PaymentLedgerIndex.isFound(map.get(1_000_001L)));
+    }
+
+    @Test
+    void lookupsIgnoreNonPositiveIds() {
+        PaymentLedgerIndex index = new PaymentLedgerIndex();
+        index.add(10, 25.0, 0, Double.NaN);
+        index.add(11, 30.0, 500, 30.0);
+
+        assertEquals(0, index.findByOrderId(10));
+        assertEquals(1, index.findByPaymentId(500));
+        assertFalse(PaymentLedgerIndex.isFound(index.findByPaymentId(0)));
+        assertFalse(PaymentLedgerIndex.isFound(index.findByPaymentId(-1)));
+        assertFalse(PaymentLedgerIndex.isFound(index.findByOrderId(0)));
+        assertFalse(PaymentLedgerIndex.isFound(index.findByOrderId(-10)));
+    }
+
+    @Test
+    void underpaidOrderFailsTheOrderTotalCheck() {
+        PaymentLedgerIndex index = new PaymentLedgerIndex();
+        index.add(10, 100.0, 500, 60.0);
+        index.add(11, 30.0, 501, 30.001);
+        index.add(12, 45.0, 0, Double.NaN);
+
+        assertEquals(60.0, index.expectedAmount(0));
+        assertFalse(index.paymentMatchesOrderTotal(0, 0.005));
+        assertTrue(index.paymentMatchesOrderTotal(1, 0.005));
+        assertTrue(index.paymentMatchesOrderTotal(2, 0.005));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.orderdelivery.service;
+
+import com.example.orderdelivery.entity.Product;
+import com.example.orderdelivery.exception.StaleVersionException;
+import com.example.orderdelivery.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTests {
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductService productService = new ProductService(productRepository,
+            mock(ResourceVersionTracker.class), mock(StockLevelService.class), mock(ChangeLogService.class),
+            mock(EntityMultiLoader.class));
+
+    @Test
+    void updateOfTheCurrentVersionIsApplied() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(stored()));
+        when(productRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Optional<Product> updated = productService.updateProduct(1L, edit("Blue"), 3L);
+
+        assertTrue(updated.isPresent());
+        assertEquals("Blue", updated.get().getName());
+    }
+
+    @Test
+    void updateOfAnOlderVersionIsRejected() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(stored()));
+
+        assertThrows(StaleVersionException.class, () -> productService.updateProduct(1L, edit("Blue"), 2L));
+        verify(productRepository, never()).save(any());
+    }
+
+    private static Product stored() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Red");
+        product.setVersion(3L);
+        return product;
+    }
+
+    private static Product edit(String name) {
+        Product product = new Product();
+        product.setName(name);
+        return product;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.orderdelivery.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StockIndexTests {
+
+    @Test
+    void olderVersionDoesNotReplaceANewerOne() {
+        StockIndex index = new StockIndex();
+        index.update(1L, 3, 5, 7);
+
+        StockIndex.Entry current = index.update(1L, 10, 5, 6);
+
+        assertEquals(7, current.version());
+        assertEquals(List.of(1L), index.below(5));
+    }
+
+    @Test
+    void sameOrNewerVersionIsApplied() {
+        StockIndex index = new StockIndex();
+        assertNull(index.update(1L, 3, 5, 7));
+
+        index.update(1L, 4, 5, 7);
+        StockIndex.Entry previous = index.update(1L, 10, 5, 8);
+
+        assertEquals(4, previous.stock());
+        assertEquals(List.of(), index.below(5));
+        assertEquals(1, index.size());
+    }
+}
@@ -0,0 +1,77 @@
+#!/bin/sh
+# Compares startup of the regular fat jar with the fast-startup build, with and without the
+# class-data-sharing archive. For each run it reports time-to-first-request (process launch until
+# /actuator/health answers with any HTTP status) and the resident set size at that moment.
+#
+#   mvn -Pfast-startup -DskipTests package && ./startup-training-run.sh
+#   ./startup-benchmark.sh [runs]
+#
+# Extra JVM options (e.g. -Xmx512m to mimic the pod limits) can be passed in JAVA_OPTS.
+cd "$(dirname "$0")"
+
+RUNS=${1:-3}
+PORT=${BENCHMARK_PORT:-18080}
+TIMEOUT_SECONDS=${BENCHMARK_TIMEOUT:-120}
+
+EXEC_JAR=$(ls target/order-delivery-backend-*-exec.jar 2>/dev/null | head -n 1)
+THIN_JAR=$(ls target/order-delivery-backend-*.jar 2>/dev/null | grep -v -- '-exec.jar' | head -n 1)
+if [ -z "$EXEC_JAR" ] || [ -z "$THIN_JAR" ]; then
+    echo "Build first: mvn -Pfast-startup -DskipTests package" >&2
+    exit 1
+fi
+FAST_OPTS="-Dspring.aot.enabled=true -Dspring.profiles.active=fast-startup"
+
+now_ms() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+# run <label> <java arguments...>
+run() {
+    label=$1
+    shift
+    start=$(now_ms)
+    java $JAVA_OPTS -Dserver.port=$PORT "$@" > "target/startup-benchmark-$label.log" 2>&1 &
+    pid=$!
+    deadline=$((start + TIMEOUT_SECONDS * 1000))
+    while :; do
+        code=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/actuator/health")
+        if [ "$code" != "000" ]; then
+            elapsed=$(($(now_ms) - start))
+            rss_kb=$(awk '/VmRSS/ { print $2 }' "/proc/$pid/status")
+            echo "$label $elapsed $((rss_kb / 1024))"
+            break
+        fi
+        if [ "$(now_ms)" -gt "$deadline" ] || ! kill -0 "$pid" 2>/dev/null; then
+            echo "$label failed - see target/startup-benchmark-$label.log" >&2
+            break
+        fi
+        sleep 0.05
+    done
+    kill "$pid" 2>/dev/null
+    wait "$pid" 2>/dev/null
+}
+
+results=$(mktemp)
+i=1
+while [ "$i" -le "$RUNS" ]; do
+    run baseline -jar "$EXEC_JAR" >> "$results"
+    run fast-startup $FAST_OPTS -jar "$THIN_JAR" >> "$results"
+    if [ -f target/app-cds.jsa ]; then
+        run fast-startup-cds -XX:SharedArchiveFile=target/app-cds.jsa $FAST_OPTS -jar "$THIN_JAR" >> "$results"
+    fi
+    i=$((i + 1))
+done
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR > 0) print v[int((NR + 1) / 2)] }'
+}
+
+printf '%-18s %6s %22s %16s\n' mode runs "time-to-first-request" "startup RSS"
+for label in baseline fast-startup fast-startup-cds; do
+    runs=$(grep -c "^$label " "$results")
+    [ "$runs" -eq 0 ] && continue
+    ms=$(grep "^$label " "$results" | cut -d' ' -f2 | median)
+    rss=$(grep "^$label " "$results" | cut -d' ' -f3 | median)
+    printf '%-18s %6d %19d ms %13d MB\n' "$label" "$runs" "$ms" "$rss"
+done
+rm -f "$results"
@@ -0,0 +1,29 @@
+#!/bin/sh
+# Creates the application class-data-sharing archive used by the fast-startup mode.
+#
+#   mvn -Pfast-startup -DskipTests package
+#   ./startup-training-run.sh
+#   java -XX:SharedArchiveFile=target/app-cds.jsa -Dspring.aot.enabled=true \
+#        -Dspring.profiles.active=fast-startup -jar target/order-delivery-backend-<version>.jar
+#
+# The training run starts the AOT-processed application, sends the warm-up requests listed in
+# startup.training-paths and exits; the JVM then dumps every loaded class into the archive.
+# Re-run it whenever the jar or the JDK changes, the archive is only valid for the exact classpath.
+set -e
+cd "$(dirname "$0")"
+
+JAR=$(ls target/order-delivery-backend-*.jar | grep -v -- '-exec.jar' | head -n 1)
+if [ -z "$JAR" ] || [ ! -d target/lib ]; then
+    echo "Build first: mvn -Pfast-startup -DskipTests package" >&2
+    exit 1
+fi
+
+rm -f target/app-cds.jsa
+java -XX:ArchiveClassesAtExit=target/app-cds.jsa -Xlog:cds=error \
+     -Dspring.aot.enabled=true \
+     -Dspring.profiles.active=fast-startup \
+     -Dstartup.training-run=true \
+     -Dserver.port=0 \
+     -jar "$JAR"
+
+ls -l target/app-cds.jsa